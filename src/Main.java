@@ -31,5 +31,16 @@ public class Main {
 
                 long end2 = System.nanoTime();
                 System.out.println("Время декодирования текста: " + (end2 - start2) / 1_000_000 + " мс");
+
+                // Вариант с одним файлом-контейнером (набор кодировки Хаффмана и закодированный текст в одном файле)
+                // encodedTextFile.hfm - в этот файл записываются набор кодировки Хаффмана и закодированный текст, из него они читаются при декодировании
+//                huff.executeEncoding("sourceTextFile.txt", "encodedTextFile.hfm");
+//                huff.executeDecoding("encodedTextFile.hfm", "decodedTextFile.txt");
+
+                // Вариант с кешем наборов кодировки (текст с почти такой же частотностью символов кодируется без построения дерева,
+                // декодер получает набор кодировки и таблицу декодирования из кеша по идентификатору)
+//                huff.setCharsetCache(new HfmCharsetCache());
+//                huff.executeEncoding("sourceTextFile.txt", "huffmanCodeFile.txt", "encodedTextFile.txt");
+//                huff.executeDecoding(huff.getCharsetId(), "encodedTextFile.txt", "decodedTextFile.txt");
         }
 }
\ No newline at end of file
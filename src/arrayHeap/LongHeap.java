@@ -0,0 +1,306 @@
+package arrayHeap;
+
+import utils.constants.AppConstants;
+import utils.output.*;
+
+import java.util.Arrays;
+
+/**
+ * Неограниченная d-арная куча примитивов (d-ary heap) с ключами {@code long} и данными {@code int}.
+ * Ключи и данные хранятся в параллельных массивах примитивов без узлов-оберток и упаковки ключей.
+ * Данные - как правило, индекс элемента во внешнем массиве объектов.
+ * Куча поддерживает два типа:
+ *          Max-Heap - максимальный элемент всегда в корне;
+ *          Min-Heap - минимальный элемент всегда в корне.
+ * При равных ключах приоритет имеет элемент с меньшими данными, поэтому порядок извлечения детерминирован.
+ * Начальное заполнение массивами выполняется за O(n) (heapify), вставка и удаление - за O(log n).
+ */
+public class LongHeap implements Output, IntOutput {
+    /**
+     * Массив ключей кучи.
+     */
+    private long[] keys;
+
+    /**
+     * Массив данных кучи.
+     */
+    private int[] items;
+
+    /**
+     * Арность кучи (количество потомков узла).
+     */
+    private final int arity;
+
+    /**
+     * Тип кучи:
+     *     true: тип Max-Heap (максимальный элемент всегда в корне);
+     *     false: тип Min-Heap (минимальный элемент всегда в корне).
+     */
+    private final boolean isMaxHeap;
+
+    /**
+     * Текущий размер кучи.
+     */
+    private int currentSize;
+
+    /**
+     * Интерфейс вывода в поток кучи как массив.
+     */
+    public final Display out = new Display(this::display, "<<< Primitive d-ary heap (as array): ", ">>>");
+
+    /**
+     * Интерфейс вывода в поток кучи по уровням.
+     */
+    public final IntDisplay outTree = new IntDisplay(this::display, "<<< Primitive d-ary heap (by levels): ", ">>>");
+
+    /**
+     * Создает пустую кучу с заданными арностью и типом.
+     * @param arity арность кучи (не меньше 2).
+     * @param isMaxHeap тип кучи:
+     *        true: куча типа max-Heap (максимальный элемент всегда в корне);
+     *        false: куча типа min-Heap (минимальный элемент всегда в корне).
+     */
+    public LongHeap(int arity, boolean isMaxHeap) {
+        this(new long[AppConstants.HEAP_INIT_CAPACITY], new int[AppConstants.HEAP_INIT_CAPACITY], 0, arity, isMaxHeap);
+    }
+
+    /**
+     * Создает кучу из заданных массивов ключей и данных за O(n) (heapify).
+     * Массивы используются кучей без копирования и переупорядочиваются.
+     * @param keys массив ключей.
+     * @param items массив данных (той же длины, что и массив ключей).
+     * @param size количество заполненных элементов массивов.
+     * @param arity арность кучи (не меньше 2).
+     * @param isMaxHeap тип кучи:
+     *        true: куча типа max-Heap (максимальный элемент всегда в корне);
+     *        false: куча типа min-Heap (минимальный элемент всегда в корне).
+     */
+    public LongHeap(long[] keys, int[] items, int size, int arity, boolean isMaxHeap) {
+        if(arity < 2) {
+            throw new IllegalArgumentException("Арность кучи должна быть не меньше 2.");
+        }
+        if(keys.length != items.length) {
+            throw new IllegalArgumentException("Массивы ключей и данных кучи должны иметь одинаковую длину.");
+        }
+        if(size < 0 || size > keys.length) {
+            throw new IllegalArgumentException("Размер кучи должен быть в диапазоне от 0 до длины массивов.");
+        }
+        this.keys = keys;
+        this.items = items;
+        this.currentSize = size;
+        this.arity = arity;
+        this.isMaxHeap = isMaxHeap;
+        // Опустить вниз все узлы, имеющие потомков, начиная с последнего
+        for(int index = (size - 2) / arity; index >= 0 && size > 1; --index) {
+            moveDown(index);
+        }
+    }
+
+    /**
+     * Получает размер кучи.
+     * @return размер кучи.
+     */
+    public int size() {
+        return currentSize;
+    }
+
+    /**
+     * Получает арность кучи.
+     * @return арность кучи.
+     */
+    public int getArity() {
+        return arity;
+    }
+
+    /**
+     * Получает ключ первого элемента кучи.
+     * @return ключ первого элемента.
+     */
+    public long getFirstKey() {
+        checkNotEmpty();
+        return keys[0];
+    }
+
+    /**
+     * Получает данные первого элемента кучи.
+     * @return данные первого элемента.
+     */
+    public int getFirstItem() {
+        checkNotEmpty();
+        return items[0];
+    }
+
+    /**
+     * Проверяет, что куча не пуста.
+     */
+    private void checkNotEmpty() {
+        if(currentSize == 0) {
+            throw new IllegalArgumentException("Куча пуста.");
+        }
+    }
+
+    /**
+     * Вставляет элемент в кучу с заданными ключом и данными.
+     * Уникальность элементов не поддерживается.
+     * @param key ключ элемента.
+     * @param item данные элемента.
+     */
+    public void insert(long key, int item) {
+        if(currentSize == keys.length) {
+            resize(Math.max(2, currentSize * 2));
+        }
+        keys[currentSize] = key;
+        items[currentSize] = item;
+        moveUp(currentSize++);
+    }
+
+    /**
+     * Удаляет первый элемент кучи.
+     * Последний элемент занимает его место и сдвигается вниз с учетом его приоритета.
+     * @return данные удаленного элемента.
+     */
+    public int remove() {
+        checkNotEmpty();
+        int item = items[0];
+        if(--currentSize > 0) {
+            keys[0] = keys[currentSize];
+            items[0] = items[currentSize];
+            moveDown(0);
+        }
+        return item;
+    }
+
+    /**
+     * Заменяет первый элемент кучи заданным элементом (удаление и вставка за одно опускание вниз).
+     * @param key ключ нового элемента.
+     * @param item данные нового элемента.
+     * @return данные замененного элемента.
+     */
+    public int replaceFirst(long key, int item) {
+        checkNotEmpty();
+        int first = items[0];
+        keys[0] = key;
+        items[0] = item;
+        moveDown(0);
+        return first;
+    }
+
+    /**
+     * Изменяет размер массивов кучи.
+     * @param newCapacity новый размер массивов.
+     */
+    private void resize(int newCapacity) {
+        keys = Arrays.copyOf(keys, newCapacity);
+        items = Arrays.copyOf(items, newCapacity);
+    }
+
+    /**
+     * Проверяет, что первый элемент имеет приоритет перед вторым элементом.
+     * @param key1 ключ первого элемента.
+     * @param item1 данные первого элемента.
+     * @param key2 ключ второго элемента.
+     * @param item2 данные второго элемента.
+     * @return признак приоритета первого элемента.
+     */
+    private boolean isBefore(long key1, int item1, long key2, int item2) {
+        if(key1 != key2) {
+            return isMaxHeap ? key1 > key2 : key1 < key2;
+        }
+        return item1 < item2;
+    }
+
+    /**
+     * Поднимает вверх элемент в куче с учетом его приоритета.
+     * @param index индекс элемента.
+     */
+    private void moveUp(int index) {
+        long key = keys[index];
+        int item = items[index];
+        while(index > 0) {
+            int parent = (index - 1) / arity;
+            if(!isBefore(key, item, keys[parent], items[parent])) {
+                break;
+            }
+            keys[index] = keys[parent];
+            items[index] = items[parent];
+            index = parent;
+        }
+        keys[index] = key;
+        items[index] = item;
+    }
+
+    /**
+     * Опускает вниз элемент в куче с учетом его приоритета.
+     * @param index индекс элемента.
+     */
+    private void moveDown(int index) {
+        long key = keys[index];
+        int item = items[index];
+        while(true) {
+            int firstChild = index * arity + 1;
+            if(firstChild >= currentSize) {
+                break;
+            }
+            // Выбрать потомка с наибольшим приоритетом
+            int bestChild = firstChild;
+            int lastChild = Math.min(firstChild + arity, currentSize);
+            for(int child = firstChild + 1; child < lastChild; ++child) {
+                if(isBefore(keys[child], items[child], keys[bestChild], items[bestChild])) {
+                    bestChild = child;
+                }
+            }
+            if(!isBefore(keys[bestChild], items[bestChild], key, item)) {
+                break;
+            }
+            keys[index] = keys[bestChild];
+            items[index] = items[bestChild];
+            index = bestChild;
+        }
+        keys[index] = key;
+        items[index] = item;
+    }
+
+
+    // DISPLAY
+
+    @Override
+    public void display(DualOutput out) {
+        // Инициатор выводит свои верхнее и нижнее оформления сообщения и отключает их вывод в цепочке объектов.
+        String header = out.getHeader() != null ? out.getHeaderOnce() : this.out.getHeader();
+        String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
+
+        out.println(header);
+        for(int j = 0; j < currentSize; ++j) {
+            out.print(keys[j] + "/" + items[j] + " ");
+        }
+        out.println("");
+        out.println(footer);
+    }
+
+    /**
+     * Выводит кучу по уровням: каждый уровень d-арного дерева в отдельной строке.
+     * @param blanks количество пробелов отступа уровней (0 - без отступа).
+     * @param out поток вывода.
+     */
+    @Override
+    public void display(int blanks, DualOutput out) {
+        // Инициатор выводит свои верхнее и нижнее оформления сообщения и отключает их вывод в цепочке объектов.
+        String header = out.getHeader() != null ? out.getHeaderOnce() : this.outTree.getHeader();
+        String footer = out.getFooter() != null ? out.getFooterOnce() : this.outTree.getFooter();
+
+        out.println(header + "(arity = " + arity + "): ");
+        int levelStart = 0;
+        long levelSize = 1;
+        while(levelStart < currentSize) {
+            int levelEnd = (int) Math.min(currentSize, levelStart + levelSize);
+            out.print(" ".repeat(Math.max(0, blanks)));
+            for(int j = levelStart; j < levelEnd; ++j) {
+                out.print(keys[j] + "/" + items[j] + " ");
+            }
+            out.println("");
+            levelStart = levelEnd;
+            levelSize *= arity;
+        }
+        out.println(footer);
+    }
+}
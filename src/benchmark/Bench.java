@@ -0,0 +1,73 @@
+package benchmark;
+
+/**
+ * Замеряемая операция (Benchmark).
+ * Перед каждым запуском замеряемой операции {@code run} выполняется подготовка {@code setUp}, время и память
+ * которой не учитываются в замере.
+ */
+public abstract class Bench {
+    /**
+     * Имя замера.
+     */
+    private final String name;
+
+    /**
+     * Количество элементарных операций (символов, вставок и т.п.) одного запуска.
+     */
+    private final long operations;
+
+    /**
+     * Количество обрабатываемых байтов одного запуска (0 - замер не обрабатывает поток данных).
+     */
+    private final long bytes;
+
+    /**
+     * Создает замеряемую операцию.
+     * @param name имя замера.
+     * @param operations количество элементарных операций одного запуска.
+     * @param bytes количество обрабатываемых байтов одного запуска (0 - замер не обрабатывает поток данных).
+     */
+    protected Bench(String name, long operations, long bytes) {
+        this.name = name;
+        this.operations = operations;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Получает имя замера.
+     * @return имя замера.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Получает количество элементарных операций одного запуска.
+     * @return количество операций.
+     */
+    public long getOperations() {
+        return operations;
+    }
+
+    /**
+     * Получает количество обрабатываемых байтов одного запуска.
+     * @return количество байтов.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Подготавливает очередной запуск (не замеряется).
+     * @throws Exception если при подготовке произошла ошибка.
+     */
+    public void setUp() throws Exception {
+    }
+
+    /**
+     * Выполняет замеряемую операцию.
+     * @return результат операции (используется, чтобы JIT-компилятор не удалил вычисления).
+     * @throws Exception если при выполнении произошла ошибка.
+     */
+    public abstract Object run() throws Exception;
+}
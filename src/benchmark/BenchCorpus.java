@@ -0,0 +1,157 @@
+package benchmark;
+
+import utils.constants.AppConstants;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Генератор тестового корпуса текста для замеров производительности (Benchmark corpus).
+ * Символы текста выбираются из алфавита заданного размера по закону Ципфа (Zipf):
+ * вероятность k-го символа алфавита пропорциональна {@code 1 / k^skew}.
+ * Чем больше {@code skew}, тем более неравномерно распределение и тем длиннее коды редких символов.
+ * Алфавит составлен из символов ASCII, кириллицы и символов вне BMP (суррогатные пары UTF-16).
+ * Генерация детерминирована: одинаковые параметры и {@code seed} дают одинаковый текст.
+ */
+public class BenchCorpus {
+    /**
+     * Количество символов текста.
+     */
+    private final int size;
+
+    /**
+     * Размер алфавита.
+     */
+    private final int alphabetSize;
+
+    /**
+     * Показатель неравномерности распределения Ципфа.
+     */
+    private final double skew;
+
+    /**
+     * Начальное значение генератора случайных чисел.
+     */
+    private final long seed;
+
+    /**
+     * Создает генератор тестового корпуса.
+     * @param size количество символов текста.
+     * @param alphabetSize размер алфавита (от 1 до {@code getMaxAlphabetSize}).
+     * @param skew показатель неравномерности распределения Ципфа (0 - равномерное распределение).
+     * @param seed начальное значение генератора случайных чисел.
+     */
+    public BenchCorpus(int size, int alphabetSize, double skew, long seed) {
+        if(size < 0) {
+            throw new IllegalArgumentException("Размер корпуса не может быть отрицательным.");
+        }
+        if(alphabetSize < 1 || alphabetSize > getMaxAlphabetSize()) {
+            throw new IllegalArgumentException("Размер алфавита должен быть от 1 до " + getMaxAlphabetSize() + ".");
+        }
+        if(skew < 0) {
+            throw new IllegalArgumentException("Показатель распределения не может быть отрицательным.");
+        }
+        this.size = size;
+        this.alphabetSize = alphabetSize;
+        this.skew = skew;
+        this.seed = seed;
+    }
+
+    /**
+     * Получает максимальный размер алфавита.
+     * @return максимальный размер алфавита.
+     */
+    public static int getMaxAlphabetSize() {
+        // ASCII 0x20-0x7E и перевод строки, кириллица 0x400-0x4FF, символы 0x1F300-0x1F5FF
+        return 95 + 1 + 256 + 768;
+    }
+
+    /**
+     * Получает символ алфавита по его номеру (частые символы - пробел, латиница, перевод строки).
+     * @param index номер символа алфавита.
+     * @return кодовая точка символа.
+     */
+    private static int getSymbol(int index) {
+        if(index == 0) {
+            return ' ';
+        }
+        if(index <= 94) {
+            return 0x20 + index;
+        }
+        if(index == 95) {
+            return AppConstants.UNIX_NEW_ROW.charAt(0);
+        }
+        if(index < 95 + 1 + 256) {
+            return 0x400 + index - 96;
+        }
+        return 0x1F300 + index - 352;
+    }
+
+    /**
+     * Получает количество символов текста.
+     * @return количество символов.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Генерирует текст корпуса как массив кодовых точек.
+     * @return кодовые точки текста.
+     */
+    public int[] generate() {
+        // Накопленные вероятности символов алфавита
+        double[] cumulative = new double[alphabetSize];
+        double sum = 0;
+        for(int k = 0; k < alphabetSize; ++k) {
+            sum += 1 / Math.pow(k + 1, skew);
+            cumulative[k] = sum;
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] text = new int[size];
+        for(int j = 0; j < size; ++j) {
+            double value = random.nextDouble() * sum;
+            int low = 0;
+            int high = alphabetSize - 1;
+            while(low < high) {
+                int middle = (low + high) >>> 1;
+                if(cumulative[middle] < value) {
+                    low = middle + 1;
+                }
+                else {
+                    high = middle;
+                }
+            }
+            text[j] = getSymbol(low);
+        }
+        return text;
+    }
+
+    /**
+     * Генерирует текст корпуса и записывает его в файл.
+     * @param path файл корпуса.
+     * @param charset кодировка символов файла.
+     * @return размер файла в байтах.
+     * @throws IOException если при записи файла произошла ошибка ввода-вывода.
+     */
+    public long writeToFile(Path path, Charset charset) throws IOException {
+        int[] text = generate();
+        char[] chars = new char[2 * AppConstants.CHUNK_SIZE];
+        try(BufferedWriter out = Files.newBufferedWriter(path, charset)) {
+            int n = 0;
+            for(int symbol : text) {
+                n += Character.toChars(symbol, chars, n);
+                if(n >= AppConstants.CHUNK_SIZE) {
+                    out.write(chars, 0, n);
+                    n = 0;
+                }
+            }
+            out.write(chars, 0, n);
+        }
+        return Files.size(path);
+    }
+}
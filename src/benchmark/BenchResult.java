@@ -0,0 +1,119 @@
+package benchmark;
+
+import utils.output.Display;
+import utils.output.DualOutput;
+import utils.output.Output;
+
+/**
+ * Результат замера производительности (Benchmark result).
+ * Содержит среднее и минимальное время запуска, пропускную способность (операции и МБ в секунду)
+ * и интенсивность выделения памяти (байты на запуск и МБ в секунду).
+ */
+public class BenchResult implements Output {
+    /**
+     * Замеряемая операция.
+     */
+    private final Bench bench;
+
+    /**
+     * Суммарное время замеренных запусков (нс).
+     */
+    private final long totalNanos;
+
+    /**
+     * Минимальное время запуска (нс).
+     */
+    private final long minNanos;
+
+    /**
+     * Суммарный объем выделенной памяти замеренных запусков (байты).
+     */
+    private final long totalAllocated;
+
+    /**
+     * Количество замеренных запусков.
+     */
+    private final int iterations;
+
+    /**
+     * Интерфейс вывода в поток результата замера.
+     */
+    public final Display out = new Display(this::display, "", "");
+
+    /**
+     * Создает результат замера.
+     * @param bench замеряемая операция.
+     * @param totalNanos суммарное время замеренных запусков (нс).
+     * @param minNanos минимальное время запуска (нс).
+     * @param totalAllocated суммарный объем выделенной памяти (байты, -1 - не поддерживается JVM).
+     * @param iterations количество замеренных запусков.
+     */
+    public BenchResult(Bench bench, long totalNanos, long minNanos, long totalAllocated, int iterations) {
+        this.bench = bench;
+        this.totalNanos = totalNanos;
+        this.minNanos = minNanos;
+        this.totalAllocated = totalAllocated;
+        this.iterations = iterations;
+    }
+
+    /**
+     * Получает среднее время запуска в миллисекундах.
+     * @return среднее время запуска.
+     */
+    public double getMeanMillis() {
+        return totalNanos / 1e6 / iterations;
+    }
+
+    /**
+     * Получает пропускную способность в миллионах операций в секунду.
+     * @return миллионы операций в секунду.
+     */
+    public double getMopsPerSecond() {
+        return bench.getOperations() * (double) iterations / (totalNanos / 1e3);
+    }
+
+    /**
+     * Получает пропускную способность в мегабайтах обрабатываемых данных в секунду.
+     * @return МБ в секунду (0, если замер не обрабатывает поток данных).
+     */
+    public double getMegabytesPerSecond() {
+        return bench.getBytes() * (double) iterations / (totalNanos / 1e3);
+    }
+
+    /**
+     * Получает интенсивность выделения памяти в мегабайтах в секунду.
+     * @return МБ в секунду (-1, если не поддерживается JVM).
+     */
+    public double getAllocationRate() {
+        return totalAllocated < 0 ? -1 : totalAllocated / (totalNanos / 1e3);
+    }
+
+    /**
+     * Получает средний объем выделенной памяти на запуск.
+     * @return байты на запуск (-1, если не поддерживается JVM).
+     */
+    public long getAllocatedPerRun() {
+        return totalAllocated < 0 ? -1 : totalAllocated / iterations;
+    }
+
+    /**
+     * Получает строку заголовка таблицы результатов.
+     * @return заголовок таблицы.
+     */
+    public static String getTableHeader() {
+        return String.format("%-28s %10s %10s %10s %10s %12s %14s",
+                "Benchmark", "mean, ms", "min, ms", "Mops/s", "MB/s", "alloc, MB/s", "alloc, B/run");
+    }
+
+
+    // DISPLAY
+
+    @Override
+    public void display(DualOutput out) {
+        out.println(String.format("%-28s %10.3f %10.3f %10.2f %10s %12s %14s",
+                bench.getName(), getMeanMillis(), minNanos / 1e6, getMopsPerSecond(),
+                bench.getBytes() > 0 ? String.format("%.2f", getMegabytesPerSecond()) : "-",
+                totalAllocated < 0 ? "n/a" : String.format("%.2f", getAllocationRate()),
+                totalAllocated < 0 ? "n/a" : Long.toString(getAllocatedPerRun())));
+    }
+}
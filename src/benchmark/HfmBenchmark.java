@@ -0,0 +1,659 @@
+package benchmark;
+
+import arrayHeap.AHeap;
+import arrayHeap.LongHeap;
+import binarySearchTree.AVLTree;
+import binarySearchTree.BSTree;
+import hashTable.LHash;
+import hashTable.OHash;
+import huffman.HfmAdaptiveOutputStream;
+import huffman.HfmCharset;
+import huffman.HfmCodebook;
+import huffman.HfmCodeLengths;
+import huffman.HfmFlatTree;
+import huffman.HfmFrequency;
+import huffman.HfmHistogram;
+import huffman.HfmOutputStream;
+import huffman.HfmProcess;
+import huffman.HfmQueue;
+import huffman.HfmTree;
+import huffman.HfmTreeStrategy;
+import linkedList.LList;
+import linkedList.LMtfList;
+import linkedList.LNode;
+import linkedList.LSkipList;
+import utils.calculations.PrimeTable;
+import utils.constants.AppConstants;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Замеры производительности этапов кодирования Хаффмана и базовых структур данных (Benchmark suite).
+ * Замеры выполняются на сгенерированном корпусе текста {@code BenchCorpus} заданного размера и неравномерности.
+ * Каждый замер выполняется {@code warmup} раз для прогрева JIT-компилятора и {@code iterations} раз для измерения.
+ * Для каждого замера выводятся время запуска, пропускная способность (Mops/s, MB/s) и интенсивность выделения памяти
+ * текущим потоком (все этапы выполняются в одном потоке).
+ * Запуск: {@code java -cp out benchmark.HfmBenchmark size=4000000 alphabet=256 skew=1.1 warmup=3 iterations=5 ops=200000 filter=hfm}
+ */
+public class HfmBenchmark {
+    /**
+     * Размер сообщения замеров обученной кодировки (в байтах).
+     */
+    private static final int MESSAGE_SIZE = 512;
+
+    /**
+     * Количество символов корпуса.
+     */
+    private int size = 4_000_000;
+
+    /**
+     * Размер алфавита корпуса.
+     */
+    private int alphabetSize = 256;
+
+    /**
+     * Показатель неравномерности распределения Ципфа символов корпуса.
+     */
+    private double skew = 1.1;
+
+    /**
+     * Начальное значение генератора случайных чисел корпуса.
+     */
+    private long seed = 42;
+
+    /**
+     * Количество прогревочных запусков каждого замера.
+     */
+    private int warmup = 3;
+
+    /**
+     * Количество замеряемых запусков каждого замера.
+     */
+    private int iterations = 5;
+
+    /**
+     * Количество операций одного запуска замеров базовых структур данных.
+     */
+    private int ops = 200_000;
+
+    /**
+     * Подстрока имени замера для выбора выполняемых замеров (null - все замеры).
+     */
+    private String filter;
+
+    /**
+     * Каталог файлов корпуса и результатов кодирования.
+     */
+    private Path dir;
+
+    /**
+     * Признак временного каталога, созданного замерами (удаляется после их выполнения).
+     */
+    private boolean isTempDir;
+
+    /**
+     * Кодировка символов файлов.
+     */
+    private final Charset charset = AppConstants.STD_CHARSET;
+
+    /**
+     * Интерфейс доступа к счетчикам выделения памяти потоков.
+     */
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Запускает замеры производительности.
+     * Если каталог {@code dir} не задан, то файлы замеров создаются во временном каталоге, который удаляется после замеров.
+     * @param args параметры вида {@code имя=значение}: size, alphabet, skew, seed, warmup, iterations, ops, filter, dir.
+     * @throws Exception если при выполнении замеров произошла ошибка.
+     */
+    public static void main(String[] args) throws Exception {
+        HfmBenchmark benchmark = new HfmBenchmark();
+        benchmark.parseArgs(args);
+        try {
+            benchmark.runAll();
+        }
+        finally {
+            if(benchmark.isTempDir) {
+                deleteDirectory(benchmark.dir);
+            }
+        }
+    }
+
+    /**
+     * Удаляет каталог вместе с его содержимым.
+     * @param path каталог.
+     * @throws IOException если при удалении произошла ошибка ввода-вывода.
+     */
+    private static void deleteDirectory(Path path) throws IOException {
+        try(Stream<Path> paths = Files.walk(path)) {
+            // Файлы удаляются раньше содержащих их каталогов
+            for(Path file : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Разбирает параметры запуска.
+     * @param args параметры вида {@code имя=значение}.
+     * @throws IOException если не удалось создать временный каталог.
+     */
+    private void parseArgs(String[] args) throws IOException {
+        for(String arg : args) {
+            int pos = arg.indexOf('=');
+            if(pos <= 0) {
+                throw new IllegalArgumentException("Параметр должен иметь вид имя=значение: " + arg);
+            }
+            String name = arg.substring(0, pos);
+            String value = arg.substring(pos + 1);
+            switch(name) {
+                case "size" -> size = Integer.parseInt(value);
+                case "alphabet" -> alphabetSize = Integer.parseInt(value);
+                case "skew" -> skew = Double.parseDouble(value);
+                case "seed" -> seed = Long.parseLong(value);
+                case "warmup" -> warmup = Integer.parseInt(value);
+                case "iterations" -> iterations = Integer.parseInt(value);
+                case "ops" -> ops = Integer.parseInt(value);
+                case "filter" -> filter = value;
+                case "dir" -> dir = Path.of(value);
+                default -> throw new IllegalArgumentException("Неизвестный параметр: " + name);
+            }
+        }
+        if(iterations <= 0 || warmup < 0 || ops <= 0) {
+            throw new IllegalArgumentException("Количество запусков и операций должно быть больше 0.");
+        }
+        if(dir == null) {
+            dir = Files.createTempDirectory("hfm-bench");
+            isTempDir = true;
+        }
+    }
+
+    /**
+     * Генерирует корпус, формирует замеры и выполняет их с выводом таблицы результатов.
+     * @throws Exception если при выполнении замеров произошла ошибка.
+     */
+    private void runAll() throws Exception {
+        BenchCorpus corpus = new BenchCorpus(size, alphabetSize, skew, seed);
+        String sourceFile = dir.resolve("bench-source.txt").toString();
+        String codeFile = dir.resolve("bench-code.txt").toString();
+        String encodedFile = dir.resolve("bench-encoded.txt").toString();
+        String decodedFile = dir.resolve("bench-decoded.txt").toString();
+        long bytes = corpus.writeToFile(Path.of(sourceFile), charset);
+        System.out.println("Корпус: " + size + " символов, " + bytes + " байт, алфавит " + alphabetSize
+                + ", skew " + skew + ", seed " + seed + " (" + sourceFile + ")");
+
+        List<Bench> benches = new ArrayList<>();
+        addPipelineBenches(benches, sourceFile, codeFile, encodedFile, decodedFile, bytes);
+        addStructureBenches(benches);
+
+        System.out.println(BenchResult.getTableHeader());
+        for(Bench bench : benches) {
+            if(filter == null || bench.getName().contains(filter)) {
+                measure(bench).out.display();
+            }
+        }
+    }
+
+    /**
+     * Добавляет замеры этапов кодирования и декодирования Хаффмана.
+     * @param benches список замеров.
+     * @param sourceFile файл корпуса.
+     * @param codeFile файл кодировки Хаффмана.
+     * @param encodedFile файл кодированного текста.
+     * @param decodedFile файл декодированного текста.
+     * @param bytes размер файла корпуса в байтах.
+     * @throws IOException если при подготовке файлов произошла ошибка ввода-вывода.
+     */
+    private void addPipelineBenches(List<Bench> benches, String sourceFile, String codeFile, String encodedFile,
+                                    String decodedFile, long bytes) throws IOException {
+        // Общие данные этапов: частотная таблица, дерево и процесс с набором кодировки
+        HfmFrequency frequency = new HfmFrequency();
+        frequency.createFreqTable(sourceFile, charset);
+        HfmHistogram histogram = frequency.getFreqTable();
+        int nSymbols = histogram.getSymbols().length;
+        HfmQueue treeQueue = new HfmQueue();
+        treeQueue.setPrimaryQueue(histogram);
+        HfmTree tree = treeQueue.createHfmTree();
+        HfmProcess process = new HfmProcess();
+        process.executeEncoding(sourceFile, codeFile, encodedFile, charset);
+
+        benches.add(new Bench("hfm.createFreqTable", size, bytes) {
+            @Override
+            public Object run() throws IOException {
+                HfmFrequency result = new HfmFrequency();
+                result.createFreqTable(sourceFile, charset);
+                return result;
+            }
+        });
+        benches.add(new Bench("hfm.setPrimaryQueue", nSymbols, 0) {
+            private HfmQueue queue;
+
+            @Override
+            public void setUp() {
+                queue = new HfmQueue();
+            }
+
+            @Override
+            public Object run() {
+                queue.setPrimaryQueue(histogram);
+                return queue;
+            }
+        });
+        benches.add(new Bench("hfm.createHfmTree", nSymbols, 0) {
+            private HfmQueue queue;
+
+            @Override
+            public void setUp() {
+                queue = new HfmQueue();
+                queue.setPrimaryQueue(histogram);
+            }
+
+            @Override
+            public Object run() {
+                return queue.createHfmTree();
+            }
+        });
+        benches.add(new Bench("hfm.HfmFlatTree.build", nSymbols, 0) {
+            @Override
+            public Object run() {
+                return HfmFlatTree.build(histogram);
+            }
+        });
+        for(HfmTreeStrategy strategy : new HfmTreeStrategy[] {HfmTreeStrategy.TWO_QUEUE, HfmTreeStrategy.IN_PLACE}) {
+            benches.add(new Bench("hfm.HfmCodeLengths." + strategy, nSymbols, 0) {
+                @Override
+                public Object run() {
+                    return new HfmCodeLengths(histogram, strategy);
+                }
+            });
+        }
+        benches.add(new Bench("hfm.HfmCharset", nSymbols, 0) {
+            @Override
+            public Object run() {
+                return new HfmCharset(tree);
+            }
+        });
+        benches.add(new Bench("hfm.writeHuffmanCodeToFile", size, bytes) {
+            @Override
+            public Object run() throws IOException {
+                process.writeHuffmanCodeToFile(sourceFile, encodedFile, charset);
+                return process;
+            }
+        });
+        benches.add(new Bench("hfm.writeDecodedTextToFile", size, bytes) {
+            @Override
+            public Object run() throws IOException {
+                process.writeDecodedTextToFile(encodedFile, decodedFile, charset);
+                return process;
+            }
+        });
+        String containerFile = encodedFile + ".hfm";
+        benches.add(new Bench("hfm.writeContainerToFile", size, bytes) {
+            @Override
+            public Object run() throws IOException {
+                process.writeContainerToFile(sourceFile, containerFile, charset);
+                return process;
+            }
+        });
+        benches.add(new Bench("hfm.executeDecoding.container", size, bytes) {
+            @Override
+            public void setUp() throws IOException {
+                if(!Files.exists(Path.of(containerFile))) {
+                    process.writeContainerToFile(sourceFile, containerFile, charset);
+                }
+            }
+
+            @Override
+            public Object run() throws IOException {
+                process.executeDecoding(containerFile, decodedFile);
+                return process;
+            }
+        });
+        benches.add(new Bench("hfm.HfmOutputStream", size, bytes) {
+            private byte[] source;
+
+            @Override
+            public void setUp() throws IOException {
+                source = Files.readAllBytes(Path.of(sourceFile));
+            }
+
+            @Override
+            public Object run() throws IOException {
+                HfmOutputStream out = new HfmOutputStream(OutputStream.nullOutputStream());
+                out.write(source);
+                out.close();
+                return out;
+            }
+        });
+        benches.add(new Bench("hfm.HfmAdaptiveOutputStream", size, bytes) {
+            private byte[] source;
+
+            @Override
+            public void setUp() throws IOException {
+                source = Files.readAllBytes(Path.of(sourceFile));
+            }
+
+            @Override
+            public Object run() throws IOException {
+                HfmAdaptiveOutputStream out = new HfmAdaptiveOutputStream(OutputStream.nullOutputStream());
+                out.write(source);
+                out.close();
+                return out;
+            }
+        });
+        benches.add(new Bench("hfm.HfmCodebook.encode", size, bytes) {
+            private byte[] source;
+            private HfmCodebook codebook;
+            private byte[] encoded;
+
+            @Override
+            public void setUp() throws IOException {
+                source = Files.readAllBytes(Path.of(sourceFile));
+                codebook = HfmCodebook.train(1, splitMessages(source));
+                // Код байта с ESCAPE не длиннее 20 бит
+                encoded = new byte[MESSAGE_SIZE * 3];
+            }
+
+            @Override
+            public Object run() {
+                long total = 0;
+                for(int off = 0; off + MESSAGE_SIZE <= source.length; off += MESSAGE_SIZE) {
+                    total += codebook.encode(source, off, MESSAGE_SIZE, encoded, 0);
+                }
+                return total;
+            }
+        });
+        benches.add(new Bench("hfm.HfmCodebook.decode", size, bytes) {
+            private HfmCodebook codebook;
+            private List<byte[]> messages;
+            private byte[] decoded;
+
+            @Override
+            public void setUp() throws IOException {
+                List<byte[]> source = splitMessages(Files.readAllBytes(Path.of(sourceFile)));
+                codebook = HfmCodebook.train(1, source);
+                messages = new ArrayList<>(source.size());
+                for(byte[] message : source) {
+                    messages.add(codebook.encode(message));
+                }
+                decoded = new byte[MESSAGE_SIZE];
+            }
+
+            @Override
+            public Object run() throws IOException {
+                long total = 0;
+                for(byte[] message : messages) {
+                    total += codebook.decode(message, 0, message.length, decoded, 0);
+                }
+                return total;
+            }
+        });
+    }
+
+    /**
+     * Добавляет замеры базовых структур данных.
+     * Ключи операций - символы корпуса (хеш-таблица, список) или случайные числа (куча, дерево поиска).
+     * @param benches список замеров.
+     */
+    private void addStructureBenches(List<Bench> benches) {
+        int[] text = new BenchCorpus(ops, alphabetSize, skew, seed).generate();
+        String[] symbols = new String[ops];
+        for(int j = 0; j < ops; ++j) {
+            symbols[j] = Character.toString(text[j]);
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        Integer[] keys = new Integer[ops];
+        for(int j = 0; j < ops; ++j) {
+            keys[j] = random.nextInt();
+        }
+
+        benches.add(new Bench("LHash.inc", ops, 0) {
+            @Override
+            public Object run() {
+                LHash<String, Long> hash = new LHash<>(AppConstants.HASH_SIZE);
+                for(String symbol : symbols) {
+                    hash.inc(symbol, 1L);
+                }
+                return hash;
+            }
+        });
+        benches.add(new Bench("LHash.get", ops, 0) {
+            private final LHash<String, Long> hash = new LHash<>(AppConstants.HASH_SIZE);
+
+            {
+                for(String symbol : symbols) {
+                    hash.inc(symbol, 1L);
+                }
+            }
+
+            @Override
+            public Object run() {
+                long sum = 0;
+                for(String symbol : symbols) {
+                    sum += hash.get(symbol);
+                }
+                return sum;
+            }
+        });
+        benches.add(new Bench("OHash.inc", ops, 0) {
+            @Override
+            public Object run() {
+                OHash<String, Long> hash = new OHash<>();
+                for(String symbol : symbols) {
+                    hash.inc(symbol, 1L);
+                }
+                return hash;
+            }
+        });
+        benches.add(new Bench("OHash.get", ops, 0) {
+            private final OHash<String, Long> hash = new OHash<>();
+
+            {
+                for(String symbol : symbols) {
+                    hash.inc(symbol, 1L);
+                }
+            }
+
+            @Override
+            public Object run() {
+                long sum = 0;
+                for(String symbol : symbols) {
+                    sum += hash.get(symbol);
+                }
+                return sum;
+            }
+        });
+        benches.add(new Bench("LList.inc", ops, 0) {
+            @Override
+            public Object run() {
+                LList<String, Long> list = new LList<>();
+                for(String symbol : symbols) {
+                    list.inc(new LNode<>(symbol, 1L));
+                }
+                return list;
+            }
+        });
+        benches.add(new Bench("LMtfList.inc", ops, 0) {
+            @Override
+            public Object run() {
+                LMtfList<String, Long> list = new LMtfList<>();
+                for(String symbol : symbols) {
+                    list.inc(new LNode<>(symbol, 1L));
+                }
+                return list;
+            }
+        });
+        benches.add(new Bench("LSkipList.inc", ops, 0) {
+            @Override
+            public Object run() {
+                LSkipList<String, Long> list = new LSkipList<>();
+                for(String symbol : symbols) {
+                    list.inc(symbol, 1L);
+                }
+                return list;
+            }
+        });
+        benches.add(new Bench("AHeap.insert+remove", 2L * ops, 0) {
+            @Override
+            public Object run() {
+                AHeap<Integer, Integer> heap = new AHeap<>(false);
+                for(Integer key : keys) {
+                    heap.insert(key, key);
+                }
+                long sum = 0;
+                while(heap.size() > 0) {
+                    sum += heap.remove().getKey();
+                }
+                return sum;
+            }
+        });
+        benches.add(new Bench("LongHeap.insert+remove", 2L * ops, 0) {
+            @Override
+            public Object run() {
+                LongHeap heap = new LongHeap(AppConstants.HEAP_ARITY, false);
+                for(int j = 0; j < ops; ++j) {
+                    heap.insert(keys[j], j);
+                }
+                long sum = 0;
+                while(heap.size() > 0) {
+                    sum += heap.getFirstKey();
+                    heap.remove();
+                }
+                return sum;
+            }
+        });
+        benches.add(new Bench("LongHeap.heapify+remove", 2L * ops, 0) {
+            @Override
+            public Object run() {
+                long[] heapKeys = new long[ops];
+                int[] heapItems = new int[ops];
+                for(int j = 0; j < ops; ++j) {
+                    heapKeys[j] = keys[j];
+                    heapItems[j] = j;
+                }
+                LongHeap heap = new LongHeap(heapKeys, heapItems, ops, AppConstants.HEAP_ARITY, false);
+                long sum = 0;
+                while(heap.size() > 0) {
+                    sum += heap.getFirstKey();
+                    heap.remove();
+                }
+                return sum;
+            }
+        });
+        benches.add(new Bench("BSTree.add+findNode", 2L * ops, 0) {
+            @Override
+            public Object run() {
+                BSTree<Integer, Integer> tree = new BSTree<>();
+                for(Integer key : keys) {
+                    tree.add(key, key);
+                }
+                int found = 0;
+                for(Integer key : keys) {
+                    if(tree.findNode(key) != null) {
+                        found++;
+                    }
+                }
+                return found;
+            }
+        });
+        benches.add(new Bench("AVLTree.add+findNode", 2L * ops, 0) {
+            @Override
+            public Object run() {
+                BSTree<Integer, Integer> tree = new AVLTree<>();
+                for(Integer key : keys) {
+                    tree.add(key, key);
+                }
+                int found = 0;
+                for(Integer key : keys) {
+                    if(tree.findNode(key) != null) {
+                        found++;
+                    }
+                }
+                return found;
+            }
+        });
+        int[] capacities = new int[ops];
+        for(int j = 0; j < ops; ++j) {
+            capacities[j] = 1 + random.nextInt(1 << 24);
+        }
+        benches.add(new Bench("PrimeTable.nextPrime", ops, 0) {
+            @Override
+            public Object run() {
+                long sum = 0;
+                for(int capacity : capacities) {
+                    sum += PrimeTable.nextPrime(capacity);
+                }
+                return sum;
+            }
+        });
+    }
+
+    /**
+     * Делит байты корпуса на сообщения размера {@code MESSAGE_SIZE} (неполный остаток отбрасывается).
+     * @param source байты корпуса.
+     * @return сообщения.
+     */
+    private static List<byte[]> splitMessages(byte[] source) {
+        List<byte[]> messages = new ArrayList<>(source.length / MESSAGE_SIZE);
+        for(int off = 0; off + MESSAGE_SIZE <= source.length; off += MESSAGE_SIZE) {
+            messages.add(Arrays.copyOfRange(source, off, off + MESSAGE_SIZE));
+        }
+        return messages;
+    }
+
+    /**
+     * Выполняет прогревочные и замеряемые запуски операции.
+     * @param bench замеряемая операция.
+     * @return результат замера.
+     * @throws Exception если при выполнении операции произошла ошибка.
+     */
+    private BenchResult measure(Bench bench) throws Exception {
+        Object sink = null;
+        for(int j = 0; j < warmup; ++j) {
+            bench.setUp();
+            sink = bench.run();
+        }
+        long totalNanos = 0;
+        long minNanos = Long.MAX_VALUE;
+        long totalAllocated = 0;
+        for(int j = 0; j < iterations; ++j) {
+            bench.setUp();
+            long allocated = getAllocatedBytes();
+            long start = System.nanoTime();
+            sink = bench.run();
+            long nanos = System.nanoTime() - start;
+            long allocatedAfter = getAllocatedBytes();
+            totalNanos += nanos;
+            minNanos = Math.min(minNanos, nanos);
+            totalAllocated = allocated < 0 || totalAllocated < 0 ? -1 : totalAllocated + allocatedAfter - allocated;
+        }
+        if(sink == null) {
+            throw new IllegalStateException("Замер " + bench.getName() + " не вернул результат.");
+        }
+        return new BenchResult(bench, totalNanos, minNanos, totalAllocated, iterations);
+    }
+
+    /**
+     * Получает объем памяти, выделенной текущим потоком.
+     * @return количество байтов или -1, если JVM не поддерживает подсчет выделенной памяти.
+     */
+    private long getAllocatedBytes() {
+        if(threadBean instanceof com.sun.management.ThreadMXBean bean && bean.isThreadAllocatedMemorySupported()) {
+            return bean.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+}
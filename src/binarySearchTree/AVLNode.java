@@ -0,0 +1,56 @@
+package binarySearchTree;
+
+/**
+ * Узел АВЛ-дерева (AVL Tree node).
+ * Дополнительно к узлу двоичного дерева хранит высоту своего поддерева.
+ * @param <K> тип ключей, поддерживаемых этим узлом дерева.
+ * @param <V> тип соответствующих ключам данных.
+ */
+public class AVLNode<K extends Comparable<K>, V> extends BSNode<K, V> {
+    /**
+     * Высота поддерева узла (лист имеет высоту 1).
+     */
+    private int height;
+
+    /**
+     * Создает узел (лист) с заданными значением ключа и данными.
+     * @param key значение ключа узла.
+     * @param value данные узла.
+     */
+    public AVLNode(K key, V value) {
+        super(key, value);
+        this.height = 1;
+    }
+
+    /**
+     * Получает высоту поддерева узла.
+     * @return высота поддерева.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Пересчитывает высоту поддерева узла по высотам дочерних узлов.
+     */
+    void updateHeight() {
+        height = Math.max(heightOf(getLeftChild()), heightOf(getRightChild())) + 1;
+    }
+
+    /**
+     * Получает показатель баланса узла: разность высот левого и правого поддеревьев.
+     * @return показатель баланса.
+     */
+    int getBalance() {
+        return heightOf(getLeftChild()) - heightOf(getRightChild());
+    }
+
+    /**
+     * Получает высоту поддерева заданного узла.
+     * @param node узел АВЛ-дерева или null.
+     * @return высота поддерева (0 - пустое поддерево).
+     */
+    static int heightOf(BSNode<?, ?> node) {
+        return node == null ? 0 : ((AVLNode<?, ?>) node).height;
+    }
+}
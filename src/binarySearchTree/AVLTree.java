@@ -0,0 +1,174 @@
+package binarySearchTree;
+
+/**
+ * Сбалансированное по высоте двоичное дерево поиска (AVL tree).
+ * Высоты левого и правого поддеревьев каждого узла отличаются не больше чем на 1, поэтому высота дерева
+ * не превышает 1.44 * log2(n + 2) независимо от порядка добавления ключей (в том числе упорядоченного).
+ * Добавление и поиск выполняются без рекурсии: путь от корня сохраняется в массиве,
+ * по которому после вставки пересчитываются высоты и выполняются повороты.
+ * Узлы упорядочены в соответствии с естественным порядком их ключей {@code K}.
+ * Уникальность узлов по ключу {@code K} поддерживается.
+ * @param <K> тип ключей, поддерживаемых этим деревом.
+ * @param <V> тип соответствующих ключам данных.
+ */
+public class AVLTree<K extends Comparable<K>, V> extends BSTree<K, V> {
+    /**
+     * Максимальная высота дерева (высота АВЛ-дерева из 2^31 узлов меньше 46).
+     */
+    private static final int MAX_HEIGHT = 64;
+
+    /**
+     * Путь от корня к месту вставки (повторно используется при каждом добавлении).
+     */
+    private final AVLNode<K, V>[] path;
+
+    /**
+     * Создает пустое АВЛ-дерево.
+     */
+    @SuppressWarnings("unchecked")
+    public AVLTree() {
+        super("<<< AVL tree: ");
+        path = (AVLNode<K, V>[]) new AVLNode<?, ?>[MAX_HEIGHT];
+    }
+
+    /**
+     * Добавляет узел в дерево с данными и восстанавливает баланс дерева.
+     * Уникальность элементов по ключу {@code K} поддерживается: данные существующего узла переписываются.
+     * @param key значение ключа узла дерева.
+     * @param value данные узла дерева.
+     * @param isMerge признак объединенного узла.
+     * @return добавленный узел.
+     */
+    @Override
+    public BSNode<K, V> add(K key, V value, boolean isMerge) {
+        if(key == null) {
+            throw new IllegalArgumentException("Значение ключа не должно быть null");
+        }
+        // Найти место вставки с сохранением пути от корня
+        BSNode<K, V> current = getRoot();
+        int depth = 0;
+        int cmp = 0;
+        while(current != null) {
+            cmp = current.compareToOther(key);
+            if(cmp == 0) {
+                // Обнаружен узел с заданным ключом: переписать данные узла
+                current.setValue(value);
+                return current;
+            }
+            path[depth++] = (AVLNode<K, V>) current;
+            current = cmp > 0 ? current.getLeftChild() : current.getRightChild();
+        }
+        AVLNode<K, V> newNode = new AVLNode<>(key, value);
+        if(isMerge) {
+            newNode.setIsMerge(true);
+        }
+        if(depth == 0) {
+            setRoot(newNode);
+        }
+        else if(cmp > 0) {
+            path[depth - 1].setLeftChild(newNode);
+        }
+        else {
+            path[depth - 1].setRightChild(newNode);
+        }
+        incSize();
+
+        // Пересчитать высоты по пути к корню, первый несбалансированный узел исправляется поворотами
+        for(int j = depth - 1; j >= 0; --j) {
+            AVLNode<K, V> node = path[j];
+            int oldHeight = node.getHeight();
+            node.updateHeight();
+            AVLNode<K, V> subRoot = rebalance(node);
+            if(subRoot != node) {
+                // После поворота высота поддерева равна высоте до вставки: выше баланс не меняется
+                replaceChild(j > 0 ? path[j - 1] : null, node, subRoot);
+                break;
+            }
+            if(node.getHeight() == oldHeight) {
+                break;
+            }
+        }
+        return newNode;
+    }
+
+    /**
+     * Заменяет дочерний узел родителя (или корень дерева) новым корнем поддерева.
+     * @param parent родительский узел (null - заменяется корень дерева).
+     * @param oldChild прежний дочерний узел.
+     * @param newChild новый дочерний узел.
+     */
+    private void replaceChild(BSNode<K, V> parent, BSNode<K, V> oldChild, BSNode<K, V> newChild) {
+        if(parent == null) {
+            setRoot(newChild);
+        }
+        else if(parent.getLeftChild() == oldChild) {
+            parent.setLeftChild(newChild);
+        }
+        else {
+            parent.setRightChild(newChild);
+        }
+    }
+
+    /**
+     * Восстанавливает баланс узла одним или двумя поворотами.
+     * @param node узел с пересчитанной высотой.
+     * @return корень сбалансированного поддерева (сам узел, если поворот не нужен).
+     */
+    private AVLNode<K, V> rebalance(AVLNode<K, V> node) {
+        int balance = node.getBalance();
+        if(balance > 1) {
+            AVLNode<K, V> left = (AVLNode<K, V>) node.getLeftChild();
+            if(left.getBalance() < 0) {
+                // Случай левый-правый: сначала левый поворот левого потомка
+                node.setLeftChild(rotateLeft(left));
+            }
+            return rotateRight(node);
+        }
+        if(balance < -1) {
+            AVLNode<K, V> right = (AVLNode<K, V>) node.getRightChild();
+            if(right.getBalance() > 0) {
+                // Случай правый-левый: сначала правый поворот правого потомка
+                node.setRightChild(rotateRight(right));
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    /**
+     * Выполняет правый поворот поддерева.
+     * @param node корень поддерева.
+     * @return новый корень поддерева (бывший левый потомок).
+     */
+    private AVLNode<K, V> rotateRight(AVLNode<K, V> node) {
+        AVLNode<K, V> left = (AVLNode<K, V>) node.getLeftChild();
+        node.setLeftChild(left.getRightChild());
+        left.setRightChild(node);
+        node.updateHeight();
+        left.updateHeight();
+        return left;
+    }
+
+    /**
+     * Выполняет левый поворот поддерева.
+     * @param node корень поддерева.
+     * @return новый корень поддерева (бывший правый потомок).
+     */
+    private AVLNode<K, V> rotateLeft(AVLNode<K, V> node) {
+        AVLNode<K, V> right = (AVLNode<K, V>) node.getRightChild();
+        node.setRightChild(right.getLeftChild());
+        right.setLeftChild(node);
+        node.updateHeight();
+        right.updateHeight();
+        return right;
+    }
+
+    /**
+     * Получает количество уровней дерева (высоту корневого узла, без обхода дерева).
+     * @return количество уровней дерева.
+     */
+    @Override
+    protected int getNLevelTree() {
+        return AVLNode.heightOf(getRoot());
+    }
+}
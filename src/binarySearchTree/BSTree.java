@@ -6,6 +6,7 @@ import utils.output.DualOutput;
 import utils.output.IntDisplay;
 import utils.output.IntOutput;
 
+import java.util.ArrayDeque;
 import java.util.Stack;
 
 /**
@@ -29,12 +30,21 @@ public class BSTree<K extends Comparable<K>, V> implements IntOutput {
     /**
      * Интерфейс вывода в поток двоичного дерева поиска.
      */
-    public final IntDisplay out = new IntDisplay(this::display, "<<< BS tree: ", ">>>");
+    public final IntDisplay out;
 
     /**
      * Создает пустое двоичное дерево поиска.
      */
     public BSTree() {
+        this("<<< BS tree: ");
+    }
+
+    /**
+     * Создает пустое двоичное дерево поиска с заданным заголовком вывода (для вариантов дерева).
+     * @param header верхнее оформление вывода дерева.
+     */
+    protected BSTree(String header) {
+        out = new IntDisplay(this::display, header, ">>>");
         root = null;
         size = 0;
     }
@@ -47,6 +57,21 @@ public class BSTree<K extends Comparable<K>, V> implements IntOutput {
         return root;
     }
 
+    /**
+     * Устанавливает корневой узел дерева (для сбалансированных вариантов дерева).
+     * @param root корневой узел.
+     */
+    protected void setRoot(BSNode<K, V> root) {
+        this.root = root;
+    }
+
+    /**
+     * Увеличивает размер дерева на один узел (для сбалансированных вариантов дерева).
+     */
+    protected void incSize() {
+        size++;
+    }
+
     /**
      * Получает размер дерева.
      * @return количество узлов дерева.
@@ -76,7 +101,6 @@ public class BSTree<K extends Comparable<K>, V> implements IntOutput {
      */
     public BSNode<K, V> add(K key, V value, boolean isMerge) {
         BSNode<K, V> newNode = new BSNode<>(key, value);
-        newNode.setValue(value);
         if(isMerge) {
             newNode.setIsMerge(true);
         }
@@ -85,36 +109,28 @@ public class BSTree<K extends Comparable<K>, V> implements IntOutput {
             size++;
             return newNode;
         }
-        else {
-            BSNode<K, V> current = root;
-            BSNode<K, V> parent;
-            while(current.getKey() != key) {
-                parent = current;
-                if(newNode.compareToOther(current) < 0) {
-                    current = current.getLeftChild();
-                    if(current == null) {
-                        parent.setLeftChild(newNode);
-                        size++;
-                        return newNode;
-                    }
+        BSNode<K, V> current = root;
+        while(true) {
+            // Ключи сравниваются по естественному порядку (compareTo), а не по ссылке
+            int cmp = newNode.compareToOther(current);
+            if(cmp == 0) {
+                // Обнаружен узел с заданным ключом: переписать данные узла
+                current.setValue(value);
+                return current;
+            }
+            BSNode<K, V> child = cmp < 0 ? current.getLeftChild() : current.getRightChild();
+            if(child == null) {
+                if(cmp < 0) {
+                    current.setLeftChild(newNode);
                 }
                 else {
-                    current = current.getRightChild();
-                    if(current == null) {
-                        parent.setRightChild(newNode);
-                        size++;
-                        return newNode;
-                    }
+                    current.setRightChild(newNode);
                 }
+                size++;
+                return newNode;
             }
-            // Обнаружен узел с заданным ключом
-            if(current.getKey() == key) {
-                // Переписать данные узла
-                current.setValue(value);
-                return current;
-            }
+            current = child;
         }
-        return null;
     }
 
     /**
@@ -134,20 +150,14 @@ public class BSTree<K extends Comparable<K>, V> implements IntOutput {
      */
     public BSNode<K, V> findNode(K key) {
         BSNode<K, V> current = getRoot();
-        while(current != null && current.compareToOther(key) != 0) {
-            if(current.compareToOther(key) > 0) {
-                current = current.getLeftChild();
-            }
-            else {
-                current = current.getRightChild();
+        while(current != null) {
+            int cmp = current.compareToOther(key);
+            if(cmp == 0) {
+                return current;
             }
+            current = cmp > 0 ? current.getLeftChild() : current.getRightChild();
         }
-        if(current != null && current.compareToOther(key) == 0) {
-            return current;
-        }
-        else {
-            return null;
-        }
+        return null;
     }
 
     /**
@@ -181,7 +191,7 @@ public class BSTree<K extends Comparable<K>, V> implements IntOutput {
         int nMax = 0;
         while(current != null) {
             String str = current.getKey().toString().replace("\n", AppConstants.PRINT_NEW_ROW)
-                    + "/" + current.getValue().toString().replace("\n", AppConstants.PRINT_NEW_ROW);
+                    + (current.getValue() != null ? "/" + current.getValue().toString().replace("\n", AppConstants.PRINT_NEW_ROW) : "");
             int len = str.length();
             if(nMax < len) {
                 nMax = len;
@@ -192,15 +202,28 @@ public class BSTree<K extends Comparable<K>, V> implements IntOutput {
     }
 
     /**
-     * Получает количество уровней дерева.
+     * Получает количество уровней дерева (высоту дерева).
+     * Уровни подсчитываются обходом в ширину без рекурсии.
      * @return количество уровней дерева.
      */
-    private int getNLevelTree() {
-        BSNode<K, V> current = root;
+    protected int getNLevelTree() {
+        if(root == null) {
+            return 0;
+        }
+        ArrayDeque<BSNode<K, V>> level = new ArrayDeque<>();
+        level.add(root);
         int nLevel = 0;
-        while(current != null) {
+        while(!level.isEmpty()) {
             nLevel++;
-            current = current.getRightChild();
+            for(int j = level.size(); j > 0; --j) {
+                BSNode<K, V> current = level.poll();
+                if(current.getLeftChild() != null) {
+                    level.add(current.getLeftChild());
+                }
+                if(current.getRightChild() != null) {
+                    level.add(current.getRightChild());
+                }
+            }
         }
         return nLevel;
     }
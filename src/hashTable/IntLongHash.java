@@ -0,0 +1,209 @@
+package hashTable;
+
+import utils.calculations.PrimeTable;
+import utils.output.Display;
+import utils.output.DualOutput;
+import utils.output.Output;
+
+import java.util.Arrays;
+
+/**
+ * Хеш-таблица с целочисленными ключами и данными {@code long} (Primitive Hash Table)
+ * с открытой адресацией и линейным пробированием (Open addressing, Linear probing).
+ * Ключи и данные хранятся в параллельных массивах примитивов, поэтому операции не создают объектов-оберток.
+ * Размер таблицы - степень двойки, таблица удваивается при заполнении больше чем наполовину.
+ * Индекс ячейки - старшие биты произведения ключа на 32-битную константу Фибоначчи.
+ * Ключи должны быть неотрицательными (значение -1 обозначает пустую ячейку).
+ */
+public class IntLongHash implements Output {
+    /**
+     * Значение ключа пустой ячейки.
+     */
+    private static final int EMPTY = -1;
+
+    /**
+     * Массив ключей.
+     */
+    private int[] keys;
+
+    /**
+     * Массив данных.
+     */
+    private long[] values;
+
+    /**
+     * Количество элементов.
+     */
+    private int size;
+
+    /**
+     * Сдвиг хеш-значения ключа (32 минус степень двойки размера таблицы).
+     */
+    private int shift;
+
+    /**
+     * Интерфейс вывода в поток хеш-таблицы.
+     */
+    public final Display out = new Display(this::display, "<<< Primitive Hash Table: ", ">>>");
+
+    /**
+     * Создает пустую хеш-таблицу.
+     */
+    public IntLongHash() {
+        this(16);
+    }
+
+    /**
+     * Создает пустую хеш-таблицу с заданным начальным размером.
+     * Размер округляется вверх до степени двойки.
+     * @param capacity начальный размер хеш-таблицы.
+     */
+    public IntLongHash(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Размер хеш-таблицы должен быть больше 0.");
+        }
+        int size = PrimeTable.nextPowerOfTwo(Math.max(capacity, 2));
+        keys = new int[size];
+        values = new long[size];
+        shift = Integer.numberOfLeadingZeros(size) + 1;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Получает количество элементов хеш-таблицы.
+     * @return количество элементов.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Получает индекс ячейки для заданного ключа (старшие биты хеша Фибоначчи).
+     * @param key ключ.
+     * @return индекс ячейки.
+     */
+    private int index(int key) {
+        return (key * 0x9E3779B9) >>> shift;
+    }
+
+    /**
+     * Получает данные по заданному ключу.
+     * @param key ключ элемента.
+     * @return данные элемента или 0, если ключ отсутствует.
+     */
+    public long get(int key) {
+        int mask = keys.length - 1;
+        for (int j = index(key); keys[j] != EMPTY; j = (j + 1) & mask) {
+            if (keys[j] == key) {
+                return values[j];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Увеличивает данные (счетчик) заданного ключа на заданное значение.
+     * Отсутствующий ключ добавляется со значением 0 перед увеличением.
+     * @param key ключ элемента (неотрицательный).
+     * @param delta величина увеличения.
+     */
+    public void inc(int key, long delta) {
+        // Индекс вычисляется до обращения к массиву данных: вставка может заменить массив при удвоении таблицы
+        int j = insert(key);
+        values[j] += delta;
+    }
+
+    /**
+     * Помещает заданные ключ и данные в хеш-таблицу. Данные при повторе ключа переписываются.
+     * @param key ключ элемента (неотрицательный).
+     * @param value данные элемента.
+     */
+    public void put(int key, long value) {
+        int j = insert(key);
+        values[j] = value;
+    }
+
+    /**
+     * Находит ячейку заданного ключа, при отсутствии ключа добавляет его со значением 0.
+     * @param key ключ элемента (неотрицательный).
+     * @return индекс ячейки ключа.
+     */
+    private int insert(int key) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Ключ должен быть неотрицательным.");
+        }
+        int mask = keys.length - 1;
+        int j = index(key);
+        while (keys[j] != EMPTY) {
+            if (keys[j] == key) {
+                return j;
+            }
+            j = (j + 1) & mask;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+            return insert(key);
+        }
+        keys[j] = key;
+        values[j] = 0;
+        size++;
+        return j;
+    }
+
+    /**
+     * Изменяет размер хеш-таблицы с повторным размещением всех элементов.
+     * @param capacity новый размер (степень двойки).
+     */
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new int[capacity];
+        values = new long[capacity];
+        shift = Integer.numberOfLeadingZeros(capacity) + 1;
+        Arrays.fill(keys, EMPTY);
+        int mask = capacity - 1;
+        for (int k = 0; k < oldKeys.length; ++k) {
+            if (oldKeys[k] != EMPTY) {
+                int j = index(oldKeys[k]);
+                while (keys[j] != EMPTY) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[k];
+                values[j] = oldValues[k];
+            }
+        }
+    }
+
+    /**
+     * Получает ключи всех элементов хеш-таблицы (в порядке ячеек).
+     * @return массив ключей.
+     */
+    public int[] keys() {
+        int[] result = new int[size];
+        int n = 0;
+        for (int key : keys) {
+            if (key != EMPTY) {
+                result[n++] = key;
+            }
+        }
+        return result;
+    }
+
+
+    // DISPLAY
+
+    @Override
+    public void display(DualOutput out) {
+        // Инициатор выводит свои верхнее и нижнее оформления сообщения и отключает их вывод в цепочке объектов.
+        String header = out.getHeader() != null ? out.getHeaderOnce() : this.out.getHeader();
+        String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
+
+        out.print(header);
+        for (int j = 0; j < keys.length; ++j) {
+            if (keys[j] != EMPTY) {
+                out.print(keys[j] + "/" + values[j] + " ");
+            }
+        }
+        out.println(footer);
+    }
+}
@@ -2,7 +2,7 @@ package hashTable;
 
 import linkedList.LList;
 import linkedList.LNode;
-import utils.calculations.MathUtils;
+import utils.calculations.PrimeTable;
 import utils.output.Display;
 import utils.output.DualOutput;
 import utils.output.Output;
@@ -37,14 +37,15 @@ public class LHash<K extends Comparable<K>, V> implements Output, HashFunc<K> {
 
     /**
      * Создает пустую хеш-таблицу с заданным размером.
-     * Если величина размера не является простым числом, то она автоматически увеличится до ближайшего простого числа.
+     * Если величина размера не является простым числом, то она автоматически увеличится до ближайшего простого числа
+     * из кэша простых чисел {@code PrimeTable}.
      * @param size размер хеш-таблицы.
      */
     public LHash(int size) {
         if (size <= 0) {
             throw new IllegalArgumentException("Размер хеш-таблицы должен быть больше 0.");
         }
-        this.size = MathUtils.getPrime(size);
+        this.size = PrimeTable.nextPrime(size);
         this.array = new LList[this.size];
     }
 
@@ -78,11 +79,12 @@ public class LHash<K extends Comparable<K>, V> implements Output, HashFunc<K> {
 
     @Override
     public int hashFunc(K key) {
+        String str = key.toString();
         int hashValue = 0;
-        for(int j = 0; j < key.toString().length(); ++j) {
-            int letter = key.toString().charAt(j);
+        for(int j = 0; j < str.length(); ++j) {
+            int letter = str.charAt(j);
             // метода Горнера: (((var4*n + var3)*n + var2)*n + var1)*n + var0
-            hashValue = (hashValue * j + letter) % size;
+            hashValue = (hashValue * 31 + letter) % size;
         }
         return hashValue;
     }
@@ -0,0 +1,341 @@
+package hashTable;
+
+import utils.calculations.PrimeTable;
+import utils.output.Display;
+import utils.output.DualOutput;
+import utils.output.Output;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Хеш-таблица с открытой адресацией (Open addressing Hash Table) и пробированием Робин Гуда (Robin Hood hashing).
+ * Ключи, данные, хеш-значения и расстояния пробирования хранятся в параллельных массивах без узлов-оберток.
+ * Размер таблицы - степень двойки, индекс ячейки - старшие биты произведения {@code hashCode} ключа
+ * на 32-битную константу Фибоначчи, поэтому в индексе участвуют все биты хеш-кода.
+ * При вставке элемент с меньшим расстоянием от своей ячейки уступает место элементу с большим расстоянием,
+ * что выравнивает длины пробирования и позволяет прекращать неуспешный поиск досрочно.
+ * При превышении коэффициента заполнения таблица удваивается.
+ * @param <K> тип ключей (используются {@code hashCode} и {@code equals}, значение null не допускается).
+ * @param <V> тип соответствующих ключам данных.
+ */
+public class OHash<K, V> implements Output, HashFunc<K> {
+    /**
+     * Коэффициент заполнения по умолчанию.
+     */
+    private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+    /**
+     * Массив ключей.
+     */
+    private K[] keys;
+
+    /**
+     * Массив данных.
+     */
+    private V[] values;
+
+    /**
+     * Массив хеш-значений ключей (после перемешивания константой Фибоначчи).
+     */
+    private int[] hashes;
+
+    /**
+     * Массив расстояний пробирования элементов от их ячеек плюс 1 (0 - пустая ячейка).
+     */
+    private int[] distances;
+
+    /**
+     * Количество элементов.
+     */
+    private int size;
+
+    /**
+     * Сдвиг хеш-значения ключа (32 минус степень двойки размера таблицы).
+     */
+    private int shift;
+
+    /**
+     * Коэффициент заполнения, при превышении которого таблица удваивается.
+     */
+    private final float loadFactor;
+
+    /**
+     * Максимальное количество элементов до удвоения таблицы.
+     */
+    private int threshold;
+
+    /**
+     * Интерфейс вывода в поток хеш-таблицы.
+     */
+    public final Display out = new Display(this::display, "<<< Open addressing Hash Table: ", ">>>");
+
+    /**
+     * Создает пустую хеш-таблицу.
+     */
+    public OHash() {
+        this(16);
+    }
+
+    /**
+     * Создает пустую хеш-таблицу, вмещающую заданное количество элементов без удвоения.
+     * @param capacity ожидаемое количество элементов.
+     */
+    public OHash(int capacity) {
+        this(capacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Создает пустую хеш-таблицу, вмещающую заданное количество элементов без удвоения.
+     * @param capacity ожидаемое количество элементов.
+     * @param loadFactor коэффициент заполнения (больше 0 и меньше 1).
+     */
+    public OHash(int capacity, float loadFactor) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Размер хеш-таблицы должен быть больше 0.");
+        }
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("Коэффициент заполнения должен быть больше 0 и меньше 1.");
+        }
+        this.loadFactor = loadFactor;
+        long length = Math.max(2, (long) Math.ceil(capacity / (double) loadFactor));
+        allocate(PrimeTable.nextPowerOfTwo((int) Math.min(1 << 30, length)));
+    }
+
+    /**
+     * Выделяет пустые массивы таблицы заданного размера.
+     * @param length размер таблицы (степень двойки).
+     */
+    @SuppressWarnings("unchecked")
+    private void allocate(int length) {
+        keys = (K[]) new Object[length];
+        values = (V[]) new Object[length];
+        hashes = new int[length];
+        distances = new int[length];
+        shift = Integer.numberOfLeadingZeros(length) + 1;
+        threshold = (int) (length * loadFactor);
+    }
+
+    /**
+     * Получает количество элементов хеш-таблицы.
+     * @return количество элементов.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Получает размер хеш-таблицы (количество ячеек).
+     * @return размер хеш-таблицы.
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Получает хеш-значение ключа: {@code hashCode}, перемешанный умножением на 32-битную константу Фибоначчи.
+     * Индекс ячейки ключа - старшие биты хеш-значения.
+     * @param key ключ.
+     * @return хеш-значение ключа.
+     */
+    @Override
+    public int hashFunc(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Ключ не может быть null.");
+        }
+        return key.hashCode() * 0x9E3779B9;
+    }
+
+    /**
+     * Находит ячейку заданного ключа.
+     * Поиск прекращается на пустой ячейке или на элементе, который ближе к своей ячейке, чем искомый ключ к своей.
+     * @param key ключ.
+     * @param hash хеш-значение ключа.
+     * @return индекс ячейки или -1, если ключ отсутствует.
+     */
+    private int find(K key, int hash) {
+        int mask = keys.length - 1;
+        int j = hash >>> shift;
+        for (int distance = 1; distance <= distances[j]; ++distance) {
+            if (hashes[j] == hash && key.equals(keys[j])) {
+                return j;
+            }
+            j = (j + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Проверяет наличие заданного ключа в хеш-таблице.
+     * @param key ключ элемента.
+     * @return признак наличия ключа.
+     */
+    public boolean containsKey(K key) {
+        return find(key, hashFunc(key)) >= 0;
+    }
+
+    /**
+     * Получает данные по заданному ключу элемента хеш-таблицы.
+     * @param key ключ элемента хеш-таблицы.
+     * @return данные элемента хеш-таблицы или null, если ключ отсутствует.
+     */
+    public V get(K key) {
+        int j = find(key, hashFunc(key));
+        return j >= 0 ? values[j] : null;
+    }
+
+    /**
+     * Помещает заданные ключ и данные элемента в хеш-таблицу.
+     * Данные при повторе ключа переписываются.
+     * @param key ключ элемента хеш-таблицы.
+     * @param value данные элемента хеш-таблицы.
+     */
+    public void put(K key, V value) {
+        int hash = hashFunc(key);
+        int j = find(key, hash);
+        if (j >= 0) {
+            values[j] = value;
+            return;
+        }
+        insert(key, value, hash);
+    }
+
+    /**
+     * Инкрементирует целочисленные данные (счетчик) для заданного ключа элемента хеш-таблицы.
+     * Отсутствующий ключ добавляется с заданными данными.
+     * Для нецелочисленных данных инкремент игнорируется и данные при повторе ключа не меняются.
+     * @param key ключ элемента.
+     * @param value данные элемента как величина инкремента счетчика.
+     */
+    @SuppressWarnings("unchecked")
+    public void inc(K key, V value) {
+        int hash = hashFunc(key);
+        int j = find(key, hash);
+        if (j < 0) {
+            insert(key, value, hash);
+        }
+        else if (value instanceof Integer incVal && values[j] instanceof Integer currVal) {
+            Integer sum = currVal + incVal;
+            values[j] = (V) sum;
+        }
+        else if (value instanceof Long incVal && values[j] instanceof Long currVal) {
+            Long sum = currVal + incVal;
+            values[j] = (V) sum;
+        }
+    }
+
+    /**
+     * Удаляет элемент с заданным ключом.
+     * Следующие за удаленным элементы сдвигаются назад (Backward shift deletion), поэтому удаление не оставляет меток.
+     * @param key ключ элемента.
+     * @return данные удаленного элемента или null, если ключ отсутствует.
+     */
+    public V remove(K key) {
+        int j = find(key, hashFunc(key));
+        if (j < 0) {
+            return null;
+        }
+        V value = values[j];
+        int mask = keys.length - 1;
+        int next = (j + 1) & mask;
+        while (distances[next] > 1) {
+            keys[j] = keys[next];
+            values[j] = values[next];
+            hashes[j] = hashes[next];
+            distances[j] = distances[next] - 1;
+            j = next;
+            next = (next + 1) & mask;
+        }
+        keys[j] = null;
+        values[j] = null;
+        distances[j] = 0;
+        size--;
+        return value;
+    }
+
+    /**
+     * Вставляет отсутствующий в таблице элемент (Robin Hood).
+     * @param key ключ элемента.
+     * @param value данные элемента.
+     * @param hash хеш-значение ключа.
+     */
+    private void insert(K key, V value, int hash) {
+        if (size + 1 > threshold) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int j = hash >>> shift;
+        int distance = 1;
+        while (distances[j] != 0) {
+            if (distances[j] < distance) {
+                // Элемент ячейки ближе к своей ячейке: занять его место и продолжить вставку вытесненного элемента
+                K swapKey = keys[j];
+                V swapValue = values[j];
+                int swapHash = hashes[j];
+                int swapDistance = distances[j];
+                keys[j] = key;
+                values[j] = value;
+                hashes[j] = hash;
+                distances[j] = distance;
+                key = swapKey;
+                value = swapValue;
+                hash = swapHash;
+                distance = swapDistance;
+            }
+            j = (j + 1) & mask;
+            distance++;
+        }
+        keys[j] = key;
+        values[j] = value;
+        hashes[j] = hash;
+        distances[j] = distance;
+        size++;
+    }
+
+    /**
+     * Изменяет размер хеш-таблицы с повторным размещением всех элементов.
+     * @param length новый размер (степень двойки).
+     */
+    private void resize(int length) {
+        K[] oldKeys = keys;
+        V[] oldValues = values;
+        int[] oldHashes = hashes;
+        int[] oldDistances = distances;
+        allocate(length);
+        size = 0;
+        for (int k = 0; k < oldKeys.length; ++k) {
+            if (oldDistances[k] != 0) {
+                insert(oldKeys[k], oldValues[k], oldHashes[k]);
+            }
+        }
+    }
+
+    /**
+     * Выполняет заданное действие для каждого элемента хеш-таблицы (в порядке ячеек).
+     * @param action действие с ключом и данными элемента.
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int j = 0; j < keys.length; ++j) {
+            if (distances[j] != 0) {
+                action.accept(keys[j], values[j]);
+            }
+        }
+    }
+
+
+    // DISPLAY
+
+    @Override
+    public void display(DualOutput out) {
+        // Инициатор выводит свои верхнее и нижнее оформления сообщения и отключает их вывод в цепочке объектов.
+        String header = out.getHeader() != null ? out.getHeaderOnce() : this.out.getHeader();
+        String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
+
+        out.print(header);
+        for (int j = 0; j < keys.length; ++j) {
+            if (distances[j] != 0) {
+                out.print(keys[j] + "/" + values[j] + " ");
+            }
+        }
+        out.println(footer);
+    }
+}
@@ -0,0 +1,196 @@
+package huffman;
+
+import utils.constants.AppConstants;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+/**
+ * Поток распаковки байтов, сжатых {@code HfmAdaptiveOutputStream} (Adaptive Huffman input stream).
+ * Декодер повторяет обновления адаптивного дерева кодера по каждому декодированному байту.
+ * Входной поток читается по одному байту только тогда, когда нужны его биты, поэтому чтение не блокируется
+ * в ожидании данных, которые кодер еще не сбросил, а за концом сжатого потока входной поток не читается.
+ * Чтение массива возвращает управление после служебного значения сброса, если уже прочитан хотя бы один байт.
+ * При чтении из файла входной поток следует обернуть в {@code BufferedInputStream}.
+ */
+public class HfmAdaptiveInputStream extends FilterInputStream {
+    /**
+     * Адаптивное дерево Хаффмана.
+     */
+    private final HfmAdaptiveTree tree;
+
+    /**
+     * Источник бит для декодирования.
+     */
+    private final HfmAdaptiveTree.BitSource bits = this::readBit;
+
+    /**
+     * Текущий байт входного потока.
+     */
+    private int current;
+
+    /**
+     * Количество непрочитанных бит текущего байта.
+     */
+    private int currentBits;
+
+    /**
+     * Признак прочитанного конца потока.
+     */
+    private boolean isFinished;
+
+    /**
+     * Признак закрытого потока.
+     */
+    private boolean isClosed;
+
+    /**
+     * Создает поток распаковки, читает и проверяет заголовок сжатого потока.
+     * @param in входной поток сжатых данных.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода, или заголовок некорректен.
+     */
+    public HfmAdaptiveInputStream(InputStream in) throws IOException {
+        super(in);
+        DataInputStream data = new DataInputStream(in);
+        int maxWeight;
+        try {
+            if (data.readInt() != HfmAdaptiveOutputStream.MAGIC) {
+                throw new IOException("Поток не является адаптивным сжатым потоком Хаффмана.");
+            }
+            int version = data.readUnsignedByte();
+            if (version != HfmAdaptiveOutputStream.VERSION) {
+                throw new IOException("Неподдерживаемая версия адаптивного сжатого потока Хаффмана: " + version);
+            }
+            maxWeight = data.readInt();
+        }
+        catch (EOFException e) {
+            throw new EOFException("Неожиданный конец заголовка адаптивного сжатого потока Хаффмана.");
+        }
+        if (maxWeight < 2 * HfmAdaptiveOutputStream.ALPHABET_SIZE || maxWeight > AppConstants.ADAPTIVE_WEIGHT_LIMIT) {
+            throw new IOException("Некорректное ограничение веса адаптивного сжатого потока Хаффмана: " + maxWeight);
+        }
+        this.tree = new HfmAdaptiveTree(HfmAdaptiveOutputStream.ALPHABET_SIZE, HfmAdaptiveOutputStream.ESCAPE_COUNT, maxWeight);
+    }
+
+    @Override
+    public int read() throws IOException {
+        ensureOpen();
+        while (!isFinished) {
+            int value = tree.decode(bits);
+            if (value < HfmAdaptiveOutputStream.ALPHABET_SIZE) {
+                return value;
+            }
+            escape(value);
+        }
+        return -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        ensureOpen();
+        int total = 0;
+        while (total < len && !isFinished) {
+            int value = tree.decode(bits);
+            if (value < HfmAdaptiveOutputStream.ALPHABET_SIZE) {
+                b[off + total++] = (byte) value;
+            }
+            else {
+                escape(value);
+                // После сброса следующие биты могут еще не поступить
+                if (total > 0) {
+                    break;
+                }
+            }
+        }
+        return total == 0 && len > 0 ? -1 : total;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && read() >= 0) {
+            skipped++;
+        }
+        return skipped;
+    }
+
+    /**
+     * Получает количество байтов, которые можно прочитать без блокировки (неизвестно, поэтому всегда 0).
+     * @return 0.
+     * @throws IOException если поток закрыт.
+     */
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        return 0;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("Поток распаковки Хаффмана не поддерживает возврат к метке.");
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        in.close();
+    }
+
+    /**
+     * Проверяет, что поток не закрыт.
+     * @throws IOException если поток закрыт.
+     */
+    private void ensureOpen() throws IOException {
+        if (isClosed) {
+            throw new IOException("Поток распаковки закрыт.");
+        }
+    }
+
+    /**
+     * Обрабатывает служебное значение: пропускает биты дополнения до границы байта.
+     * @param value служебное значение.
+     * @throws IOException если служебное значение некорректно.
+     */
+    private void escape(int value) throws IOException {
+        if (value == HfmAdaptiveOutputStream.END) {
+            isFinished = true;
+        }
+        else if (value != HfmAdaptiveOutputStream.FLUSH) {
+            throw new IOException("Некорректное служебное значение адаптивного сжатого потока Хаффмана: " + value);
+        }
+        currentBits = 0;
+    }
+
+    /**
+     * Читает очередной бит входного потока (старший бит байта первым).
+     * @return значение бита.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода, или поток закончился до конца сжатых данных.
+     */
+    private int readBit() throws IOException {
+        if (currentBits == 0) {
+            current = in.read();
+            if (current < 0) {
+                throw new EOFException("Неожиданный конец адаптивного сжатого потока Хаффмана.");
+            }
+            currentBits = 8;
+        }
+        return (current >>> --currentBits) & 1;
+    }
+}
@@ -0,0 +1,172 @@
+package huffman;
+
+import utils.constants.AppConstants;
+
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * Поток адаптивного сжатия байтов кодами Хаффмана за один проход (Adaptive Huffman output stream).
+ * Каждый байт кодируется текущим кодом адаптивного дерева {@code HfmAdaptiveTree}, после чего дерево обновляется,
+ * поэтому для сжатия не нужны ни частотность всего потока, ни накопление блоков: подходит для потоков
+ * неограниченной длины (телеметрия, журналы), конец которых заранее неизвестен.
+ * Формат потока:
+ *      сигнатура {@code MAGIC} (int), версия {@code VERSION} (1 байт), ограничение веса дерева (int);
+ *      коды байтов (старший бит первым);
+ *      служебное значение {@code FLUSH} после каждого {@code flush} и дополнение нулевыми битами до границы байта;
+ *      служебное значение {@code END} в конце потока и дополнение до границы байта.
+ * Поток читается {@code HfmAdaptiveInputStream}.
+ */
+public class HfmAdaptiveOutputStream extends FilterOutputStream {
+    /**
+     * Сигнатура адаптивного сжатого потока ("HFMA").
+     */
+    public static final int MAGIC = 0x48464D41;
+
+    /**
+     * Версия формата адаптивного сжатого потока.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Количество символов алфавита (байты).
+     */
+    static final int ALPHABET_SIZE = 256;
+
+    /**
+     * Служебное значение конца потока.
+     */
+    static final int END = ALPHABET_SIZE;
+
+    /**
+     * Служебное значение сброса (следующий код начинается с границы байта).
+     */
+    static final int FLUSH = ALPHABET_SIZE + 1;
+
+    /**
+     * Количество служебных значений.
+     */
+    static final int ESCAPE_COUNT = 2;
+
+    /**
+     * Адаптивное дерево Хаффмана.
+     */
+    private final HfmAdaptiveTree tree;
+
+    /**
+     * Битовый поток записи кодов.
+     */
+    private final HfmBitWriter writer;
+
+    /**
+     * Признак записанного конца потока.
+     */
+    private boolean isFinished;
+
+    /**
+     * Признак закрытого потока.
+     */
+    private boolean isClosed;
+
+    /**
+     * Создает поток адаптивного сжатия с ограничением веса по умолчанию и записывает заголовок потока.
+     * @param out выходной поток сжатых данных.
+     * @throws IOException если при записи заголовка произошла ошибка ввода-вывода.
+     */
+    public HfmAdaptiveOutputStream(OutputStream out) throws IOException {
+        this(out, AppConstants.ADAPTIVE_MAX_WEIGHT);
+    }
+
+    /**
+     * Создает поток адаптивного сжатия и записывает заголовок потока.
+     * @param out выходной поток сжатых данных.
+     * @param maxWeight суммарный вес, при достижении которого веса дерева делятся пополам
+     *                  (от 512; меньшее значение быстрее адаптируется к изменению частотности байтов).
+     * @throws IOException если при записи заголовка произошла ошибка ввода-вывода.
+     */
+    public HfmAdaptiveOutputStream(OutputStream out, int maxWeight) throws IOException {
+        super(out);
+        this.tree = new HfmAdaptiveTree(ALPHABET_SIZE, ESCAPE_COUNT, maxWeight);
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeInt(maxWeight);
+        this.writer = new HfmBitWriter(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        tree.encode(b & 0xFF, writer);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        ensureOpen();
+        for (int end = off + len; off < end; ++off) {
+            tree.encode(b[off] & 0xFF, writer);
+        }
+    }
+
+    /**
+     * Записывает служебное значение сброса и все накопленные биты и сбрасывает выходной поток,
+     * после чего все записанные байты могут быть прочитаны {@code HfmAdaptiveInputStream}.
+     * Состояние дерева сохраняется, поэтому сброс стоит только кода служебного значения и бит дополнения.
+     * После {@code finish} только сбрасывает выходной поток.
+     * @throws IOException если поток закрыт, или при записи произошла ошибка ввода-вывода.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (isClosed) {
+            throw new IOException("Поток сжатия закрыт.");
+        }
+        if (isFinished) {
+            out.flush();
+            return;
+        }
+        tree.encodeEscape(FLUSH, writer);
+        writer.flush();
+    }
+
+    /**
+     * Записывает конец потока без закрытия выходного потока.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    public void finish() throws IOException {
+        if (isFinished) {
+            return;
+        }
+        ensureOpen();
+        tree.encodeEscape(END, writer);
+        writer.flush();
+        isFinished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (isClosed) {
+            return;
+        }
+        try {
+            finish();
+        }
+        finally {
+            isClosed = true;
+            out.close();
+        }
+    }
+
+    /**
+     * Проверяет, что в поток можно записывать.
+     * @throws IOException если поток закрыт или завершен.
+     */
+    private void ensureOpen() throws IOException {
+        if (isClosed || isFinished) {
+            throw new IOException("Поток сжатия закрыт.");
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package huffman;
+
+import utils.constants.AppConstants;
+import utils.output.Display;
+import utils.output.DualOutput;
+import utils.output.Output;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Адаптивное дерево Хаффмана (Adaptive Huffman tree, алгоритм FGK - Faller, Gallager, Knuth).
+ * Дерево перестраивается после каждого символа, поэтому кодирование выполняется за один проход без предварительного
+ * подсчета частотности, а декодер повторяет те же перестроения по декодированным символам.
+ * Символ, еще не встречавшийся в потоке, кодируется кодом узла NYT (Not Yet Transmitted) и своим значением
+ * фиксированной длины; тем же способом кодируются служебные значения (escape) от {@code alphabetSize}.
+ * Узлы хранятся в массивах по номерам (слотам) так, что вес узла не убывает с ростом номера, а братья имеют
+ * соседние номера (свойство братства); корень - последний слот, узел NYT - наименьший занятый слот.
+ * Перестановка узлов обменивает поддеревья двух слотов, не меняя родителей слотов.
+ * При достижении суммарным весом ограничения веса листьев делятся пополам, а дерево строится заново,
+ * поэтому глубина дерева ограничена, а время обработки символа не зависит от длины потока.
+ */
+public class HfmAdaptiveTree implements Output {
+    /**
+     * Символ объединенного узла.
+     */
+    private static final int INTERNAL = -1;
+
+    /**
+     * Символ узла NYT.
+     */
+    private static final int NYT = -2;
+
+    /**
+     * Отсутствующий узел (родитель корня, лист отсутствующего символа).
+     */
+    private static final int NONE = -1;
+
+    /**
+     * Количество символов алфавита (значения от 0 до {@code alphabetSize - 1}).
+     */
+    private final int alphabetSize;
+
+    /**
+     * Количество бит значения нового символа или служебного значения после кода NYT.
+     */
+    private final int rawBits;
+
+    /**
+     * Суммарный вес, при достижении которого веса делятся пополам.
+     */
+    private final int maxWeight;
+
+    /**
+     * Веса узлов по слотам.
+     */
+    private final int[] weight;
+
+    /**
+     * Родители узлов по слотам.
+     */
+    private final int[] parent;
+
+    /**
+     * Меньший из двух соседних слотов потомков (бит 0), больший - бит 1.
+     */
+    private final int[] child;
+
+    /**
+     * Символы узлов по слотам ({@code INTERNAL} - объединенный узел, {@code NYT} - узел NYT).
+     */
+    private final int[] symbol;
+
+    /**
+     * Слоты листьев символов ({@code NONE} - символ еще не встречался).
+     */
+    private final int[] leaf;
+
+    /**
+     * Биты пути от листа к корню при кодировании.
+     */
+    private final int[] path;
+
+    /**
+     * Слот корня.
+     */
+    private final int root;
+
+    /**
+     * Слот узла NYT.
+     */
+    private int nyt;
+
+    /**
+     * Количество символов в дереве.
+     */
+    private int symbolCount;
+
+    /**
+     * Интерфейс вывода в поток адаптивного дерева.
+     */
+    public final Display out = new Display(this::display, "<<< Адаптивное дерево Хаффмана: ", ">>>");
+
+    /**
+     * Функциональный интерфейс источника бит для декодирования.
+     */
+    @FunctionalInterface
+    public interface BitSource {
+        /**
+         * Читает очередной бит.
+         * @return значение бита (0 или 1).
+         * @throws IOException если при чтении произошла ошибка ввода-вывода.
+         */
+        int readBit() throws IOException;
+    }
+
+    /**
+     * Создает пустое адаптивное дерево с ограничением веса по умолчанию.
+     * @param alphabetSize количество символов алфавита.
+     * @param escapeCount количество служебных значений.
+     */
+    public HfmAdaptiveTree(int alphabetSize, int escapeCount) {
+        this(alphabetSize, escapeCount, AppConstants.ADAPTIVE_MAX_WEIGHT);
+    }
+
+    /**
+     * Создает пустое адаптивное дерево.
+     * @param alphabetSize количество символов алфавита.
+     * @param escapeCount количество служебных значений.
+     * @param maxWeight суммарный вес, при достижении которого веса делятся пополам
+     *                  (от {@code 2 * alphabetSize}, чтобы дерево не строилось заново после каждого символа,
+     *                  до {@code AppConstants.ADAPTIVE_WEIGHT_LIMIT}).
+     */
+    public HfmAdaptiveTree(int alphabetSize, int escapeCount, int maxWeight) {
+        if (alphabetSize <= 0 || escapeCount < 0 || alphabetSize > (1 << 24) - escapeCount) {
+            throw new IllegalArgumentException("Некорректный размер алфавита адаптивного дерева Хаффмана.");
+        }
+        if (maxWeight < 2 * alphabetSize || maxWeight > AppConstants.ADAPTIVE_WEIGHT_LIMIT) {
+            throw new IllegalArgumentException("Ограничение веса должно быть от " + 2 * alphabetSize + " до " + AppConstants.ADAPTIVE_WEIGHT_LIMIT + ".");
+        }
+        this.alphabetSize = alphabetSize;
+        this.rawBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(alphabetSize + escapeCount - 1));
+        this.maxWeight = maxWeight;
+        int nodes = 2 * alphabetSize + 1;
+        weight = new int[nodes];
+        parent = new int[nodes];
+        child = new int[nodes];
+        symbol = new int[nodes];
+        path = new int[nodes];
+        leaf = new int[alphabetSize];
+        root = nodes - 1;
+        reset();
+    }
+
+    /**
+     * Возвращает дерево в начальное состояние (один узел NYT).
+     */
+    public void reset() {
+        Arrays.fill(leaf, NONE);
+        Arrays.fill(weight, 0);
+        nyt = root;
+        symbol[root] = NYT;
+        parent[root] = NONE;
+        child[root] = NONE;
+        symbolCount = 0;
+    }
+
+    /**
+     * Получает количество символов алфавита.
+     * @return количество символов.
+     */
+    public int getAlphabetSize() {
+        return alphabetSize;
+    }
+
+    /**
+     * Получает суммарный вес, при достижении которого веса делятся пополам.
+     * @return ограничение веса.
+     */
+    public int getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Получает количество символов, уже встречавшихся в потоке.
+     * @return количество символов.
+     */
+    public int getSymbolCount() {
+        return symbolCount;
+    }
+
+    /**
+     * Получает суммарный вес символов (вес корня).
+     * @return суммарный вес.
+     */
+    public int getWeight() {
+        return weight[root];
+    }
+
+    /**
+     * Кодирует символ текущим кодом и обновляет дерево.
+     * @param value символ (от 0 до {@code alphabetSize - 1}).
+     * @param out битовый поток записи.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    public void encode(int value, HfmBitWriter out) throws IOException {
+        if (value < 0 || value >= alphabetSize) {
+            throw new IllegalArgumentException("Символ " + value + " вне алфавита адаптивного дерева Хаффмана.");
+        }
+        int node = leaf[value];
+        if (node != NONE) {
+            writePath(node, out);
+        }
+        else {
+            writePath(nyt, out);
+            out.write(value, rawBits);
+        }
+        update(value);
+    }
+
+    /**
+     * Кодирует служебное значение кодом NYT без обновления дерева.
+     * @param value служебное значение (от {@code alphabetSize} до {@code alphabetSize + escapeCount - 1}).
+     * @param out битовый поток записи.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    public void encodeEscape(int value, HfmBitWriter out) throws IOException {
+        if (value < alphabetSize || value >= 1 << rawBits) {
+            throw new IllegalArgumentException("Некорректное служебное значение адаптивного дерева Хаффмана: " + value);
+        }
+        writePath(nyt, out);
+        out.write(value, rawBits);
+    }
+
+    /**
+     * Декодирует очередной символ или служебное значение; после символа дерево обновляется.
+     * @param in источник бит.
+     * @return символ (меньше {@code alphabetSize}) или служебное значение.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода, или код некорректен.
+     */
+    public int decode(BitSource in) throws IOException {
+        int node = root;
+        while (symbol[node] == INTERNAL) {
+            node = child[node] + in.readBit();
+        }
+        int value = symbol[node];
+        if (value == NYT) {
+            value = 0;
+            for (int j = 0; j < rawBits; ++j) {
+                value = (value << 1) | in.readBit();
+            }
+            if (value >= alphabetSize) {
+                return value;
+            }
+            if (leaf[value] != NONE) {
+                throw new IOException("Некорректный код нового символа адаптивного дерева Хаффмана: " + value);
+            }
+        }
+        update(value);
+        return value;
+    }
+
+    /**
+     * Записывает код узла (путь от корня к узлу).
+     * @param node слот узла.
+     * @param out битовый поток записи.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    private void writePath(int node, HfmBitWriter out) throws IOException {
+        int depth = 0;
+        while (node != root) {
+            int p = parent[node];
+            path[depth++] = node - child[p];
+            node = p;
+        }
+        // Биты пути записываются от корня порциями до 32 бит
+        while (depth > 0) {
+            int step = Math.min(depth, 32);
+            long bits = 0;
+            for (int j = 0; j < step; ++j) {
+                bits = (bits << 1) | path[--depth];
+            }
+            out.write(bits, step);
+        }
+    }
+
+    /**
+     * Обновляет дерево после символа (алгоритм FGK): новый символ добавляется разделением узла NYT,
+     * затем от листа символа до корня каждый узел обменивается со старшим узлом своего веса и увеличивает вес.
+     * @param value символ.
+     */
+    private void update(int value) {
+        int node = leaf[value];
+        if (node == NONE) {
+            node = split(value);
+        }
+        while (node != NONE) {
+            int w = weight[node];
+            int leader = node;
+            while (leader < root && weight[leader + 1] == w) {
+                leader++;
+            }
+            if (leader != node && leader != parent[node]) {
+                swap(node, leader);
+                node = leader;
+            }
+            weight[node]++;
+            node = parent[node];
+        }
+        if (weight[root] >= maxWeight) {
+            rescale();
+        }
+    }
+
+    /**
+     * Разделяет узел NYT на новый узел NYT (бит 0) и лист нового символа (бит 1) с нулевыми весами.
+     * @param value новый символ.
+     * @return слот листа символа.
+     */
+    private int split(int value) {
+        int node = nyt;
+        int first = node - 2;
+        symbol[node] = INTERNAL;
+        child[node] = first;
+        for (int k = first; k <= first + 1; ++k) {
+            weight[k] = 0;
+            parent[k] = node;
+            child[k] = NONE;
+        }
+        symbol[first] = NYT;
+        symbol[first + 1] = value;
+        leaf[value] = first + 1;
+        nyt = first;
+        symbolCount++;
+        return first + 1;
+    }
+
+    /**
+     * Обменивает поддеревья двух слотов одного веса.
+     * @param a первый слот.
+     * @param b второй слот.
+     */
+    private void swap(int a, int b) {
+        int s = symbol[a];
+        symbol[a] = symbol[b];
+        symbol[b] = s;
+        int c = child[a];
+        child[a] = child[b];
+        child[b] = c;
+        attach(a);
+        attach(b);
+    }
+
+    /**
+     * Связывает содержимое слота с его потомками или с листом символа.
+     * @param node слот.
+     */
+    private void attach(int node) {
+        int s = symbol[node];
+        if (s == INTERNAL) {
+            parent[child[node]] = node;
+            parent[child[node] + 1] = node;
+        }
+        else if (s == NYT) {
+            nyt = node;
+        }
+        else {
+            leaf[s] = node;
+        }
+    }
+
+    /**
+     * Делит веса листьев пополам (не меньше 1) и строит дерево заново методом двух очередей:
+     * узлы получают слоты в порядке извлечения из очередей, поэтому веса слотов не убывают, а братья соседние.
+     */
+    private void rescale() {
+        int leaves = symbolCount + 1;
+        int nodes = 2 * leaves - 1;
+        int base = root - nodes + 1;
+        // Листья по возрастанию (вес, символ); NYT с нулевым весом - первый
+        long[] order = new long[symbolCount];
+        int n = 0;
+        for (int s = 0; s < alphabetSize; ++s) {
+            if (leaf[s] != NONE) {
+                order[n++] = ((long) ((weight[leaf[s]] + 1) >>> 1) << 32) | s;
+            }
+        }
+        Arrays.sort(order);
+        // Временные узлы: листья 0..leaves-1 (0 - NYT), объединенные узлы - далее в порядке образования
+        int[] tmpWeight = new int[nodes];
+        int[] tmpSymbol = new int[nodes];
+        int[] tmpChild = new int[nodes];
+        int[] slotOf = new int[nodes];
+        tmpSymbol[0] = NYT;
+        for (int j = 0; j < symbolCount; ++j) {
+            tmpWeight[j + 1] = (int) (order[j] >>> 32);
+            tmpSymbol[j + 1] = (int) order[j];
+        }
+        int nextLeaf = 0;
+        int nextInternal = leaves;
+        int created = leaves;
+        int slot = base;
+        while (slot < root) {
+            int[] pair = new int[2];
+            for (int k = 0; k < 2; ++k) {
+                if (nextLeaf < leaves && (nextInternal == created || tmpWeight[nextLeaf] <= tmpWeight[nextInternal])) {
+                    pair[k] = nextLeaf++;
+                }
+                else {
+                    pair[k] = nextInternal++;
+                }
+                slotOf[pair[k]] = slot++;
+            }
+            tmpWeight[created] = tmpWeight[pair[0]] + tmpWeight[pair[1]];
+            tmpSymbol[created] = INTERNAL;
+            tmpChild[created] = slotOf[pair[0]];
+            created++;
+        }
+        slotOf[nodes - 1] = root;
+        for (int t = 0; t < nodes; ++t) {
+            int k = slotOf[t];
+            weight[k] = tmpWeight[t];
+            symbol[k] = tmpSymbol[t];
+            child[k] = tmpSymbol[t] == INTERNAL ? tmpChild[t] : NONE;
+        }
+        parent[root] = NONE;
+        for (int k = base; k <= root; ++k) {
+            attach(k);
+        }
+    }
+
+
+    // DISPLAY
+
+    @Override
+    public void display(DualOutput out) {
+        // Инициатор выводит свои верхнее и нижнее оформления сообщения и отключает их вывод в цепочке объектов.
+        String header = out.getHeader() != null ? out.getHeaderOnce() : this.out.getHeader();
+        String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
+
+        out.println(header);
+        out.println("Символов: " + symbolCount + ", вес: " + weight[root] + ", ограничение веса: " + maxWeight);
+        for (int k = nyt; k <= root; ++k) {
+            int s = symbol[k];
+            out.println(k + ": " + weight[k] + " " + (s == INTERNAL ? "-> " + child[k] + "/" + (child[k] + 1) : s == NYT ? "NYT" : "'" + s + "'"));
+        }
+        out.println(footer);
+    }
+}
@@ -0,0 +1,136 @@
+package huffman;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Упакованный битовый поток чтения кодов Хаффмана (Bit-packed reader).
+ * Читает поток, записанный {@code HfmBitWriter}, с использованием 64-битного буфера.
+ * Чтение ограничено точной длиной потока в битах, поэтому биты дополнения последнего байта никогда не читаются.
+ */
+public class HfmBitReader implements AutoCloseable {
+    /**
+     * Входной поток.
+     */
+    private final InputStream in;
+
+    /**
+     * Буфер байтов, прочитанных из входного потока.
+     */
+    private final byte[] buffer;
+
+    /**
+     * Позиция следующего байта в буфере.
+     */
+    private int bufferPos;
+
+    /**
+     * Количество байтов в буфере.
+     */
+    private int bufferSize;
+
+    /**
+     * 64-битный буфер бит (младшие {@code accBits} бит еще не прочитаны).
+     */
+    private long acc;
+
+    /**
+     * Количество непрочитанных бит в 64-битном буфере.
+     */
+    private int accBits;
+
+    /**
+     * Количество непрочитанных бит потока (включая биты в 64-битном буфере).
+     */
+    private long remaining;
+
+    /**
+     * Создает битовый поток чтения из заданного входного потока.
+     * @param in входной поток.
+     * @param bitLength точная длина потока в битах.
+     */
+    public HfmBitReader(InputStream in, long bitLength) {
+        this.in = in;
+        this.buffer = new byte[8192];
+        this.remaining = bitLength;
+    }
+
+    /**
+     * Получает количество непрочитанных бит потока.
+     * @return количество непрочитанных бит.
+     */
+    public long getRemaining() {
+        return remaining;
+    }
+
+    /**
+     * Читает один бит потока.
+     * @return значение бита (0 или 1) или -1, если все биты потока прочитаны.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода.
+     */
+    public int readBit() throws IOException {
+        if(remaining == 0) {
+            return -1;
+        }
+        if(accBits == 0) {
+            fill();
+        }
+        remaining--;
+        accBits--;
+        return (int) (acc >>> accBits) & 1;
+    }
+
+    /**
+     * Получает следующие {@code n} бит потока без их чтения (старший бит первым).
+     * Если до конца входного потока осталось меньше {@code n} бит, то недостающие младшие биты равны 0.
+     * @param n количество бит (от 1 до 32).
+     * @return значение следующих {@code n} бит.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода.
+     */
+    public int peek(int n) throws IOException {
+        if(accBits < n) {
+            fill();
+        }
+        long mask = (1L << n) - 1;
+        if(accBits >= n) {
+            return (int) ((acc >>> (accBits - n)) & mask);
+        }
+        return (int) ((acc << (n - accBits)) & mask);
+    }
+
+    /**
+     * Пропускает {@code n} бит потока, предварительно полученных {@code peek}.
+     * @param n количество бит (не больше количества бит, полученных {@code peek}, и не больше {@code getRemaining}).
+     */
+    public void skip(int n) {
+        accBits -= n;
+        remaining -= n;
+    }
+
+    /**
+     * Заполняет 64-битный буфер целыми байтами входного потока.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода, или поток короче заявленной длины.
+     */
+    private void fill() throws IOException {
+        while(accBits <= 56) {
+            if(bufferPos == bufferSize) {
+                bufferSize = in.read(buffer, 0, buffer.length);
+                bufferPos = 0;
+                if(bufferSize <= 0) {
+                    bufferSize = 0;
+                    if(accBits == 0) {
+                        throw new IOException("Неожиданный конец кодированного потока.");
+                    }
+                    return;
+                }
+            }
+            acc = (acc << 8) | (buffer[bufferPos++] & 0xFF);
+            accBits += 8;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
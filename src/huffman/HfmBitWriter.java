@@ -0,0 +1,166 @@
+package huffman;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Упакованный битовый поток записи кодов Хаффмана (Bit-packed writer).
+ * Биты кодов накапливаются в 64-битном аккумуляторе (старший бит кода записывается первым)
+ * и выводятся в поток целыми байтами.
+ * Последний неполный байт дополняется нулевыми битами, поэтому точная длина потока в битах {@code getBitLength}
+ * должна храниться отдельно, чтобы биты дополнения никогда не декодировались.
+ */
+public class HfmBitWriter implements AutoCloseable {
+    /**
+     * Максимальное количество бит, добавляемых в аккумулятор за один шаг.
+     */
+    private static final int MAX_STEP_BITS = 56;
+
+    /**
+     * Выходной поток.
+     */
+    private final OutputStream out;
+
+    /**
+     * Буфер байтов для записи в выходной поток.
+     */
+    private final byte[] buffer;
+
+    /**
+     * Количество байтов в буфере.
+     */
+    private int bufferSize;
+
+    /**
+     * 64-битный аккумулятор (младшие {@code accBits} бит содержат еще не выведенные биты).
+     */
+    private long acc;
+
+    /**
+     * Количество бит в аккумуляторе.
+     */
+    private int accBits;
+
+    /**
+     * Количество записанных бит.
+     */
+    private long bitLength;
+
+    /**
+     * Создает битовый поток записи в заданный выходной поток.
+     * @param out выходной поток.
+     */
+    public HfmBitWriter(OutputStream out) {
+        this.out = out;
+        this.buffer = new byte[8192];
+    }
+
+    /**
+     * Получает точную длину записанного потока в битах (без бит дополнения последнего байта).
+     * @return количество записанных бит.
+     */
+    public long getBitLength() {
+        return bitLength;
+    }
+
+    /**
+     * Записывает младшие {@code length} бит заданного кода (старший бит первым).
+     * @param code биты кода.
+     * @param length длина кода (от 0 до 64).
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    public void write(long code, int length) throws IOException {
+        if(length < 0 || length > 64) {
+            throw new IllegalArgumentException("Длина кода должна быть от 0 до 64 бит.");
+        }
+        bitLength += length;
+        while(length > MAX_STEP_BITS) {
+            length -= MAX_STEP_BITS;
+            append(code >>> length, MAX_STEP_BITS);
+        }
+        append(code, length);
+    }
+
+    /**
+     * Записывает код Хаффмана, заданный строкой из символов '0' и '1'.
+     * @param code строка кода Хаффмана.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    public void write(String code) throws IOException {
+        int length = code.length();
+        int j = 0;
+        while(j < length) {
+            int step = Math.min(MAX_STEP_BITS, length - j);
+            long bits = 0;
+            for(int end = j + step; j < end; ++j) {
+                bits = (bits << 1) | (code.charAt(j) == '1' ? 1 : 0);
+            }
+            write(bits, step);
+        }
+    }
+
+    /**
+     * Добавляет биты в аккумулятор.
+     * Если аккумулятор не вмещает заданные биты, то из него предварительно выводятся все целые байты.
+     * @param code биты кода.
+     * @param length длина кода (не больше {@code MAX_STEP_BITS}).
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    private void append(long code, int length) throws IOException {
+        if(length == 0) {
+            return;
+        }
+        if(accBits + length > 64) {
+            drain();
+        }
+        acc = (acc << length) | (code & (-1L >>> (64 - length)));
+        accBits += length;
+    }
+
+    /**
+     * Выводит из аккумулятора в буфер все целые байты.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    private void drain() throws IOException {
+        while(accBits >= 8) {
+            accBits -= 8;
+            putByte((int) (acc >>> accBits));
+        }
+    }
+
+    /**
+     * Помещает байт в буфер, при заполнении буфера выводит его в поток.
+     * @param value значение байта.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    private void putByte(int value) throws IOException {
+        if(bufferSize == buffer.length) {
+            out.write(buffer, 0, bufferSize);
+            bufferSize = 0;
+        }
+        buffer[bufferSize++] = (byte) value;
+    }
+
+    /**
+     * Выводит все накопленные биты в поток.
+     * Неполный последний байт дополняется нулевыми битами (используется при завершении записи).
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    public void flush() throws IOException {
+        drain();
+        if(accBits > 0) {
+            putByte((int) (acc << (8 - accBits)));
+            accBits = 0;
+        }
+        acc = 0;
+        out.write(buffer, 0, bufferSize);
+        bufferSize = 0;
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        out.close();
+    }
+}
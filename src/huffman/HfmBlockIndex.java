@@ -0,0 +1,262 @@
+package huffman;
+
+import utils.output.Display;
+import utils.output.DualOutput;
+import utils.output.Output;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Индекс блоков кодированного текста (Block index).
+ * Кодированный текст делится на независимо декодируемые блоки, каждый блок начинается с границы байта.
+ * Для каждого блока индекс хранит смещение в битах от начала кодированных данных, точную длину в битах
+ * и количество символов, поэтому блоки можно декодировать параллельно и записывать каждый на свое место.
+ * Формат индекса в файле: количество блоков (int), затем для каждого блока смещение, длина и количество символов (long),
+ * а в контейнере {@code HfmContainer} - еще и контрольная сумма CRC32C байтов блока (int).
+ */
+public class HfmBlockIndex implements Output {
+    /**
+     * Размер записи одного блока в файле (в байтах).
+     */
+    private static final int ENTRY_SIZE = 3 * Long.BYTES;
+
+    /**
+     * Размер контрольной суммы блока в файле (в байтах).
+     */
+    private static final int CHECKSUM_SIZE = Integer.BYTES;
+
+    /**
+     * Смещения блоков в битах от начала кодированных данных.
+     */
+    private final long[] bitOffsets;
+
+    /**
+     * Точные длины блоков в битах.
+     */
+    private final long[] bitLengths;
+
+    /**
+     * Количество символов блоков.
+     */
+    private final long[] symbolCounts;
+
+    /**
+     * Контрольные суммы CRC32C байтов блоков.
+     */
+    private final int[] checksums;
+
+    /**
+     * Признак наличия контрольных сумм блоков.
+     */
+    private boolean hasChecksums;
+
+    /**
+     * Интерфейс вывода в поток индекса блоков.
+     */
+    public final Display out = new Display(this::display, "<<< Индекс блоков: ", ">>>");
+
+    /**
+     * Создает индекс с заданным количеством блоков.
+     * @param blockCount количество блоков.
+     */
+    public HfmBlockIndex(int blockCount) {
+        if(blockCount < 0) {
+            throw new IllegalArgumentException("Количество блоков не может быть отрицательным.");
+        }
+        bitOffsets = new long[blockCount];
+        bitLengths = new long[blockCount];
+        symbolCounts = new long[blockCount];
+        checksums = new int[blockCount];
+    }
+
+    /**
+     * Получает размер индекса в файле (в байтах) для заданного количества блоков.
+     * @param blockCount количество блоков.
+     * @return размер индекса.
+     */
+    public static long getSize(int blockCount) {
+        return getSize(blockCount, false);
+    }
+
+    /**
+     * Получает размер индекса в файле (в байтах) для заданного количества блоков.
+     * @param blockCount количество блоков.
+     * @param withChecksums признак записи контрольных сумм блоков.
+     * @return размер индекса.
+     */
+    public static long getSize(int blockCount, boolean withChecksums) {
+        return Integer.BYTES + (long) blockCount * (withChecksums ? ENTRY_SIZE + CHECKSUM_SIZE : ENTRY_SIZE);
+    }
+
+    /**
+     * Получает количество блоков.
+     * @return количество блоков.
+     */
+    public int getBlockCount() {
+        return bitOffsets.length;
+    }
+
+    /**
+     * Устанавливает запись блока.
+     * @param block номер блока.
+     * @param bitOffset смещение блока в битах (кратно 8).
+     * @param bitLength точная длина блока в битах.
+     * @param symbolCount количество символов блока.
+     */
+    public void set(int block, long bitOffset, long bitLength, long symbolCount) {
+        bitOffsets[block] = bitOffset;
+        bitLengths[block] = bitLength;
+        symbolCounts[block] = symbolCount;
+    }
+
+    /**
+     * Получает смещение блока в байтах от начала кодированных данных.
+     * @param block номер блока.
+     * @return смещение блока в байтах.
+     */
+    public long getByteOffset(int block) {
+        return bitOffsets[block] >>> 3;
+    }
+
+    /**
+     * Получает точную длину блока в битах.
+     * @param block номер блока.
+     * @return длина блока в битах.
+     */
+    public long getBitLength(int block) {
+        return bitLengths[block];
+    }
+
+    /**
+     * Получает количество символов блока.
+     * @param block номер блока.
+     * @return количество символов.
+     */
+    public long getSymbolCount(int block) {
+        return symbolCounts[block];
+    }
+
+    /**
+     * Устанавливает контрольную сумму CRC32C байтов блока.
+     * @param block номер блока.
+     * @param checksum контрольная сумма.
+     */
+    public void setChecksum(int block, int checksum) {
+        checksums[block] = checksum;
+        hasChecksums = true;
+    }
+
+    /**
+     * Получает контрольную сумму CRC32C байтов блока.
+     * @param block номер блока.
+     * @return контрольная сумма.
+     */
+    public int getChecksum(int block) {
+        return checksums[block];
+    }
+
+    /**
+     * Проверяет, что индекс содержит контрольные суммы блоков (прочитан из контейнера или заполнен при кодировании).
+     * @return признак наличия контрольных сумм.
+     */
+    public boolean hasChecksums() {
+        return hasChecksums;
+    }
+
+    /**
+     * Записывает индекс блоков.
+     * @param out выходной поток.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    public void write(DataOutput out) throws IOException {
+        write(out, false);
+    }
+
+    /**
+     * Записывает индекс блоков.
+     * @param out выходной поток.
+     * @param withChecksums признак записи контрольных сумм блоков.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    public void write(DataOutput out, boolean withChecksums) throws IOException {
+        out.writeInt(bitOffsets.length);
+        for(int j = 0; j < bitOffsets.length; ++j) {
+            out.writeLong(bitOffsets[j]);
+            out.writeLong(bitLengths[j]);
+            out.writeLong(symbolCounts[j]);
+            if(withChecksums) {
+                out.writeInt(checksums[j]);
+            }
+        }
+    }
+
+    /**
+     * Читает индекс блоков.
+     * @param in входной поток.
+     * @return индекс блоков.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода, или индекс некорректен.
+     */
+    public static HfmBlockIndex read(DataInput in) throws IOException {
+        return read(in, false);
+    }
+
+    /**
+     * Читает индекс блоков.
+     * @param in входной поток.
+     * @param withChecksums признак чтения контрольных сумм блоков.
+     * @return индекс блоков.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода, или индекс некорректен.
+     */
+    public static HfmBlockIndex read(DataInput in, boolean withChecksums) throws IOException {
+        return read(in, withChecksums, Long.MAX_VALUE);
+    }
+
+    /**
+     * Читает индекс блоков, размер которого не больше заданного (количество блоков проверяется до создания индекса).
+     * @param in входной поток.
+     * @param withChecksums признак чтения контрольных сумм блоков.
+     * @param maxSize наибольший размер индекса в байтах, например, размер файла.
+     * @return индекс блоков.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода, или индекс некорректен.
+     */
+    public static HfmBlockIndex read(DataInput in, boolean withChecksums, long maxSize) throws IOException {
+        int blockCount = in.readInt();
+        if(blockCount < 0 || getSize(blockCount, withChecksums) > maxSize) {
+            throw new IOException("Некорректное количество блоков кодированного текста: " + blockCount);
+        }
+        HfmBlockIndex index = new HfmBlockIndex(blockCount);
+        long end = 0;
+        for(int j = 0; j < blockCount; ++j) {
+            long bitOffset = in.readLong();
+            long bitLength = in.readLong();
+            long symbolCount = in.readLong();
+            if(bitOffset < end || (bitOffset & 7) != 0 || bitLength < 0 || symbolCount < 0) {
+                throw new IOException("Некорректная запись индекса блока " + j + ".");
+            }
+            index.set(j, bitOffset, bitLength, symbolCount);
+            if(withChecksums) {
+                index.setChecksum(j, in.readInt());
+            }
+            end = bitOffset + bitLength;
+        }
+        return index;
+    }
+
+
+    // DISPLAY
+
+    @Override
+    public void display(DualOutput out) {
+        // Инициатор выводит свои верхнее и нижнее оформления сообщения и отключает их вывод в цепочке объектов.
+        String header = out.getHeader() != null ? out.getHeaderOnce() : this.out.getHeader();
+        String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
+
+        out.println(header);
+        for(int j = 0; j < bitOffsets.length; ++j) {
+            out.println(j + ": " + bitOffsets[j] + "/" + bitLengths[j] + "/" + symbolCounts[j]);
+        }
+        out.println(footer);
+    }
+}
@@ -1,32 +1,78 @@
 package huffman;
 
-import binarySearchTree.BSNode;
-import hashTable.LHash;
-import linkedList.LNode;
+import hashTable.IntLongHash;
+import hashTable.OHash;
 import utils.constants.AppConstants;
+import utils.input.MappedInput;
 import utils.output.Display;
 import utils.output.DualOutput;
 import utils.output.Output;
 
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Scanner;
+import java.util.Arrays;
 
 /**
  * Набор символов кодировки Хаффмана (Huffman Charset).
+ * Коды символов канонические (Canonical Huffman codes): дерево Хаффмана задает только длины кодов,
+ * а сами коды назначаются последовательно в порядке возрастания длины кода и символа.
+ * Поэтому для восстановления набора кодировки достаточно таблицы длин кодов символов.
  */
 public class HfmCharset implements Output {
     /**
-     * Набор символов кодировки Хаффмана на основе хеш-таблицы.
+     * Размер плотного диапазона символов массивов кодов (кодовые точки BMP и байты).
      */
-    private LHash<String, String> hash;
+    private static final int DENSE_CODE_SIZE = Character.MAX_VALUE + 1;
 
     /**
-     * Корневой узел дерева Хаффмана.
+     * Набор символов кодировки Хаффмана на основе хеш-таблицы (строки кодов для вывода).
+     * Формируется при первом обращении, кодирование текста хеш-таблицу не использует.
      */
-    private BSNode<Integer, String> root;
+    private OHash<String, String> hash;
+
+    /**
+     * Режим кодирования (алфавит символов).
+     */
+    private HfmMode mode;
+
+    /**
+     * Ограничение максимальной длины кода (0 - длина кода не ограничена).
+     */
+    private int lengthLimit;
+
+    /**
+     * Символы в каноническом порядке (по возрастанию длины кода и символа).
+     */
+    private int[] symbols;
+
+    /**
+     * Длины кодов символов в каноническом порядке.
+     */
+    private int[] lengths;
+
+    /**
+     * Коды символов в каноническом порядке (младшие {@code lengths[j]} бит).
+     */
+    private long[] codes;
+
+    /**
+     * Коды символов, индексируемые символом (плотный диапазон {@code 0..symbolCodes.length - 1}).
+     */
+    private long[] symbolCodes;
+
+    /**
+     * Длины кодов символов, индексируемые символом (0 - символ отсутствует в наборе кодировки).
+     */
+    private byte[] symbolLengths;
+
+    /**
+     * Канонические индексы символов вне плотного диапазона (дополнительные кодовые точки Unicode).
+     */
+    private IntLongHash sparseIndex;
 
     /**
      * Минимальная длина выводимого значения кода Хаффмана .
@@ -52,48 +98,284 @@ public class HfmCharset implements Output {
      * Создает пустой набор символов кодировки Хаффмана.
      */
     public HfmCharset() {
-        this.hash = new LHash<>(AppConstants.HASH_SIZE);
-        this.root = null;
+        mode = HfmMode.CHAR;
+        setCanonicalCodes(new int[0], new int[0]);
     }
 
     /**
      * Создает новый набор символов кодировки Хаффмана заполненный на основе заданного дерева Хаффмана.
      * @param tree дерево Хаффмана.
+     * @param mode режим кодирования (алфавит символов).
+     */
+    public HfmCharset(HfmTree tree, HfmMode mode) {
+        this.mode = mode;
+        if(tree == null || tree.getHfmTreeRoot() == null) {
+            setCanonicalCodes(new int[0], new int[0]);
+            return;
+        }
+        // Длины кодов - глубины листьев дерева, вычисляемые без рекурсии в дереве из массивов
+        HfmFlatTree flatTree = new HfmFlatTree(tree);
+        setCanonicalCodes(flatTree.getSymbols(), flatTree.getCodeLengths());
+    }
+
+    /**
+     * Создает новый набор символов кодировки Хаффмана заполненный на основе заданного дерева Хаффмана (режим CHAR).
+     * @param tree дерево Хаффмана.
      */
     public HfmCharset(HfmTree tree) {
-        hash = new LHash<>(AppConstants.HASH_SIZE);
-        if(tree != null) {
-            root = tree.getHfmTreeRoot();
-            setCharset(root, "0");
+        this(tree, HfmMode.CHAR);
+    }
+
+    /**
+     * Создает новый набор символов кодировки Хаффмана на основе заданных длин кодов символов.
+     * @param symbols символы.
+     * @param lengths длины кодов символов.
+     * @param mode режим кодирования (алфавит символов).
+     * @throws IllegalArgumentException если символы или длины кодов некорректны (см. {@code setCanonicalCodes}).
+     */
+    public HfmCharset(int[] symbols, int[] lengths, HfmMode mode) {
+        this.mode = mode;
+        setCanonicalCodes(symbols, lengths);
+    }
+
+    /**
+     * Создает новый набор символов кодировки Хаффмана на основе длин кодов, ограниченных максимальной длиной.
+     * @param codeLengths длины кодов символов, сформированные алгоритмом Package-merge.
+     * @param mode режим кодирования (алфавит символов).
+     */
+    public HfmCharset(HfmPackageMerge codeLengths, HfmMode mode) {
+        this.mode = mode;
+        this.lengthLimit = codeLengths.getMaxLength();
+        setCanonicalCodes(codeLengths.getSymbols(), codeLengths.getLengths());
+    }
+
+    /**
+     * Назначает символам канонические коды Хаффмана по заданным длинам кодов.
+     * Символы упорядочиваются по возрастанию длины кода, а при равной длине - по возрастанию символа.
+     * Первый символ получает код из нулей, каждый следующий - код предыдущего символа плюс 1,
+     * сдвинутый влево на разность длин кодов.
+     * Символы должны быть различны и входить в алфавит режима кодирования, а длины кодов - удовлетворять
+     * неравенству Крафта (сумма 2^-длина не больше 1), иначе коды нельзя однозначно декодировать.
+     * @param symbolArray символы.
+     * @param lengthArray длины кодов символов (от 1 до 64).
+     * @throws IllegalArgumentException если символ вне алфавита или повторяется, или длины кодов некорректны.
+     */
+    private void setCanonicalCodes(int[] symbolArray, int[] lengthArray) {
+        int size = symbolArray.length;
+        int alphabetSize = getAlphabetSize(mode);
+        // Ключ сортировки: длина кода (старшие биты) и символ (младшие 21 бит)
+        long[] keys = new long[size];
+        for(int j = 0; j < size; ++j) {
+            if(lengthArray[j] < 1 || lengthArray[j] > 64) {
+                throw new IllegalArgumentException("Длина кода Хаффмана должна быть от 1 до 64 бит: " + lengthArray[j]);
+            }
+            if(symbolArray[j] < 0 || symbolArray[j] >= alphabetSize) {
+                throw new IllegalArgumentException("Символ вне алфавита режима " + mode + ": " + symbolArray[j]);
+            }
+            keys[j] = ((long) lengthArray[j] << 21) | symbolArray[j];
+        }
+        Arrays.sort(keys);
+        checkDistinct(symbolArray);
+        checkKraft(keys);
+
+        symbols = new int[size];
+        lengths = new int[size];
+        codes = new long[size];
+        hash = null;
+        minOffset = 0;
+        maxOffset = 0;
+        long code = 0;
+        int prevLength = size > 0 ? (int) (keys[0] >>> 21) : 0;
+        for(int j = 0; j < size; ++j) {
+            int length = (int) (keys[j] >>> 21);
+            code <<= length - prevLength;
+            prevLength = length;
+            symbols[j] = (int) (keys[j] & 0x1FFFFF);
+            lengths[j] = length;
+            codes[j] = code;
+            code++;
         }
+        if(size > 0) {
+            minOffset = lengths[0];
+            maxOffset = lengths[size - 1];
+        }
+        setSymbolCodes();
     }
 
     /**
-     * Рекурсивно формирует набор символов кодировки Хаффмана.
-     * Формирование начинается с корневого узла дерева Хаффмана.
-     * @param node текущий узел дерева.
-     * @param code текущий формируемый код Хаффмана.
+     * Проверяет, что символы не повторяются.
+     * @param symbolArray символы.
+     * @throws IllegalArgumentException если символ повторяется.
      */
-    public void setCharset(BSNode<Integer, String> node, String code) {
-        if(node == null) {
-            return;
+    private static void checkDistinct(int[] symbolArray) {
+        int[] sorted = symbolArray.clone();
+        Arrays.sort(sorted);
+        for(int j = 1; j < sorted.length; ++j) {
+            if(sorted[j] == sorted[j - 1]) {
+                throw new IllegalArgumentException("Символ набора кодировки Хаффмана повторяется: " + sorted[j]);
+            }
+        }
+    }
+
+    /**
+     * Проверяет неравенство Крафта для длин кодов, упорядоченных по возрастанию.
+     * Считается количество свободных кодов текущей длины: при переходе к следующей длине оно удваивается,
+     * каждый символ занимает один код. Количество ограничено числом символов, поэтому не переполняется при длине 64.
+     * @param keys ключи сортировки (длина кода в старших битах) по возрастанию.
+     * @throws IllegalArgumentException если сумма 2^-длина больше 1.
+     */
+    private static void checkKraft(long[] keys) {
+        long free = 1;
+        int length = 0;
+        for(long key : keys) {
+            for(; length < (int) (key >>> 21); ++length) {
+                free = Math.min(free * 2, keys.length);
+            }
+            if(--free < 0) {
+                throw new IllegalArgumentException("Длины кодов Хаффмана не удовлетворяют неравенству Крафта.");
+            }
+        }
+    }
+
+    /**
+     * Заполняет массивы кодов и длин кодов, индексируемые символом.
+     * Массивы покрывают символы от 0 до наибольшего символа плотного диапазона,
+     * символы вне плотного диапазона находятся через хеш-таблицу канонических индексов.
+     */
+    private void setSymbolCodes() {
+        int denseSize = 0;
+        for(int symbol : symbols) {
+            if(symbol < DENSE_CODE_SIZE) {
+                denseSize = Math.max(denseSize, symbol + 1);
+            }
+        }
+        symbolCodes = new long[denseSize];
+        symbolLengths = new byte[denseSize];
+        sparseIndex = null;
+        for(int j = 0; j < symbols.length; ++j) {
+            if(symbols[j] < DENSE_CODE_SIZE) {
+                symbolCodes[symbols[j]] = codes[j];
+                symbolLengths[symbols[j]] = (byte) lengths[j];
+            }
+            else {
+                if(sparseIndex == null) {
+                    sparseIndex = new IntLongHash();
+                }
+                sparseIndex.put(symbols[j], j + 1);
+            }
+        }
+    }
+
+    /**
+     * Получает канонический индекс символа вне плотного диапазона.
+     * @param symbol символ.
+     * @return канонический индекс символа.
+     */
+    private int getSparseIndex(int symbol) {
+        long index = sparseIndex != null && symbol >= 0 ? sparseIndex.get(symbol) - 1 : -1;
+        if(index < 0) {
+            throw new IllegalArgumentException("Символ " + symbol + " отсутствует в наборе кодировки Хаффмана.");
+        }
+        return (int) index;
+    }
+
+    /**
+     * Получает длину кода символа.
+     * @param symbol символ.
+     * @return длина кода символа.
+     */
+    public int getCodeLength(int symbol) {
+        if(symbol >= 0 && symbol < symbolLengths.length && symbolLengths[symbol] != 0) {
+            return symbolLengths[symbol];
+        }
+        return lengths[getSparseIndex(symbol)];
+    }
+
+    /**
+     * Получает код символа (младшие {@code getCodeLength(symbol)} бит).
+     * @param symbol символ.
+     * @return код символа.
+     */
+    public long getCode(int symbol) {
+        if(symbol >= 0 && symbol < symbolLengths.length && symbolLengths[symbol] != 0) {
+            return symbolCodes[symbol];
         }
-        // При переходе к левому потомку к формируемому коду добавить символ '0'
-        setCharset(node.getLeftChild(), code + "0");
+        return codes[getSparseIndex(symbol)];
+    }
 
-        if(!node.getIsMerge()) {
-            hash.put(node.getValue(), code);
+    /**
+     * Записывает коды Хаффмана заданных символов в битовый поток.
+     * Код и длина кода символа плотного диапазона получаются по индексу символа в массивах без хеширования.
+     * @param writer битовый поток записи.
+     * @param text символы.
+     * @param count количество символов.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    public void encode(HfmBitWriter writer, int[] text, int count) throws IOException {
+        long[] denseCodes = symbolCodes;
+        byte[] denseLengths = symbolLengths;
+        for(int j = 0; j < count; ++j) {
+            int symbol = text[j];
+            int length;
+            if(symbol >= 0 && symbol < denseLengths.length && (length = denseLengths[symbol]) != 0) {
+                writer.write(denseCodes[symbol], length);
+            }
+            else {
+                int index = getSparseIndex(symbol);
+                writer.write(codes[index], lengths[index]);
+            }
         }
+    }
 
-        // При переходе к правому потомку к формируемому коду добавить символ '1'
-        setCharset(node.getRightChild(), code + "1");
+    /**
+     * Преобразует код в строку из символов '0' и '1'.
+     * @param code биты кода.
+     * @param length длина кода.
+     * @return строка кода.
+     */
+    private static String toCodeString(long code, int length) {
+        StringBuilder str = new StringBuilder(length);
+        for(int j = length - 1; j >= 0; --j) {
+            str.append((code >>> j & 1) == 0 ? '0' : '1');
+        }
+        return str.toString();
+    }
+
+    /**
+     * Получает режим кодирования (алфавит символов) набора кодировки.
+     * @return режим кодирования.
+     */
+    public HfmMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Получает ограничение максимальной длины кода.
+     * @return максимальная длина кода или 0, если длина кода не ограничена.
+     */
+    public int getLengthLimit() {
+        return lengthLimit;
+    }
+
+    /**
+     * Получает символы набора кодировки в каноническом порядке (по возрастанию длины кода и символа).
+     * @return копия массива символов.
+     */
+    public int[] getSymbols() {
+        return symbols.clone();
     }
 
     /**
      * Получает кеш-таблицу с набором символов кодировки Хаффмана.
      * @return хеш-таблицу.
      */
-    public LHash<String, String> getHash() {
+    public OHash<String, String> getHash() {
+        if(hash == null) {
+            hash = new OHash<>(Math.max(symbols.length, 1));
+            for(int j = 0; j < symbols.length; ++j) {
+                hash.put(Character.toString(symbols[j]), toCodeString(codes[j], lengths[j]));
+            }
+        }
         return hash;
     }
 
@@ -114,42 +396,167 @@ public class HfmCharset implements Output {
     }
 
     /**
-     * Читает набор символов кодировки Хаффмана из файла.
+     * Получает точную длину кодированного текста в битах.
+     * @param freqTable частотная таблица символов кодируемого текста.
+     * @return длина кодированного текста в битах.
+     */
+    public long getEncodedBitLength(HfmHistogram freqTable) {
+        long bitLength = 0;
+        for (int symbol : freqTable.getSymbols()) {
+            bitLength += freqTable.get(symbol) * getCodeLength(symbol);
+        }
+        return bitLength;
+    }
+
+    /**
+     * Создает таблицу декодирования для набора символов кодировки Хаффмана.
+     * Если длина кода ограничена не больше {@code AppConstants.DECODE_TABLE_MAX_BITS} бит,
+     * то таблица декодирования одноуровневая (индекс первичной таблицы равен ограничению длины кода).
+     * @return таблица декодирования.
+     */
+    public HfmDecodeTable createDecodeTable() {
+        if(lengthLimit > 0 && lengthLimit <= AppConstants.DECODE_TABLE_MAX_BITS) {
+            return new HfmDecodeTable(symbols, codes, lengths, Math.max(lengthLimit, AppConstants.DECODE_TABLE_BITS));
+        }
+        return new HfmDecodeTable(symbols, codes, lengths);
+    }
+
+    /**
+     * Записывает набор символов кодировки Хаффмана в файл.
+     * @param fileName имя файла для записи набора символов кодировки Хаффмана.
+     * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода.
+     */
+    public void writeCharsetToFile(String fileName) throws IOException {
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(Path.of(fileName))))) {
+            write(out);
+        }
+    }
+
+    /**
+     * Записывает таблицу длин кодов символов в компактном двоичном виде:
+     *      код режима кодирования {@code HfmMode} (1 байт);
+     *      ограничение максимальной длины кода (1 байт, 0 - длина кода не ограничена);
+     *      максимальная длина кода L (1 байт);
+     *      количество символов для каждой длины кода от 1 до L (varint);
+     *      символы в каноническом порядке (varint кода символа).
+     * @param out выходной поток.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    public void write(DataOutputStream out) throws IOException {
+        int size = symbols.length;
+        out.writeByte(mode.getCode());
+        out.writeByte(lengthLimit);
+        out.writeByte(maxOffset);
+        int j = 0;
+        for(int length = 1; length <= maxOffset; ++length) {
+            int count = 0;
+            while(j < size && lengths[j] == length) {
+                count++;
+                j++;
+            }
+            writeVarInt(out, count);
+        }
+        for(int symbol : symbols) {
+            writeVarInt(out, symbol);
+        }
+    }
+
+    /**
+     * Читает набор символов кодировки Хаффмана из файла, отображенного в память.
      * @param fileName имя файла из которого читается набор символов кодировки Хаффмана.
-     * @param charset имя стандартной кодировки символов файла, например, StandardCharsets.UTF_8.
      * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода.
      */
-    public void readCharsetFromFile(String fileName, Charset charset) throws IOException {
-        Path path = FileSystems.getDefault().getPath("", fileName);
-        Scanner in = new Scanner(path, charset);
-        while(in.hasNext()) {
-            in.nextLine();
+    public void readCharsetFromFile(String fileName) throws IOException {
+        try(DataInputStream in = new DataInputStream(new MappedInput(Path.of(fileName)).asInputStream())) {
+            read(in);
         }
-        hash = new LHash<>(AppConstants.HASH_SIZE);
-        minOffset = 0;
-        maxOffset = 0;
-        in = new Scanner(Path.of(fileName));
-        while(in.hasNext()) {
-            String text = in.nextLine();
-            // пустой символ при декодировании считать символом новой строки
-            if(text.isEmpty()) {
-                // заменить его на символ новой строки, например, в формате Windows
-                text += AppConstants.WINDOWS_NEW_ROW + in.nextLine();
+    }
+
+    /**
+     * Читает таблицу длин кодов символов, записанную {@code write}, и восстанавливает по ней канонические коды.
+     * @param in входной поток.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода, или таблица некорректна.
+     */
+    public void read(DataInputStream in) throws IOException {
+        try {
+            mode = HfmMode.valueOf(in.readUnsignedByte());
+        }
+        catch(IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        int limit = in.readUnsignedByte();
+        int maxLength = in.readUnsignedByte();
+        if(maxLength > 64 || (limit > 0 && maxLength > limit)) {
+            throw new IOException("Некорректная максимальная длина кода Хаффмана: " + maxLength);
+        }
+        lengthLimit = limit;
+        int[] counts = new int[maxLength + 1];
+        int size = 0;
+        for(int length = 1; length <= maxLength; ++length) {
+            counts[length] = readVarInt(in);
+            if(counts[length] < 0 || counts[length] > getAlphabetSize(mode) - size) {
+                throw new IOException("Некорректное количество символов набора кодировки Хаффмана: " + counts[length]);
             }
-            String[] arr = text.split(AppConstants.FILE_KEY_DELIMITER_VALUE);
-            if(arr.length > 1) {
-                hash.put(arr[1], arr[0]);
-                if(minOffset == 0) {
-                    minOffset = arr[1].length();
-                }
-                if (arr[1].length() < minOffset) {
-                    minOffset = arr[1].length();
-                }
-                if(maxOffset < arr[1].length()) {
-                    maxOffset = arr[1].length();
-                }
+            size += counts[length];
+        }
+        int[] symbolArray = new int[size];
+        int[] lengthArray = new int[size];
+        int j = 0;
+        for(int length = 1; length <= maxLength; ++length) {
+            for(int k = 0; k < counts[length]; ++k) {
+                symbolArray[j] = readVarInt(in);
+                lengthArray[j] = length;
+                j++;
+            }
+        }
+        try {
+            setCanonicalCodes(symbolArray, lengthArray);
+        }
+        catch(IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Получает размер алфавита режима кодирования: наибольшее количество символов набора, а также граница их значений.
+     * В режиме BYTE к 256 байтам добавлены служебные символы {@code ESCAPE} и {@code END} обученной кодировки {@code HfmCodebook}.
+     * @param mode режим кодирования.
+     * @return размер алфавита.
+     */
+    static int getAlphabetSize(HfmMode mode) {
+        return mode == HfmMode.BYTE ? HfmCodebook.END + 1 : Character.MAX_CODE_POINT + 1;
+    }
+
+    /**
+     * Записывает неотрицательное целое число переменной длины (7 бит в байте, старший бит - признак продолжения).
+     * @param out выходной поток.
+     * @param value неотрицательное целое число.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Читает неотрицательное целое число переменной длины, записанное {@code writeVarInt}.
+     * @param in входной поток.
+     * @return целое число.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода.
+     */
+    static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for(int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if((b & 0x80) == 0) {
+                return value;
             }
         }
+        throw new IOException("Некорректное целое число переменной длины.");
     }
 
 
@@ -162,7 +569,7 @@ public class HfmCharset implements Output {
         String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
 
         out.print(header);
-        hash.display(out);
+        getHash().display(out);
         out.println(footer);
     }
 
@@ -178,14 +585,9 @@ public class HfmCharset implements Output {
         String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
 
         out.println(header);
-        for (int j = 0; j < hash.getSize(); ++j) {
-            if (hash.getHash()[j] != null) {
-                LNode<String, String> current = hash.getHash()[j].getFirst();
-                while (current != null) {
-                    out.println(current.getKey() + AppConstants.FILE_KEY_DELIMITER_VALUE + current.getValue());
-                    current = current.getNext();
-                }
-            }
+        for (int j = 0; j < symbols.length; ++j) {
+            out.println(Character.toString(symbols[j]).replace(AppConstants.UNIX_NEW_ROW, AppConstants.PRINT_NEW_ROW)
+                    + AppConstants.FILE_KEY_DELIMITER_VALUE + toCodeString(codes[j], lengths[j]));
         }
         out.println(footer);
     }
@@ -0,0 +1,349 @@
+package huffman;
+
+import utils.constants.AppConstants;
+import utils.output.Display;
+import utils.output.DualOutput;
+import utils.output.Output;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Кеш наборов кодировки Хаффмана с вытеснением давно не использованных (LRU charset cache).
+ * Набор кодировки находится по отпечатку частотной таблицы - хешу символов и их квантованных длин идеального кода
+ * {@code floor(log2(total / count)) + 1}, поэтому тексты с почти одинаковой частотностью символов имеют общий отпечаток.
+ * Найденный набор используется, если оценка его потерь не больше заданного порога:
+ *      потери = (длина текста в кодах набора / энтропия текста - 1) - избыточность набора для текста, по которому он построен,
+ * то есть рост избыточности относительно нового кода (для того же текста потери равны 0).
+ * Каждый набор получает идентификатор, по которому декодер получает набор и готовую таблицу декодирования
+ * из того же кеша без чтения файла кодировки и построения таблицы.
+ * Методы кеша синхронизированы, поэтому один кеш может использоваться несколькими процессами.
+ */
+public class HfmCharsetCache implements Output {
+    /**
+     * Наибольшее количество наборов кодировки в кеше.
+     */
+    private final int capacity;
+
+    /**
+     * Наибольшие допустимые потери найденного набора кодировки (доля длины кодированного текста).
+     */
+    private final double maxPenalty;
+
+    /**
+     * Записи кеша по идентификаторам в порядке использования (первая - давно не использованная).
+     */
+    private final LinkedHashMap<Integer, Entry> entries;
+
+    /**
+     * Идентификаторы последних записей по отпечаткам.
+     */
+    private final HashMap<Long, Integer> fingerprints;
+
+    /**
+     * Идентификатор следующей записи.
+     */
+    private int nextId;
+
+    /**
+     * Количество найденных и использованных наборов кодировки.
+     */
+    private long hits;
+
+    /**
+     * Количество отсутствующих отпечатков.
+     */
+    private long misses;
+
+    /**
+     * Количество найденных, но отклоненных наборов кодировки (потери больше порога или нет кода символа).
+     */
+    private long rejects;
+
+    /**
+     * Количество вытесненных записей.
+     */
+    private long evictions;
+
+    /**
+     * Интерфейс вывода в поток кеша наборов кодировки.
+     */
+    public final Display out = new Display(this::display, "<<< Кеш наборов кодировки Хаффмана: ", ">>>");
+
+    /**
+     * Запись кеша: набор кодировки, его отпечаток и избыточность для исходного текста.
+     */
+    private static final class Entry {
+        /**
+         * Идентификатор набора кодировки.
+         */
+        private final int id;
+
+        /**
+         * Отпечаток частотной таблицы.
+         */
+        private final long fingerprint;
+
+        /**
+         * Набор кодировки Хаффмана.
+         */
+        private final HfmCharset hfmCharset;
+
+        /**
+         * Избыточность набора для текста, по которому он построен (доля энтропии).
+         */
+        private final double redundancy;
+
+        /**
+         * Таблица декодирования (создается при первом запросе).
+         */
+        private HfmDecodeTable decodeTable;
+
+        /**
+         * Создает запись кеша.
+         * @param id идентификатор набора кодировки.
+         * @param fingerprint отпечаток частотной таблицы.
+         * @param hfmCharset набор кодировки Хаффмана.
+         * @param redundancy избыточность набора для исходного текста.
+         */
+        private Entry(int id, long fingerprint, HfmCharset hfmCharset, double redundancy) {
+            this.id = id;
+            this.fingerprint = fingerprint;
+            this.hfmCharset = hfmCharset;
+            this.redundancy = redundancy;
+        }
+    }
+
+    /**
+     * Создает кеш с емкостью и порогом потерь по умолчанию.
+     */
+    public HfmCharsetCache() {
+        this(AppConstants.CHARSET_CACHE_CAPACITY, AppConstants.CHARSET_CACHE_MAX_PENALTY);
+    }
+
+    /**
+     * Создает кеш.
+     * @param capacity наибольшее количество наборов кодировки.
+     * @param maxPenalty наибольшие допустимые потери найденного набора кодировки, например, 0.01 (1% длины текста).
+     */
+    public HfmCharsetCache(int capacity, double maxPenalty) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Емкость кеша должна быть больше 0.");
+        }
+        if (!(maxPenalty >= 0)) {
+            throw new IllegalArgumentException("Порог потерь не может быть отрицательным.");
+        }
+        this.capacity = capacity;
+        this.maxPenalty = maxPenalty;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.fingerprints = new HashMap<>();
+    }
+
+    /**
+     * Находит набор кодировки для частотной таблицы текста.
+     * @param freqTable частотная таблица символов текста.
+     * @param mode режим кодирования.
+     * @param lengthLimit ограничение максимальной длины кода (0 - длина кода не ограничена).
+     * @return идентификатор набора кодировки или -1, если подходящего набора нет.
+     */
+    public synchronized int find(HfmHistogram freqTable, HfmMode mode, int lengthLimit) {
+        Integer id = fingerprints.get(fingerprint(freqTable, mode, lengthLimit));
+        if (id == null) {
+            misses++;
+            return -1;
+        }
+        Entry entry = entries.get(id);
+        double penalty = getRedundancy(entry.hfmCharset, freqTable) - entry.redundancy;
+        if (!(penalty <= maxPenalty)) {
+            rejects++;
+            return -1;
+        }
+        hits++;
+        return entry.id;
+    }
+
+    /**
+     * Добавляет набор кодировки, построенный по частотной таблице текста.
+     * Если кеш заполнен, то вытесняется давно не использованный набор.
+     * @param freqTable частотная таблица символов текста.
+     * @param hfmCharset набор кодировки Хаффмана (не должен изменяться после добавления).
+     * @return идентификатор набора кодировки.
+     */
+    public synchronized int put(HfmHistogram freqTable, HfmCharset hfmCharset) {
+        long fingerprint = fingerprint(freqTable, hfmCharset.getMode(), hfmCharset.getLengthLimit());
+        Entry entry = new Entry(nextId++, fingerprint, hfmCharset, getRedundancy(hfmCharset, freqTable));
+        entries.put(entry.id, entry);
+        fingerprints.put(fingerprint, entry.id);
+        Iterator<Map.Entry<Integer, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > capacity) {
+            Entry eldest = it.next().getValue();
+            it.remove();
+            fingerprints.remove(eldest.fingerprint, eldest.id);
+            evictions++;
+        }
+        return entry.id;
+    }
+
+    /**
+     * Получает набор кодировки по идентификатору.
+     * @param id идентификатор набора кодировки.
+     * @return набор кодировки Хаффмана.
+     * @throws IllegalArgumentException если набор отсутствует в кеше (вытеснен).
+     */
+    public synchronized HfmCharset get(int id) {
+        return getEntry(id).hfmCharset;
+    }
+
+    /**
+     * Получает таблицу декодирования набора кодировки по идентификатору (таблица создается один раз).
+     * @param id идентификатор набора кодировки.
+     * @return таблица декодирования.
+     * @throws IllegalArgumentException если набор отсутствует в кеше (вытеснен).
+     */
+    public synchronized HfmDecodeTable getDecodeTable(int id) {
+        Entry entry = getEntry(id);
+        if (entry.decodeTable == null) {
+            entry.decodeTable = entry.hfmCharset.createDecodeTable();
+        }
+        return entry.decodeTable;
+    }
+
+    /**
+     * Получает запись кеша по идентификатору.
+     * @param id идентификатор набора кодировки.
+     * @return запись кеша.
+     */
+    private Entry getEntry(int id) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            throw new IllegalArgumentException("Набор кодировки " + id + " отсутствует в кеше.");
+        }
+        return entry;
+    }
+
+    /**
+     * Получает количество наборов кодировки в кеше.
+     * @return количество наборов.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Получает количество найденных и использованных наборов кодировки.
+     * @return количество попаданий.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Получает количество отсутствующих отпечатков.
+     * @return количество промахов.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Получает количество найденных, но отклоненных по потерям наборов кодировки.
+     * @return количество отклонений.
+     */
+    public synchronized long getRejects() {
+        return rejects;
+    }
+
+    /**
+     * Получает количество вытесненных наборов кодировки.
+     * @return количество вытеснений.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Получает долю использованных наборов среди всех поисков.
+     * @return доля попаданий (0, если поисков не было).
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses + rejects;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Вычисляет отпечаток частотной таблицы: хеш режима, ограничения длины кода, символов и их квантованных длин
+     * идеального кода.
+     * @param freqTable частотная таблица символов.
+     * @param mode режим кодирования.
+     * @param lengthLimit ограничение максимальной длины кода.
+     * @return отпечаток.
+     */
+    static long fingerprint(HfmHistogram freqTable, HfmMode mode, int lengthLimit) {
+        long total = freqTable.getTotal();
+        long hash = mix(((long) mode.getCode() << 8) | lengthLimit);
+        for (int symbol : freqTable.getSymbols()) {
+            int length = 64 - Long.numberOfLeadingZeros(total / freqTable.get(symbol));
+            hash = mix(hash ^ (((long) symbol << 7) | length));
+        }
+        return hash;
+    }
+
+    /**
+     * Перемешивает биты 64-битного значения (финализатор SplitMix64).
+     * @param value значение.
+     * @return перемешанное значение.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * Вычисляет избыточность набора кодировки для текста: длина текста в кодах набора, деленная на энтропию, минус 1.
+     * @param hfmCharset набор кодировки Хаффмана.
+     * @param freqTable частотная таблица символов текста.
+     * @return избыточность или {@code Double.POSITIVE_INFINITY}, если для символа текста нет кода.
+     */
+    private static double getRedundancy(HfmCharset hfmCharset, HfmHistogram freqTable) {
+        long total = freqTable.getTotal();
+        double bits = 0;
+        double entropy = 0;
+        for (int symbol : freqTable.getSymbols()) {
+            long count = freqTable.get(symbol);
+            int length;
+            try {
+                length = hfmCharset.getCodeLength(symbol);
+            }
+            catch (IllegalArgumentException e) {
+                return Double.POSITIVE_INFINITY;
+            }
+            bits += (double) count * length;
+            entropy += count * (Math.log((double) total / count) / Math.log(2));
+        }
+        // Текст из одного символа: энтропия равна 0, код символа - 1 бит
+        return entropy > 0 ? bits / entropy - 1 : bits / Math.max(total, 1) - 1;
+    }
+
+
+    // DISPLAY
+
+    @Override
+    public synchronized void display(DualOutput out) {
+        // Инициатор выводит свои верхнее и нижнее оформления сообщения и отключает их вывод в цепочке объектов.
+        String header = out.getHeader() != null ? out.getHeaderOnce() : this.out.getHeader();
+        String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
+
+        out.println(header);
+        out.println("Наборов: " + entries.size() + "/" + capacity + ", порог потерь: " + maxPenalty);
+        out.println("Попаданий: " + hits + ", промахов: " + misses + ", отклонений: " + rejects
+                + ", вытеснений: " + evictions + ", доля попаданий: " + String.format("%.3f", getHitRate()));
+        for (Entry entry : entries.values()) {
+            out.println(entry.id + ": " + entry.hfmCharset.getMode() + ", символов: " + entry.hfmCharset.getSymbols().length
+                    + ", избыточность: " + String.format("%.4f", entry.redundancy));
+        }
+        out.println(footer);
+    }
+}
@@ -0,0 +1,232 @@
+package huffman;
+
+import utils.constants.AppConstants;
+import utils.output.Display;
+import utils.output.DualOutput;
+import utils.output.Output;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Построение длин кодов Хаффмана по упорядоченным частотностям символов без построения дерева из узлов.
+ * Символы упорядочиваются по возрастанию частотности, затем длины кодов формируются за O(n) одним из способов:
+ *          {@code TWO_QUEUE} - две очереди FIFO (символы и объединенные узлы) в массивах примитивов;
+ *          {@code IN_PLACE} - алгоритм Моффата-Катаяйнена в массиве частотностей с O(1) дополнительной памяти.
+ * Длины кодов совпадают по суммарной длине закодированного текста с длинами кодов дерева Хаффмана.
+ */
+public class HfmCodeLengths implements Output {
+    /**
+     * Символы в порядке возрастания частотности.
+     */
+    private final int[] symbols;
+
+    /**
+     * Длины кодов символов.
+     */
+    private final int[] lengths;
+
+    /**
+     * Интерфейс вывода в поток длин кодов символов.
+     */
+    public final Display out = new Display(this::display, "<<< Длины кодов Хаффмана: ", ">>>");
+
+    /**
+     * Формирует длины кодов Хаффмана символов гистограммы заданным способом.
+     * @param histogram гистограмма символов.
+     * @param strategy способ построения длин кодов ({@code TWO_QUEUE} или {@code IN_PLACE}).
+     */
+    public HfmCodeLengths(HfmHistogram histogram, HfmTreeStrategy strategy) {
+        if(strategy != HfmTreeStrategy.TWO_QUEUE && strategy != HfmTreeStrategy.IN_PLACE) {
+            throw new IllegalArgumentException("Длины кодов без дерева формируются способами TWO_QUEUE и IN_PLACE: " + strategy);
+        }
+        int[] allSymbols = histogram.getSymbols();
+        int n = allSymbols.length;
+        this.symbols = new int[n];
+        this.lengths = new int[n];
+        long[] weights = new long[n];
+        sortByWeight(histogram, allSymbols, symbols, weights);
+
+        if(n == 1) {
+            // Единственный символ кодируется одним битом
+            lengths[0] = 1;
+        }
+        else if(n > 1) {
+            if(strategy == HfmTreeStrategy.TWO_QUEUE) {
+                createTwoQueueLengths(weights);
+            }
+            else {
+                createInPlaceLengths(weights);
+            }
+        }
+    }
+
+    /**
+     * Упорядочивает символы по возрастанию частотности.
+     * Если частотности и индексы символов помещаются в 63 бита, то сортируется массив примитивов
+     * с ключом "частотность (старшие биты) и индекс символа (младшие биты)", иначе - массив индексов с компаратором.
+     * @param histogram гистограмма символов.
+     * @param allSymbols символы гистограммы.
+     * @param sortedSymbols массив для символов в порядке возрастания частотности.
+     * @param sortedWeights массив для частотностей символов в порядке возрастания.
+     */
+    private static void sortByWeight(HfmHistogram histogram, int[] allSymbols, int[] sortedSymbols, long[] sortedWeights) {
+        int n = allSymbols.length;
+        long maxWeight = 0;
+        for(int j = 0; j < n; ++j) {
+            sortedWeights[j] = histogram.get(allSymbols[j]);
+            maxWeight = Math.max(maxWeight, sortedWeights[j]);
+        }
+        int indexBits = n > 1 ? 64 - Long.numberOfLeadingZeros(n - 1) : 1;
+        if(maxWeight < (1L << (63 - indexBits))) {
+            long[] keys = new long[n];
+            for(int j = 0; j < n; ++j) {
+                keys[j] = (sortedWeights[j] << indexBits) | j;
+            }
+            Arrays.sort(keys);
+            long indexMask = (1L << indexBits) - 1;
+            for(int j = 0; j < n; ++j) {
+                sortedSymbols[j] = allSymbols[(int) (keys[j] & indexMask)];
+                sortedWeights[j] = keys[j] >>> indexBits;
+            }
+            return;
+        }
+        Integer[] order = new Integer[n];
+        for(int j = 0; j < n; ++j) {
+            order[j] = j;
+        }
+        long[] weights = sortedWeights.clone();
+        Arrays.sort(order, Comparator.comparingLong(j -> weights[j]));
+        for(int j = 0; j < n; ++j) {
+            sortedSymbols[j] = allSymbols[order[j]];
+            sortedWeights[j] = weights[order[j]];
+        }
+    }
+
+    /**
+     * Формирует длины кодов двумя очередями FIFO.
+     * Узлы 0..n-1 - символы, узлы n..2n-2 - объединенные узлы в порядке их образования (и неубывания весов).
+     * На каждом шаге объединяются два наименьших начальных элемента двух очередей, при равенстве весов - символ.
+     * Длина кода символа - глубина его узла, вычисляемая по ссылкам на родителей от корня к символам.
+     * @param weights частотности символов в порядке возрастания.
+     */
+    private void createTwoQueueLengths(long[] weights) {
+        int n = weights.length;
+        long[] merged = new long[n - 1];
+        int[] parent = new int[2 * n - 1];
+        int leaf = 0;
+        int node = 0;
+        for(int next = 0; next < n - 1; ++next) {
+            long sum = 0;
+            for(int k = 0; k < 2; ++k) {
+                if(leaf < n && (node >= next || weights[leaf] <= merged[node])) {
+                    sum += weights[leaf];
+                    parent[leaf++] = n + next;
+                }
+                else {
+                    sum += merged[node];
+                    parent[n + node++] = n + next;
+                }
+            }
+            merged[next] = sum;
+        }
+        // Глубины узлов: родитель объединенного узла образован позже, поэтому обход от корня к символам
+        int[] depth = parent;
+        depth[2 * n - 2] = 0;
+        for(int j = 2 * n - 3; j >= 0; --j) {
+            depth[j] = depth[parent[j]] + 1;
+        }
+        System.arraycopy(depth, 0, lengths, 0, n);
+    }
+
+    /**
+     * Формирует длины кодов на месте алгоритмом Моффата-Катаяйнена.
+     * 1. Массив частотностей заменяется весами объединенных узлов и ссылками на их родителей.
+     * 2. Ссылки на родителей заменяются глубинами объединенных узлов.
+     * 3. Глубины объединенных узлов заменяются длинами кодов символов (по количеству листьев каждого уровня).
+     * @param weights частотности символов в порядке возрастания (массив используется как рабочий).
+     */
+    private void createInPlaceLengths(long[] weights) {
+        int n = weights.length;
+        long[] a = weights;
+        // 1. Веса объединенных узлов и ссылки на родителей
+        a[0] += a[1];
+        int root = 0;
+        int leaf = 2;
+        for(int next = 1; next < n - 1; ++next) {
+            // Первый потомок: объединенный узел или символ
+            if(leaf >= n || a[root] < a[leaf]) {
+                a[next] = a[root];
+                a[root++] = next;
+            }
+            else {
+                a[next] = a[leaf++];
+            }
+            // Второй потомок: объединенный узел или символ
+            if(leaf >= n || (root < next && a[root] < a[leaf])) {
+                a[next] += a[root];
+                a[root++] = next;
+            }
+            else {
+                a[next] += a[leaf++];
+            }
+        }
+        // 2. Глубины объединенных узлов
+        a[n - 2] = 0;
+        for(int next = n - 3; next >= 0; --next) {
+            a[next] = a[(int) a[next]] + 1;
+        }
+        // 3. Длины кодов символов: на каждом уровне свободные узлы, не занятые объединенными, становятся листьями
+        int available = 1;
+        int used = 0;
+        int depth = 0;
+        root = n - 2;
+        int next = n - 1;
+        while(available > 0) {
+            while(root >= 0 && a[root] == depth) {
+                used++;
+                root--;
+            }
+            while(available > used) {
+                lengths[next--] = depth;
+                available--;
+            }
+            available = 2 * used;
+            depth++;
+            used = 0;
+        }
+    }
+
+    /**
+     * Получает символы в порядке возрастания частотности.
+     * @return массив символов.
+     */
+    public int[] getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * Получает длины кодов символов (в порядке {@code getSymbols}).
+     * @return массив длин кодов.
+     */
+    public int[] getLengths() {
+        return lengths;
+    }
+
+
+    // DISPLAY
+
+    @Override
+    public void display(DualOutput out) {
+        // Инициатор выводит свои верхнее и нижнее оформления сообщения и отключает их вывод в цепочке объектов.
+        String header = out.getHeader() != null ? out.getHeaderOnce() : this.out.getHeader();
+        String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
+
+        out.print(header);
+        for(int j = 0; j < symbols.length; ++j) {
+            out.print(Character.toString(symbols[j]).replace(AppConstants.UNIX_NEW_ROW, AppConstants.PRINT_NEW_ROW)
+                    + "/" + lengths[j] + " ");
+        }
+        out.println(footer);
+    }
+}
@@ -0,0 +1,501 @@
+package huffman;
+
+import utils.constants.AppConstants;
+import utils.input.MappedInput;
+import utils.output.Display;
+import utils.output.DualOutput;
+import utils.output.Output;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Обученная статическая кодировка Хаффмана для коротких сообщений (Pre-trained codebook).
+ * Набор кодировки строится один раз по корпусу сообщений, сохраняется с идентификатором и затем используется
+ * для кодирования и декодирования любого количества сообщений без заголовка сообщения и без построения дерева.
+ * Алфавит - байты, встретившиеся при обучении, и два служебных символа:
+ *      {@code ESCAPE} - за его кодом следуют 8 бит байта, не встречавшегося при обучении;
+ *      {@code END} - конец сообщения (биты за ним до границы байта равны нулю).
+ * Длина кода ограничена {@code AppConstants.DECODE_TABLE_MAX_BITS} бит, поэтому декодирование выполняется
+ * по одноуровневой таблице, а кодирование и декодирование сообщения не создают объектов, кроме результата
+ * (короткое сообщение декодируется в буфер потока выполнения, длинное - после подсчета его длины).
+ * Формат файла: сигнатура {@code MAGIC} (int), версия {@code VERSION} (1 байт), идентификатор (int),
+ * набор кодировки ({@code HfmCharset.write}), контрольная сумма CRC32C предыдущих байтов (int).
+ */
+public class HfmCodebook implements Output {
+    /**
+     * Сигнатура файла обученной кодировки ("HFMC").
+     */
+    public static final int MAGIC = 0x48464D43;
+
+    /**
+     * Версия формата файла обученной кодировки.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Служебный символ байта, не встречавшегося при обучении.
+     */
+    public static final int ESCAPE = 256;
+
+    /**
+     * Служебный символ конца сообщения.
+     */
+    public static final int END = 257;
+
+    /**
+     * Количество символов алфавита (байты и служебные символы).
+     */
+    private static final int ALPHABET_SIZE = END + 1;
+
+    /**
+     * Буфер декодирования сообщений потока выполнения: сообщение декодируется в него и копируется в результат,
+     * поэтому обученная кодировка может использоваться несколькими потоками.
+     */
+    private static final ThreadLocal<byte[]> DECODE_BUFFER =
+            ThreadLocal.withInitial(() -> new byte[AppConstants.CHUNK_SIZE]);
+
+    /**
+     * Идентификатор обученной кодировки.
+     */
+    private final int id;
+
+    /**
+     * Набор кодировки Хаффмана.
+     */
+    private final HfmCharset hfmCharset;
+
+    /**
+     * Коды символов, индексируемые символом.
+     */
+    private final long[] codes;
+
+    /**
+     * Длины кодов символов, индексируемые символом (0 - символ отсутствует).
+     */
+    private final int[] lengths;
+
+    /**
+     * Максимальная длина кода (количество бит индекса таблицы декодирования).
+     */
+    private final int maxLength;
+
+    /**
+     * Минимальная длина кода.
+     */
+    private final int minLength;
+
+    /**
+     * Таблица декодирования: элемент - символ (старшие биты) и длина кода (младшие 8 бит), 0 - некорректный код.
+     */
+    private final int[] table;
+
+    /**
+     * Интерфейс вывода в поток обученной кодировки.
+     */
+    public final Display out = new Display(this::display, "<<< Обученная кодировка Хаффмана: ", ">>>");
+
+    /**
+     * Создает обученную кодировку по набору кодировки Хаффмана.
+     * @param id идентификатор кодировки.
+     * @param hfmCharset набор кодировки в режиме BYTE, содержащий символы {@code ESCAPE} и {@code END},
+     *                   с длиной кода не больше {@code AppConstants.DECODE_TABLE_MAX_BITS} бит.
+     */
+    public HfmCodebook(int id, HfmCharset hfmCharset) {
+        if (hfmCharset.getMode() != HfmMode.BYTE) {
+            throw new IllegalArgumentException("Обученная кодировка должна быть в режиме BYTE.");
+        }
+        int[] symbols = hfmCharset.getSymbols();
+        this.id = id;
+        this.hfmCharset = hfmCharset;
+        this.codes = new long[ALPHABET_SIZE];
+        this.lengths = new int[ALPHABET_SIZE];
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (int symbol : symbols) {
+            if (symbol < 0 || symbol >= ALPHABET_SIZE) {
+                throw new IllegalArgumentException("Символ " + symbol + " вне алфавита обученной кодировки.");
+            }
+            codes[symbol] = hfmCharset.getCode(symbol);
+            lengths[symbol] = hfmCharset.getCodeLength(symbol);
+            min = Math.min(min, lengths[symbol]);
+            max = Math.max(max, lengths[symbol]);
+        }
+        if (lengths[ESCAPE] == 0 || lengths[END] == 0) {
+            throw new IllegalArgumentException("Обученная кодировка должна содержать символы ESCAPE и END.");
+        }
+        if (max > AppConstants.DECODE_TABLE_MAX_BITS) {
+            throw new IllegalArgumentException("Длина кода обученной кодировки должна быть не больше "
+                    + AppConstants.DECODE_TABLE_MAX_BITS + " бит.");
+        }
+        this.minLength = min;
+        this.maxLength = max;
+        this.table = new int[1 << max];
+        for (int symbol : symbols) {
+            int shift = max - lengths[symbol];
+            int first = (int) codes[symbol] << shift;
+            Arrays.fill(table, first, first + (1 << shift), symbol << 8 | lengths[symbol]);
+        }
+    }
+
+    /**
+     * Обучает кодировку по корпусу сообщений.
+     * @param id идентификатор кодировки.
+     * @param messages сообщения корпуса.
+     * @return обученная кодировка.
+     */
+    public static HfmCodebook train(int id, Iterable<byte[]> messages) {
+        HfmHistogram histogram = HfmMode.BYTE.newHistogram();
+        long messageCount = 0;
+        for (byte[] message : messages) {
+            for (byte b : message) {
+                histogram.inc(b & 0xFF);
+            }
+            messageCount++;
+        }
+        return train(id, histogram, messageCount);
+    }
+
+    /**
+     * Обучает кодировку по частотности байтов корпуса.
+     * Вес символа {@code END} равен количеству сообщений, вес символа {@code ESCAPE} - 1
+     * (байты, не встречавшиеся при обучении, редки и получают длинный код).
+     * @param id идентификатор кодировки.
+     * @param histogram гистограмма байтов корпуса.
+     * @param messageCount количество сообщений корпуса.
+     * @return обученная кодировка.
+     */
+    public static HfmCodebook train(int id, HfmHistogram histogram, long messageCount) {
+        HfmHistogram trained = HfmMode.BYTE.newHistogram();
+        for (int symbol : histogram.getSymbols()) {
+            if (symbol >= ESCAPE) {
+                throw new IllegalArgumentException("Символ " + symbol + " не является байтом.");
+            }
+            trained.add(symbol, histogram.get(symbol));
+        }
+        trained.add(ESCAPE, 1);
+        trained.add(END, Math.max(1, messageCount));
+        HfmPackageMerge codeLengths = new HfmPackageMerge(trained, AppConstants.DECODE_TABLE_MAX_BITS);
+        return new HfmCodebook(id, new HfmCharset(codeLengths, HfmMode.BYTE));
+    }
+
+    /**
+     * Получает идентификатор кодировки.
+     * @return идентификатор.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Получает набор кодировки Хаффмана.
+     * @return набор кодировки.
+     */
+    public HfmCharset getHfmCharset() {
+        return hfmCharset;
+    }
+
+    /**
+     * Получает длину кодированного сообщения в байтах.
+     * @param message массив байтов сообщения.
+     * @param off начало сообщения.
+     * @param len длина сообщения.
+     * @return длина кодированного сообщения.
+     */
+    public int getEncodedLength(byte[] message, int off, int len) {
+        Objects.checkFromIndexSize(off, len, message.length);
+        long bits = lengths[END];
+        int escapeLength = lengths[ESCAPE] + 8;
+        for (int end = off + len; off < end; ++off) {
+            int length = lengths[message[off] & 0xFF];
+            bits += length != 0 ? length : escapeLength;
+        }
+        long bytes = (bits + 7) >>> 3;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Кодированное сообщение длиннее 2 ГБ.");
+        }
+        return (int) bytes;
+    }
+
+    /**
+     * Кодирует сообщение.
+     * @param message сообщение.
+     * @return кодированное сообщение.
+     */
+    public byte[] encode(byte[] message) {
+        byte[] encoded = new byte[getEncodedLength(message, 0, message.length)];
+        encodeTo(message, 0, message.length, encoded, 0);
+        return encoded;
+    }
+
+    /**
+     * Получает наибольшую длину кодированного сообщения в байтах для заданной длины сообщения
+     * (каждый байт кодируется самым длинным кодом или через {@code ESCAPE}).
+     * @param len длина сообщения.
+     * @return наибольшая длина кодированного сообщения.
+     */
+    public int getMaxEncodedLength(int len) {
+        long bits = (long) len * Math.max(maxLength, lengths[ESCAPE] + 8) + lengths[END];
+        return (int) Math.min(Integer.MAX_VALUE, (bits + 7) >>> 3);
+    }
+
+    /**
+     * Кодирует сообщение в заданный массив.
+     * @param message массив байтов сообщения.
+     * @param off начало сообщения.
+     * @param len длина сообщения.
+     * Точная длина кодированного сообщения вычисляется для проверки границ, только если массив меньше
+     * {@code getMaxEncodedLength} байтов от {@code dstOff}.
+     * @param dst массив кодированного сообщения (не меньше {@code getEncodedLength} байтов от {@code dstOff}).
+     * @param dstOff начало кодированного сообщения.
+     * @return длина кодированного сообщения в байтах.
+     */
+    public int encode(byte[] message, int off, int len, byte[] dst, int dstOff) {
+        Objects.checkFromIndexSize(off, len, message.length);
+        Objects.checkFromIndexSize(dstOff, 0, dst.length);
+        if (dst.length - dstOff < getMaxEncodedLength(len)) {
+            Objects.checkFromIndexSize(dstOff, getEncodedLength(message, off, len), dst.length);
+        }
+        return encodeTo(message, off, len, dst, dstOff);
+    }
+
+    /**
+     * Кодирует сообщение в заданный массив без проверки границ (размер массива проверен вызывающим методом).
+     * @param message массив байтов сообщения.
+     * @param off начало сообщения.
+     * @param len длина сообщения.
+     * @param dst массив кодированного сообщения.
+     * @param dstOff начало кодированного сообщения.
+     * @return длина кодированного сообщения в байтах.
+     */
+    private int encodeTo(byte[] message, int off, int len, byte[] dst, int dstOff) {
+        int pos = dstOff;
+        // Длина кода с байтом после ESCAPE не больше 20 бит, поэтому аккумулятор не переполняется
+        long acc = 0;
+        int accBits = 0;
+        for (int end = off + len; off < end; ++off) {
+            int symbol = message[off] & 0xFF;
+            int length = lengths[symbol];
+            if (length != 0) {
+                acc = (acc << length) | codes[symbol];
+                accBits += length;
+            }
+            else {
+                acc = (acc << (lengths[ESCAPE] + 8)) | (codes[ESCAPE] << 8) | symbol;
+                accBits += lengths[ESCAPE] + 8;
+            }
+            while (accBits >= 8) {
+                accBits -= 8;
+                dst[pos++] = (byte) (acc >>> accBits);
+            }
+        }
+        acc = (acc << lengths[END]) | codes[END];
+        accBits += lengths[END];
+        while (accBits >= 8) {
+            accBits -= 8;
+            dst[pos++] = (byte) (acc >>> accBits);
+        }
+        if (accBits > 0) {
+            dst[pos++] = (byte) (acc << (8 - accBits));
+        }
+        return pos - dstOff;
+    }
+
+    /**
+     * Получает наибольшую длину декодированного сообщения для заданной длины кодированного сообщения.
+     * @param encodedLength длина кодированного сообщения в байтах.
+     * @return наибольшая длина декодированного сообщения.
+     */
+    public int getMaxDecodedLength(int encodedLength) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) encodedLength * 8 / minLength);
+    }
+
+    /**
+     * Декодирует сообщение.
+     * @param encoded кодированное сообщение.
+     * @return сообщение.
+     * @throws IOException если кодированное сообщение некорректно.
+     */
+    public byte[] decode(byte[] encoded) throws IOException {
+        if (getMaxDecodedLength(encoded.length) <= AppConstants.CHUNK_SIZE) {
+            byte[] buffer = DECODE_BUFFER.get();
+            return Arrays.copyOf(buffer, decodeTo(encoded, 0, encoded.length, buffer, 0));
+        }
+        // Длинное сообщение: подсчитать байты, затем декодировать в массив точного размера
+        byte[] message = new byte[decodeTo(encoded, 0, encoded.length, null, 0)];
+        decodeTo(encoded, 0, encoded.length, message, 0);
+        return message;
+    }
+
+    /**
+     * Декодирует сообщение в заданный массив.
+     * @param encoded массив кодированного сообщения.
+     * @param off начало кодированного сообщения.
+     * @param len длина кодированного сообщения.
+     * @param dst массив сообщения.
+     * @param dstOff начало сообщения.
+     * @return длина сообщения.
+     * @throws IOException если кодированное сообщение некорректно или не помещается в заданный массив.
+     */
+    public int decode(byte[] encoded, int off, int len, byte[] dst, int dstOff) throws IOException {
+        Objects.checkFromIndexSize(off, len, encoded.length);
+        Objects.checkFromIndexSize(dstOff, 0, dst.length);
+        return decodeTo(encoded, off, len, dst, dstOff);
+    }
+
+    /**
+     * Декодирует сообщение в заданный массив или подсчитывает его длину.
+     * @param encoded массив кодированного сообщения.
+     * @param off начало кодированного сообщения.
+     * @param len длина кодированного сообщения.
+     * @param dst массив сообщения ({@code null} - только подсчет длины сообщения).
+     * @param dstOff начало сообщения.
+     * @return длина сообщения.
+     * @throws IOException если кодированное сообщение некорректно или не помещается в заданный массив.
+     */
+    private int decodeTo(byte[] encoded, int off, int len, byte[] dst, int dstOff) throws IOException {
+        int end = off + len;
+        int pos = dstOff;
+        long mask = (1L << maxLength) - 1;
+        long acc = 0;
+        int accBits = 0;
+        while (true) {
+            while (accBits <= 56 && off < end) {
+                acc = (acc << 8) | (encoded[off++] & 0xFF);
+                accBits += 8;
+            }
+            int index = (int) ((accBits >= maxLength ? acc >>> (accBits - maxLength) : acc << (maxLength - accBits)) & mask);
+            int entry = table[index];
+            int length = entry & 0xFF;
+            if (length == 0 || length > accBits) {
+                throw new IOException("Некорректный код или неожиданный конец сообщения обученной кодировки " + id + ".");
+            }
+            accBits -= length;
+            int symbol = entry >>> 8;
+            if (symbol == END) {
+                if (off != end || accBits >= 8 || (acc & ((1L << accBits) - 1)) != 0) {
+                    throw new IOException("Данные за концом сообщения обученной кодировки " + id + ".");
+                }
+                return pos - dstOff;
+            }
+            if (symbol == ESCAPE) {
+                if (accBits < 8) {
+                    throw new IOException("Неожиданный конец сообщения обученной кодировки " + id + ".");
+                }
+                accBits -= 8;
+                symbol = (int) (acc >>> accBits) & 0xFF;
+            }
+            if (dst != null) {
+                if (pos == dst.length) {
+                    throw new IOException("Сообщение не помещается в заданный массив.");
+                }
+                dst[pos] = (byte) symbol;
+            }
+            pos++;
+        }
+    }
+
+    /**
+     * Записывает обученную кодировку в файл.
+     * @param fileName имя файла.
+     * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода.
+     */
+    public void writeCodebookToFile(String fileName) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(Path.of(fileName))))) {
+            write(out);
+        }
+    }
+
+    /**
+     * Записывает обученную кодировку с контрольной суммой.
+     * @param out выходной поток.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    public void write(DataOutputStream out) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeInt(id);
+        hfmCharset.write(data);
+        CRC32C crc = new CRC32C();
+        crc.update(bytes.toByteArray());
+        data.writeInt((int) crc.getValue());
+        bytes.writeTo(out);
+    }
+
+    /**
+     * Читает обученную кодировку из файла, отображенного в память.
+     * @param fileName имя файла.
+     * @return обученная кодировка.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода, или файл некорректен.
+     */
+    public static HfmCodebook readCodebookFromFile(String fileName) throws IOException {
+        try (InputStream in = new MappedInput(Path.of(fileName)).asInputStream()) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Читает обученную кодировку и проверяет ее сигнатуру, версию и контрольную сумму.
+     * @param in входной поток.
+     * @return обученная кодировка.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода, или данные некорректны.
+     */
+    public static HfmCodebook read(InputStream in) throws IOException {
+        CheckedInputStream checked = new CheckedInputStream(in, new CRC32C());
+        DataInputStream data = new DataInputStream(checked);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Поток не содержит обученную кодировку Хаффмана.");
+        }
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Неподдерживаемая версия обученной кодировки Хаффмана: " + version);
+        }
+        int id = data.readInt();
+        HfmCharset hfmCharset = new HfmCharset();
+        hfmCharset.read(data);
+        int checksum = (int) checked.getChecksum().getValue();
+        if (new DataInputStream(in).readInt() != checksum) {
+            throw new IOException("Контрольная сумма обученной кодировки Хаффмана не совпадает.");
+        }
+        try {
+            return new HfmCodebook(id, hfmCharset);
+        }
+        catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+
+    // DISPLAY
+
+    @Override
+    public void display(DualOutput out) {
+        // Инициатор выводит свои верхнее и нижнее оформления сообщения и отключает их вывод в цепочке объектов.
+        String header = out.getHeader() != null ? out.getHeaderOnce() : this.out.getHeader();
+        String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
+
+        out.println(header);
+        out.println("Идентификатор: " + id + ", длина кода: " + minLength + ".." + maxLength);
+        for (int symbol : hfmCharset.getSymbols()) {
+            StringBuilder code = new StringBuilder(lengths[symbol]);
+            for (int j = lengths[symbol] - 1; j >= 0; --j) {
+                code.append((codes[symbol] >>> j & 1) == 0 ? '0' : '1');
+            }
+            String name = symbol == ESCAPE ? "ESCAPE" : symbol == END ? "END" : String.valueOf(symbol);
+            out.println(name + AppConstants.FILE_KEY_DELIMITER_VALUE + code);
+        }
+        out.println(footer);
+    }
+}
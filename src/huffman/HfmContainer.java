@@ -0,0 +1,248 @@
+package huffman;
+
+import utils.constants.AppConstants;
+import utils.output.Display;
+import utils.output.DualOutput;
+import utils.output.Output;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.zip.CRC32C;
+
+/**
+ * Заголовок файла-контейнера кодированного текста {@code .hfm} (Huffman container).
+ * Контейнер объединяет в одном файле набор кодировки Хаффмана и кодированный текст, поэтому декодер не зависит
+ * от имен файлов и не может получить набор кодировки другого текста.
+ * Формат заголовка:
+ *      сигнатура {@code MAGIC} (4 байта) и версия формата {@code VERSION} (1 байт);
+ *      длина тела заголовка в байтах (int) - тело читается в буфер и проверяется контрольной суммой до разбора;
+ *      имя кодировки символов текста ({@code writeUTF}, пустая строка в режиме BYTE);
+ *      набор кодировки Хаффмана {@code HfmCharset.write}: режим кодирования, ограничение и длины кодов, алфавит;
+ *      количество символов исходного текста (long) и точная длина кодированного текста в битах (long);
+ *      индекс блоков {@code HfmBlockIndex} с контрольной суммой CRC32C байтов каждого блока;
+ *      контрольная сумма CRC32C всех предыдущих байтов заголовка (int).
+ * За заголовком следуют блоки кодированного текста, каждый с границы байта.
+ * Размер заголовка определяется количеством блоков, поэтому при кодировании заголовок записывается в начало файла
+ * заранее и перезаписывается на своем месте после записи блоков.
+ */
+public class HfmContainer implements Output {
+    /**
+     * Сигнатура файла-контейнера ("HFM" и 0x1A).
+     */
+    public static final int MAGIC = 0x48464D1A;
+
+    /**
+     * Версия формата файла-контейнера.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Размер начала заголовка до его тела (в байтах): сигнатура, версия и длина тела.
+     */
+    private static final int PREFIX_SIZE = Integer.BYTES + 1 + Integer.BYTES;
+
+    /**
+     * Набор кодировки Хаффмана.
+     */
+    private final HfmCharset hfmCharset;
+
+    /**
+     * Кодировка символов текста ({@code null} в режиме BYTE).
+     */
+    private final Charset charset;
+
+    /**
+     * Количество символов исходного текста.
+     */
+    private final long sourceLength;
+
+    /**
+     * Индекс блоков кодированного текста.
+     */
+    private final HfmBlockIndex index;
+
+    /**
+     * Интерфейс вывода в поток заголовка контейнера.
+     */
+    public final Display out = new Display(this::display, "<<< Контейнер Хаффмана: ", ">>>");
+
+    /**
+     * Создает заголовок контейнера.
+     * @param hfmCharset набор кодировки Хаффмана.
+     * @param charset кодировка символов текста (не используется в режиме BYTE).
+     * @param sourceLength количество символов исходного текста.
+     * @param index индекс блоков кодированного текста.
+     */
+    public HfmContainer(HfmCharset hfmCharset, Charset charset, long sourceLength, HfmBlockIndex index) {
+        if (hfmCharset.getMode() == HfmMode.CHAR && charset == null) {
+            throw new IllegalArgumentException("Кодировка символов текста не задана.");
+        }
+        this.hfmCharset = hfmCharset;
+        this.charset = hfmCharset.getMode() == HfmMode.BYTE ? null : charset;
+        this.sourceLength = sourceLength;
+        this.index = index;
+    }
+
+    /**
+     * Получает набор кодировки Хаффмана.
+     * @return набор кодировки Хаффмана.
+     */
+    public HfmCharset getHfmCharset() {
+        return hfmCharset;
+    }
+
+    /**
+     * Получает кодировку символов текста.
+     * @return кодировка символов или {@code null} в режиме BYTE.
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Получает количество символов исходного текста.
+     * @return количество символов.
+     */
+    public long getSourceLength() {
+        return sourceLength;
+    }
+
+    /**
+     * Получает индекс блоков кодированного текста.
+     * @return индекс блоков.
+     */
+    public HfmBlockIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Получает точную длину кодированного текста в битах (сумма длин блоков без битов дополнения).
+     * @return длина в битах.
+     */
+    public long getBitLength() {
+        long bitLength = 0;
+        for (int j = 0; j < index.getBlockCount(); ++j) {
+            bitLength += index.getBitLength(j);
+        }
+        return bitLength;
+    }
+
+    /**
+     * Записывает заголовок контейнера в массив байтов.
+     * Размер массива зависит только от набора кодировки и количества блоков, но не от их содержимого.
+     * @return байты заголовка.
+     */
+    public byte[] toByteArray() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            DataOutputStream bodyOut = new DataOutputStream(body);
+            bodyOut.writeUTF(charset == null ? "" : charset.name());
+            hfmCharset.write(bodyOut);
+            bodyOut.writeLong(sourceLength);
+            bodyOut.writeLong(getBitLength());
+            index.write(bodyOut, true);
+
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(body.size());
+            body.writeTo(out);
+            CRC32C crc = new CRC32C();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+        }
+        catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Читает заголовок контейнера и проверяет его сигнатуру, версию и контрольную сумму.
+     * Тело заголовка читается в буфер по записанной длине (не больше {@code AppConstants.CONTAINER_MAX_HEADER_SIZE})
+     * и разбирается только после проверки контрольной суммы, поэтому поврежденный заголовок не приводит
+     * к созданию массивов по искаженным количествам.
+     * Поток читается без опережения, поэтому после чтения он установлен на начало первого блока.
+     * @param in входной поток.
+     * @return заголовок контейнера.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода, или заголовок некорректен.
+     */
+    public static HfmContainer read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        int magic = data.readInt();
+        if (magic != MAGIC) {
+            throw new IOException("Файл не является контейнером Хаффмана.");
+        }
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Неподдерживаемая версия контейнера Хаффмана: " + version);
+        }
+        int bodySize = data.readInt();
+        if (bodySize < 0 || bodySize > AppConstants.CONTAINER_MAX_HEADER_SIZE) {
+            throw new IOException("Некорректная длина заголовка контейнера Хаффмана: " + bodySize);
+        }
+        // Буфер растет по мере чтения, поэтому искаженная длина не выделяет память сверх размера файла
+        byte[] body = in.readNBytes(bodySize);
+        if (body.length != bodySize) {
+            throw new EOFException("Заголовок контейнера Хаффмана обрезан.");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(PREFIX_SIZE).putInt(magic).put((byte) version).putInt(bodySize).flip());
+        crc.update(body);
+        if (data.readInt() != (int) crc.getValue()) {
+            throw new IOException("Контрольная сумма заголовка контейнера Хаффмана не совпадает.");
+        }
+
+        DataInputStream bodyIn = new DataInputStream(new ByteArrayInputStream(body));
+        String charsetName = bodyIn.readUTF();
+        HfmCharset hfmCharset = new HfmCharset();
+        hfmCharset.read(bodyIn);
+        long sourceLength = bodyIn.readLong();
+        long bitLength = bodyIn.readLong();
+        HfmBlockIndex index = HfmBlockIndex.read(bodyIn, true, bodyIn.available());
+        if (bodyIn.available() != 0) {
+            throw new IOException("Длина заголовка контейнера Хаффмана не совпадает с его содержимым.");
+        }
+        Charset charset = null;
+        if (hfmCharset.getMode() == HfmMode.CHAR) {
+            try {
+                charset = Charset.forName(charsetName);
+            }
+            catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+                throw new IOException("Неизвестная кодировка символов контейнера Хаффмана: " + charsetName, e);
+            }
+        }
+        HfmContainer container = new HfmContainer(hfmCharset, charset, sourceLength, index);
+        if (container.getBitLength() != bitLength) {
+            throw new IOException("Длина кодированного текста не совпадает с индексом блоков.");
+        }
+        return container;
+    }
+
+
+    // DISPLAY
+
+    @Override
+    public void display(DualOutput out) {
+        // Инициатор выводит свои верхнее и нижнее оформления сообщения и отключает их вывод в цепочке объектов.
+        String header = out.getHeader() != null ? out.getHeaderOnce() : this.out.getHeader();
+        String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
+
+        out.println(header);
+        out.println("Версия: " + VERSION + ", режим: " + hfmCharset.getMode()
+                + (charset != null ? ", кодировка: " + charset.name() : ""));
+        out.println("Символов: " + sourceLength + ", бит: " + getBitLength() + ", блоков: " + index.getBlockCount());
+        index.display(out);
+        out.println(footer);
+    }
+}
@@ -0,0 +1,250 @@
+package huffman;
+
+import utils.constants.AppConstants;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Таблица декодирования Хаффмана (Huffman decode table).
+ * Декодирование выполняется по следующим N битам кодированного текста через предварительно рассчитанные таблицы:
+ *      - первичная таблица на 2^N элементов для кодов длиной не больше N бит;
+ *      - вторичные таблицы для длинных кодов (ссылки на них хранятся в первичной таблице).
+ * Элемент первичной таблицы может содержать сразу два символа, если их коды вместе умещаются в N бит.
+ * Все таблицы хранятся в одном массиве {@code long}, поэтому декодирование символа не создает новых объектов.
+ * Формат элемента таблицы:
+ *      биты 0-5 - количество прочитанных бит (для ссылки - количество бит индекса вторичной таблицы);
+ *      биты 6-7 - тип элемента (KIND_INVALID, KIND_ONE, KIND_TWO, KIND_LINK);
+ *      биты 8-31 - индекс первого символа;
+ *      биты 32-55 - индекс второго символа (для ссылки биты 32-63 - смещение вторичной таблицы);
+ *      биты 56-61 - длина кода первого символа (для элемента с двумя символами).
+ */
+public class HfmDecodeTable {
+    /**
+     * Тип элемента: код отсутствует в наборе кодировки.
+     */
+    private static final int KIND_INVALID = 0;
+
+    /**
+     * Тип элемента: один символ.
+     */
+    private static final int KIND_ONE = 1;
+
+    /**
+     * Тип элемента: два символа.
+     */
+    private static final int KIND_TWO = 2;
+
+    /**
+     * Тип элемента: ссылка на вторичную таблицу.
+     */
+    private static final int KIND_LINK = 3;
+
+    /**
+     * Символы набора кодировки (индекс символа хранится в элементах таблицы).
+     */
+    private final int[] symbols;
+
+    /**
+     * Количество бит индекса первичной таблицы.
+     */
+    private final int primaryBits;
+
+    /**
+     * Первичная и вторичные таблицы.
+     */
+    private long[] table;
+
+    /**
+     * Количество занятых элементов массива таблиц.
+     */
+    private int tableSize;
+
+    /**
+     * Создает таблицу декодирования для заданного набора кодов Хаффмана.
+     * @param symbols символы.
+     * @param codes коды символов (младшие {@code lengths[j]} бит).
+     * @param lengths длины кодов символов (от 1 до 64).
+     */
+    public HfmDecodeTable(int[] symbols, long[] codes, int[] lengths) {
+        this(symbols, codes, lengths, AppConstants.DECODE_TABLE_BITS);
+    }
+
+    /**
+     * Создает таблицу декодирования для заданного набора кодов Хаффмана с заданным количеством бит индекса первичной таблицы.
+     * @param symbols символы.
+     * @param codes коды символов (младшие {@code lengths[j]} бит).
+     * @param lengths длины кодов символов (от 1 до 64).
+     * @param tableBits количество бит индекса первичной таблицы (от 1 до {@code AppConstants.DECODE_TABLE_MAX_BITS}).
+     */
+    public HfmDecodeTable(int[] symbols, long[] codes, int[] lengths, int tableBits) {
+        if(tableBits < 1 || tableBits > AppConstants.DECODE_TABLE_MAX_BITS) {
+            throw new IllegalArgumentException("Количество бит индекса таблицы должно быть от 1 до "
+                    + AppConstants.DECODE_TABLE_MAX_BITS + ".");
+        }
+        if(symbols.length >= (1 << 24)) {
+            throw new IllegalArgumentException("Количество символов набора кодировки должно быть меньше 2^24.");
+        }
+        this.symbols = symbols;
+        int maxLength = 1;
+        for (int length : lengths) {
+            maxLength = Math.max(maxLength, length);
+        }
+        this.primaryBits = Math.min(maxLength, tableBits);
+        this.table = new long[1 << primaryBits];
+        this.tableSize = table.length;
+
+        int[] indexes = new int[symbols.length];
+        for (int j = 0; j < indexes.length; ++j) {
+            indexes[j] = j;
+        }
+        fillTable(0, primaryBits, indexes, codes, lengths.clone());
+        pairSymbols();
+    }
+
+    /**
+     * Заполняет таблицу заданными кодами.
+     * Коды, которые длиннее количества бит индекса таблицы, группируются по старшим битам и размещаются во вторичных таблицах.
+     * @param offset смещение таблицы в массиве таблиц.
+     * @param bits количество бит индекса таблицы.
+     * @param indexes индексы символов заполняемых кодов.
+     * @param codes коды символов.
+     * @param rest количество еще не прочитанных бит кодов символов.
+     */
+    private void fillTable(int offset, int bits, int[] indexes, long[] codes, int[] rest) {
+        // Ключи длинных кодов: старшие биты кода (префикс) и индекс символа
+        long[] prefixes = new long[indexes.length];
+        int nLong = 0;
+        for (int symbol : indexes) {
+            int length = rest[symbol];
+            if (length <= bits) {
+                long suffix = length == 64 ? codes[symbol] : codes[symbol] & ((1L << length) - 1);
+                int from = (int) (suffix << (bits - length));
+                long entry = length | ((long) KIND_ONE << 6) | ((long) symbol << 8);
+                for (int k = from, to = from + (1 << (bits - length)); k < to; ++k) {
+                    table[offset + k] = entry;
+                }
+            }
+            else {
+                long prefix = (codes[symbol] >>> (length - bits)) & ((1L << bits) - 1);
+                prefixes[nLong++] = (prefix << 32) | symbol;
+            }
+        }
+        // Длинные коды с одинаковым префиксом разместить в общей вторичной таблице
+        Arrays.sort(prefixes, 0, nLong);
+        int j = 0;
+        while (j < nLong) {
+            int prefix = (int) (prefixes[j] >>> 32);
+            int k = j;
+            int maxRest = 0;
+            while (k < nLong && (int) (prefixes[k] >>> 32) == prefix) {
+                int symbol = (int) prefixes[k];
+                rest[symbol] -= bits;
+                maxRest = Math.max(maxRest, rest[symbol]);
+                k++;
+            }
+            int[] group = new int[k - j];
+            for (int i = 0; i < group.length; ++i) {
+                group[i] = (int) prefixes[j + i];
+            }
+            int subBits = Math.min(maxRest, AppConstants.DECODE_TABLE_BITS);
+            int subOffset = allocate(1 << subBits);
+            table[offset + prefix] = subBits | ((long) KIND_LINK << 6) | ((long) subOffset << 32);
+            fillTable(subOffset, subBits, group, codes, rest);
+            j = k;
+        }
+    }
+
+    /**
+     * Выделяет в массиве таблиц место для вторичной таблицы.
+     * @param size размер вторичной таблицы.
+     * @return смещение вторичной таблицы.
+     */
+    private int allocate(int size) {
+        if (tableSize + size > table.length) {
+            table = Arrays.copyOf(table, Math.max(table.length * 2, tableSize + size));
+        }
+        int offset = tableSize;
+        tableSize += size;
+        return offset;
+    }
+
+    /**
+     * Объединяет в элементах первичной таблицы пары символов, коды которых вместе умещаются в индекс первичной таблицы.
+     */
+    private void pairSymbols() {
+        int size = 1 << primaryBits;
+        int mask = size - 1;
+        long[] single = Arrays.copyOf(table, size);
+        for (int j = 0; j < size; ++j) {
+            long first = single[j];
+            if (kind(first) != KIND_ONE) {
+                continue;
+            }
+            int length1 = (int) (first & 63);
+            long second = single[(j << length1) & mask];
+            if (kind(second) != KIND_ONE) {
+                continue;
+            }
+            int length2 = (int) (second & 63);
+            if (length1 + length2 <= primaryBits) {
+                int symbol2 = (int) ((second >>> 8) & 0xFFFFFF);
+                table[j] = (length1 + length2) | ((long) KIND_TWO << 6) | (first & 0xFFFFFF00L)
+                        | ((long) symbol2 << 32) | ((long) length1 << 56);
+            }
+        }
+    }
+
+    /**
+     * Получает тип элемента таблицы.
+     * @param entry элемент таблицы.
+     * @return тип элемента.
+     */
+    private static int kind(long entry) {
+        return (int) (entry >>> 6) & 3;
+    }
+
+    /**
+     * Декодирует очередной блок символов битового потока.
+     * @param in битовый поток кодированного текста.
+     * @param buffer массив для декодированных символов (не меньше 2 элементов).
+     * @return количество декодированных символов (0, если все биты потока прочитаны).
+     * @throws IOException если при чтении произошла ошибка ввода-вывода, или поток содержит некорректный код.
+     */
+    public int decode(HfmBitReader in, int[] buffer) throws IOException {
+        int n = 0;
+        int limit = buffer.length - 1;
+        long remaining;
+        while (n < limit && (remaining = in.getRemaining()) > 0) {
+            int bits = primaryBits;
+            long entry = table[in.peek(bits)];
+            while (kind(entry) == KIND_LINK) {
+                if (remaining < bits) {
+                    throw new IOException("Некорректный код Хаффмана в кодированном тексте.");
+                }
+                in.skip(bits);
+                remaining -= bits;
+                bits = (int) (entry & 63);
+                entry = table[(int) (entry >>> 32) + in.peek(bits)];
+            }
+            int length = (int) (entry & 63);
+            int kind = kind(entry);
+            if (kind == KIND_TWO && length <= remaining) {
+                buffer[n++] = symbols[(int) ((entry >>> 8) & 0xFFFFFF)];
+                buffer[n++] = symbols[(int) ((entry >>> 32) & 0xFFFFFF)];
+                in.skip(length);
+                continue;
+            }
+            if (kind == KIND_TWO) {
+                // Второй символ пары находится за концом кодированного текста
+                length = (int) ((entry >>> 56) & 63);
+            }
+            if (kind == KIND_INVALID || length > remaining) {
+                throw new IOException("Некорректный код Хаффмана в кодированном тексте.");
+            }
+            buffer[n++] = symbols[(int) ((entry >>> 8) & 0xFFFFFF)];
+            in.skip(length);
+        }
+        return n;
+    }
+}
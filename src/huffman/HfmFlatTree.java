@@ -0,0 +1,349 @@
+package huffman;
+
+import arrayHeap.LongHeap;
+import binarySearchTree.BSNode;
+import utils.constants.AppConstants;
+import utils.output.DualOutput;
+import utils.output.IntDisplay;
+import utils.output.IntOutput;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Компактное дерево Хаффмана в массивах примитивов (Flat Huffman tree).
+ * Узел дерева - индекс в параллельных массивах потомков, родителя, частотности и символа.
+ * Листья имеют индексы 0..n-1, объединенные узлы - n..2n-2 в порядке их образования, поэтому родитель
+ * любого узла имеет больший индекс, чем его потомки, а корень - последний узел.
+ * Узел занимает 24 байта в массивах вместо нескольких объектов (узел, ключ, строка символа, интерфейс вывода)
+ * дерева {@code HfmTree}; обход дерева выполняется без рекурсии последовательным проходом по массивам.
+ * Для вывода дерево преобразуется в дерево {@code HfmTree} из узлов {@code BSNode}.
+ */
+public class HfmFlatTree implements IntOutput {
+    /**
+     * Индекс отсутствующего узла (потомок листа, родитель корня).
+     */
+    public static final int NONE = -1;
+
+    /**
+     * Левые потомки узлов.
+     */
+    private final int[] left;
+
+    /**
+     * Правые потомки узлов.
+     */
+    private final int[] right;
+
+    /**
+     * Родители узлов.
+     */
+    private final int[] parent;
+
+    /**
+     * Символы листьев ({@code NONE} - объединенный узел).
+     */
+    private final int[] symbol;
+
+    /**
+     * Частотности (веса) узлов.
+     */
+    private final long[] weight;
+
+    /**
+     * Количество листьев (символов).
+     */
+    private final int nLeaves;
+
+    /**
+     * Количество узлов.
+     */
+    private int size;
+
+    /**
+     * Интерфейс вывода в поток дерева Хаффмана.
+     */
+    public final IntDisplay out = new IntDisplay(this::display, "<<< Дерево Хаффмана (массивы): ", ">>>");
+
+    /**
+     * Создает пустое дерево для заданного количества символов.
+     * @param nLeaves количество символов.
+     */
+    private HfmFlatTree(int nLeaves) {
+        int capacity = Math.max(1, 2 * nLeaves - 1);
+        this.nLeaves = nLeaves;
+        left = new int[capacity];
+        right = new int[capacity];
+        parent = new int[capacity];
+        symbol = new int[capacity];
+        weight = new long[capacity];
+    }
+
+    /**
+     * Формирует дерево Хаффмана символов гистограммы.
+     * Объединение узлов выполняется d-арной кучей примитивов (ключ - частотность, данные - индекс узла)
+     * в том же порядке, что и в очереди {@code HfmQueue}, поэтому длины кодов совпадают с деревом {@code HfmTree}.
+     * @param histogram гистограмма символов.
+     * @return дерево Хаффмана.
+     */
+    public static HfmFlatTree build(HfmHistogram histogram) {
+        int[] symbols = histogram.getSymbols();
+        int n = symbols.length;
+        HfmFlatTree tree = new HfmFlatTree(n);
+        long[] keys = new long[Math.max(1, n)];
+        int[] items = new int[Math.max(1, n)];
+        for (int j = 0; j < n; ++j) {
+            keys[j] = histogram.get(symbols[j]);
+            items[j] = tree.addNode(symbols[j], keys[j], NONE, NONE);
+        }
+        LongHeap heap = new LongHeap(keys, items, n, AppConstants.HEAP_ARITY, false);
+        while (heap.size() > 1) {
+            long key1 = heap.getFirstKey();
+            int node1 = heap.remove();
+            long key2 = heap.getFirstKey();
+            int node2 = heap.getFirstItem();
+            heap.replaceFirst(key1 + key2, tree.addNode(NONE, key1 + key2, node1, node2));
+        }
+        return tree;
+    }
+
+    /**
+     * Преобразует дерево Хаффмана из узлов {@code BSNode} в дерево в массивах.
+     * Листья нумеруются в порядке обхода дерева слева направо, объединенные узлы - после своих потомков.
+     * Обход выполняется без рекурсии: прямой обход (узел, левое, правое поддерево) сохраняет узлы в массив,
+     * а обратный проход по массиву встречает потомков раньше родителя и связывает их через стек индексов.
+     * @param tree дерево Хаффмана.
+     */
+    public HfmFlatTree(HfmTree tree) {
+        this(tree == null || tree.getHfmTreeRoot() == null ? 0 : countLeaves(tree.getHfmTreeRoot()));
+        if (nLeaves == 0) {
+            return;
+        }
+        // 1. Прямой обход: листья получают индексы слева направо
+        List<BSNode<Long, String>> preorder = new ArrayList<>(2 * nLeaves - 1);
+        ArrayDeque<BSNode<Long, String>> stack = new ArrayDeque<>();
+        stack.push(tree.getHfmTreeRoot());
+        while (!stack.isEmpty()) {
+            BSNode<Long, String> node = stack.pop();
+            preorder.add(node);
+            if (node.getIsMerge()) {
+                stack.push(node.getRightChild());
+                stack.push(node.getLeftChild());
+            }
+            else {
+                addNode(node.getValue().codePointAt(0), node.getKey(), NONE, NONE);
+            }
+        }
+        // 2. Обратный проход: индексы поддеревьев накапливаются в стеке, левое поддерево - на вершине
+        int[] ids = new int[nLeaves];
+        int top = 0;
+        int nextLeaf = nLeaves;
+        for (int k = preorder.size() - 1; k >= 0; --k) {
+            BSNode<Long, String> node = preorder.get(k);
+            if (node.getIsMerge()) {
+                int leftChild = ids[--top];
+                int rightChild = ids[--top];
+                ids[top++] = addNode(NONE, node.getKey(), leftChild, rightChild);
+            }
+            else {
+                ids[top++] = --nextLeaf;
+            }
+        }
+    }
+
+    /**
+     * Подсчитывает количество листьев (символов) дерева Хаффмана без рекурсии.
+     * @param root корневой узел дерева.
+     * @return количество листьев.
+     */
+    private static int countLeaves(BSNode<Long, String> root) {
+        ArrayDeque<BSNode<Long, String>> stack = new ArrayDeque<>();
+        stack.push(root);
+        int count = 0;
+        while (!stack.isEmpty()) {
+            BSNode<Long, String> node = stack.pop();
+            if (node.getIsMerge()) {
+                stack.push(node.getLeftChild());
+                stack.push(node.getRightChild());
+            }
+            else {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Добавляет узел в конец массивов.
+     * @param nodeSymbol символ листа ({@code NONE} - объединенный узел).
+     * @param nodeWeight частотность узла.
+     * @param leftChild левый потомок.
+     * @param rightChild правый потомок.
+     * @return индекс добавленного узла.
+     */
+    private int addNode(int nodeSymbol, long nodeWeight, int leftChild, int rightChild) {
+        int id = size++;
+        setNode(id, nodeSymbol, nodeWeight, leftChild, rightChild);
+        return id;
+    }
+
+    /**
+     * Заполняет узел с заданным индексом и устанавливает его родителем заданных потомков.
+     * @param id индекс узла.
+     * @param nodeSymbol символ листа ({@code NONE} - объединенный узел).
+     * @param nodeWeight частотность узла.
+     * @param leftChild левый потомок.
+     * @param rightChild правый потомок.
+     */
+    private void setNode(int id, int nodeSymbol, long nodeWeight, int leftChild, int rightChild) {
+        symbol[id] = nodeSymbol;
+        weight[id] = nodeWeight;
+        left[id] = leftChild;
+        right[id] = rightChild;
+        parent[id] = NONE;
+        if (leftChild != NONE) {
+            parent[leftChild] = id;
+            parent[rightChild] = id;
+        }
+    }
+
+    /**
+     * Получает количество узлов дерева.
+     * @return количество узлов.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Получает количество листьев (символов) дерева.
+     * @return количество листьев.
+     */
+    public int getLeafCount() {
+        return nLeaves;
+    }
+
+    /**
+     * Получает индекс корневого узла.
+     * @return индекс корня или {@code NONE}, если дерево пусто.
+     */
+    public int getRoot() {
+        return size - 1;
+    }
+
+    /**
+     * Получает левого потомка узла.
+     * @param node индекс узла.
+     * @return индекс левого потомка или {@code NONE}.
+     */
+    public int getLeft(int node) {
+        return left[node];
+    }
+
+    /**
+     * Получает правого потомка узла.
+     * @param node индекс узла.
+     * @return индекс правого потомка или {@code NONE}.
+     */
+    public int getRight(int node) {
+        return right[node];
+    }
+
+    /**
+     * Получает родителя узла.
+     * @param node индекс узла.
+     * @return индекс родителя или {@code NONE} для корня.
+     */
+    public int getParent(int node) {
+        return parent[node];
+    }
+
+    /**
+     * Получает символ листа.
+     * @param node индекс узла.
+     * @return символ или {@code NONE} для объединенного узла.
+     */
+    public int getSymbol(int node) {
+        return symbol[node];
+    }
+
+    /**
+     * Получает частотность (вес) узла.
+     * @param node индекс узла.
+     * @return частотность узла.
+     */
+    public long getWeight(int node) {
+        return weight[node];
+    }
+
+    /**
+     * Получает символы листьев (в порядке индексов листьев).
+     * @return массив символов.
+     */
+    public int[] getSymbols() {
+        int[] symbols = new int[nLeaves];
+        System.arraycopy(symbol, 0, symbols, 0, nLeaves);
+        return symbols;
+    }
+
+    /**
+     * Получает длины кодов символов (в порядке {@code getSymbols}) - глубины листьев.
+     * Родитель имеет больший индекс, чем потомки, поэтому глубины вычисляются одним проходом от корня к листьям.
+     * Единственный символ кодируется одним битом.
+     * @return массив длин кодов.
+     */
+    public int[] getCodeLengths() {
+        int[] depth = new int[size];
+        for (int node = size - 2; node >= 0; --node) {
+            depth[node] = depth[parent[node]] + 1;
+        }
+        int[] lengths = new int[nLeaves];
+        for (int j = 0; j < nLeaves; ++j) {
+            lengths[j] = Math.max(1, depth[j]);
+        }
+        return lengths;
+    }
+
+    /**
+     * Преобразует дерево в дерево Хаффмана из узлов {@code BSNode} (например, для вывода).
+     * Узлы создаются проходом по массивам от листьев к корню без рекурсии.
+     * @return дерево Хаффмана.
+     */
+    public HfmTree toHfmTree() {
+        HfmTree tree = new HfmTree();
+        if (size == 0) {
+            return tree;
+        }
+        HfmTree[] nodes = new HfmTree[size];
+        for (int node = 0; node < size; ++node) {
+            if (symbol[node] != NONE) {
+                nodes[node] = new HfmTree();
+                nodes[node].add(weight[node], Character.toString(symbol[node]));
+                continue;
+            }
+            HfmTree merged = new HfmTree();
+            BSNode<Long, String> root = merged.add(weight[node], "@", true);
+            root.setLeftChild(nodes[left[node]].getHfmTreeRoot());
+            root.setRightChild(nodes[right[node]].getHfmTreeRoot());
+            nodes[left[node]] = null;
+            nodes[right[node]] = null;
+            nodes[node] = merged;
+        }
+        return nodes[size - 1];
+    }
+
+
+    // DISPLAY
+
+    @Override
+    public void display(int blanks, DualOutput out) {
+        // Инициатор выводит свои верхнее и нижнее оформления сообщения и отключает их вывод в цепочке объектов.
+        String header = out.getHeader() != null ? out.getHeaderOnce() : this.out.getHeader();
+        String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
+
+        out.print(header);
+        toHfmTree().display(blanks, out);
+        out.println(footer);
+    }
+}
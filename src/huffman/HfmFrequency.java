@@ -1,31 +1,33 @@
 package huffman;
 
-import hashTable.LHash;
-import linkedList.LList;
 import utils.constants.AppConstants;
 import utils.output.Display;
 import utils.output.DualOutput;
 import utils.output.Output;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
-import java.util.Scanner;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * Частотная таблица символов (Frequency table) кодируемого текста на основе Хеш-таблицы.
- * Частотность формируется как количество повторов символа в тексте.
+ * Частотная таблица символов (Frequency table) кодируемого текста на основе гистограммы символов {@code HfmHistogram}.
+ * Частотность формируется как количество повторов символа (кодовой точки Unicode) в тексте.
+ * Текст читается из файла блоками фиксированного размера и целиком в памяти не хранится.
  */
 public class HfmFrequency implements Output {
     /**
-     * Частотная таблица символов (Хеш-таблица).
+     * Частотная таблица символов (гистограмма символов).
      */
-    private LHash<String, Integer> freqTable;
+    private HfmHistogram freqTable;
 
     /**
-     * Текст-источник.
+     * Количество символов текста-источника.
      */
-    private StringBuilder sourceText;
+    private long sourceLength;
 
     /**
      * Интерфейс вывода в поток частотной таблицы символов.
@@ -42,49 +44,95 @@ public class HfmFrequency implements Output {
     /**
      * Получает частотную таблицу символов.
      * Таблица формируется при запуске {@code createFreqTable}.
-     * @return хеш-таблица.
+     * @return гистограмма символов.
      */
-    public LHash<String, Integer> getFreqTable() {
+    public HfmHistogram getFreqTable() {
         return freqTable;
     }
 
     /**
-     * Получает текст-источник.
-     * @return текст-источник.
+     * Получает количество символов текста-источника.
+     * @return количество символов.
      */
-    public StringBuilder getSourceText() {
-        return sourceText;
+    public long getSourceLength() {
+        return sourceLength;
     }
 
     /**
-     * Получает копию массива связанных списков частотной таблицы символов с преобразованием типов ключа и данных к типу String.
-     * @return копия массива связанных списков хеш-таблицы с преобразованием типов ключа и данных к типу String.
+     * Формирует частотную таблицу символов текста (режим CHAR).
+     * Файл читается блоками по {@code AppConstants.CHUNK_SIZE} символов (первый проход потокового кодирования).
+     * @param path файл с кодируемым текстом.
+     * @param charset имя стандартной кодировки символов файла, например, StandardCharsets.UTF_8.
+     * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода.
+     */
+    public void createFreqTable(String path, Charset charset) throws IOException {
+        createFreqTable(path, HfmMode.CHAR, charset);
+    }
+
+    /**
+     * Формирует частотную таблицу символов в заданном режиме кодирования.
+     * Файл читается блоками по {@code AppConstants.CHUNK_SIZE} символов (первый проход потокового кодирования).
+     * @param path файл с кодируемыми данными.
+     * @param mode режим кодирования (символы текста или байты файла).
+     * @param charset имя стандартной кодировки символов файла (для режима CHAR), например, StandardCharsets.UTF_8.
+     * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода.
      */
-    public LList<String, String>[] getStringCopyHash() {
-        return freqTable.toStringCopy();
+    public void createFreqTable(String path, HfmMode mode, Charset charset) throws IOException {
+        freqTable = mode.newHistogram();
+        sourceLength = 0;
+        int[] chunk = new int[AppConstants.CHUNK_SIZE];
+        try(HfmSymbolReader in = new HfmSymbolReader(path, mode, charset)) {
+            int nElem;
+            while((nElem = in.read(chunk)) >= 0) {
+                for(int j = 0; j < nElem; ++j) {
+                    freqTable.inc(chunk[j]);
+                }
+                sourceLength += nElem;
+            }
+        }
     }
 
     /**
-     * Формирует частотную таблицу символов.
+     * Формирует частотную таблицу символов текста параллельным подсчетом (режим CHAR).
      * @param path файл с кодируемым текстом.
      * @param charset имя стандартной кодировки символов файла, например, StandardCharsets.UTF_8.
+     * @param parallelism количество потоков подсчета.
      * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода.
      */
-    public void createFreqTable(String path, Charset charset) throws IOException {
-        Scanner in = new Scanner(Path.of(path), charset);
-        sourceText = new StringBuilder();
-        int nElem;
-        while(in.hasNext()) {
-            sourceText.append(in.nextLine());
-            if(in.hasNext()) {
-                sourceText.append(AppConstants.UNIX_NEW_ROW);
-            }
+    public void createFreqTable(String path, Charset charset, int parallelism) throws IOException {
+        createFreqTable(path, HfmMode.CHAR, charset, parallelism);
+    }
+
+    /**
+     * Формирует частотную таблицу символов параллельным подсчетом (Fork/Join).
+     * Файл делится на отображаемые в память области по границам символов, частотность каждой области
+     * подсчитывается в собственную гистограмму в {@code ForkJoinPool}, затем гистограммы суммируются.
+     * Если кодировка не поддерживает деление на области (см. {@code HfmFrequencyTask.isSupported}) или {@code parallelism} равен 1,
+     * то используется последовательный подсчет {@code createFreqTable(String, HfmMode, Charset)}.
+     * В режиме BYTE файл делится на области на любой позиции.
+     * @param path файл с кодируемыми данными.
+     * @param mode режим кодирования (символы текста или байты файла).
+     * @param charset имя стандартной кодировки символов файла (для режима CHAR), например, StandardCharsets.UTF_8.
+     * @param parallelism количество потоков подсчета.
+     * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода.
+     */
+    public void createFreqTable(String path, HfmMode mode, Charset charset, int parallelism) throws IOException {
+        Charset taskCharset = mode == HfmMode.BYTE ? null : charset;
+        if(parallelism <= 1 || (taskCharset != null && !HfmFrequencyTask.isSupported(taskCharset))) {
+            createFreqTable(path, mode, charset);
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try(FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            freqTable = pool.invoke(new HfmFrequencyTask(channel, taskCharset, 0, channel.size()));
+        }
+        catch(UncheckedIOException e) {
+            throw e.getCause();
         }
-        freqTable = new LHash<>(AppConstants.HASH_SIZE);
-        nElem = sourceText.length();
-        for(int j = 0; j < nElem; ++j) {
-            freqTable.inc(String.valueOf(sourceText.charAt(j)), 1);
+        finally {
+            pool.shutdown();
         }
+        sourceLength = freqTable.getTotal();
     }
 
     // DISPLAY
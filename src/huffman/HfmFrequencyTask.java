@@ -0,0 +1,173 @@
+package huffman;
+
+import utils.constants.AppConstants;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Задача параллельного подсчета частотности символов (Fork/Join) для области файла.
+ * Большая область делится пополам по границе символа кодировки, каждая из частей подсчитывается отдельной задачей.
+ * Область размером не больше {@code AppConstants.PARALLEL_REGION_SIZE} отображается в память (memory-mapped),
+ * декодируется и подсчитывается в собственную гистограмму {@code HfmHistogram}, после чего гистограммы частей суммируются.
+ * Без кодировки символов (режим BYTE) подсчитываются байты области, и область делится на произвольной позиции.
+ */
+public class HfmFrequencyTask extends RecursiveTask<HfmHistogram> {
+    /**
+     * Версия сериализации (задача наследует {@code Serializable} от {@code ForkJoinTask}, но не сериализуется).
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Канал файла с кодируемым текстом.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Кодировка символов файла ({@code null} - подсчет байтов).
+     */
+    private final Charset charset;
+
+    /**
+     * Начало области файла (включительно).
+     */
+    private final long start;
+
+    /**
+     * Конец области файла (исключительно).
+     */
+    private final long end;
+
+    /**
+     * Создает задачу подсчета частотности символов для заданной области файла.
+     * @param channel канал файла.
+     * @param charset кодировка символов файла (UTF-8 или однобайтовая, см. {@code isSupported}),
+     *                либо {@code null} для подсчета байтов.
+     * @param start начало области файла.
+     * @param end конец области файла.
+     */
+    public HfmFrequencyTask(FileChannel channel, Charset charset, long start, long end) {
+        this.channel = channel;
+        this.charset = charset;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Проверяет, что файл в заданной кодировке можно делить на области для параллельного подсчета.
+     * Поддерживаются UTF-8 (граница символа находится по байтам продолжения) и однобайтовые кодировки.
+     * @param charset кодировка символов.
+     * @return признак поддержки кодировки.
+     */
+    public static boolean isSupported(Charset charset) {
+        return charset.equals(StandardCharsets.UTF_8) || charset.newEncoder().maxBytesPerChar() == 1.0f;
+    }
+
+    @Override
+    protected HfmHistogram compute() {
+        try {
+            if (end - start <= AppConstants.PARALLEL_REGION_SIZE) {
+                return count();
+            }
+            long middle = alignToChar(start + (end - start) / 2);
+            HfmFrequencyTask left = new HfmFrequencyTask(channel, charset, start, middle);
+            HfmFrequencyTask right = new HfmFrequencyTask(channel, charset, middle, end);
+            left.fork();
+            HfmHistogram histogram = right.compute();
+            histogram.merge(left.join());
+            return histogram;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Смещает заданную позицию файла вперед до начала символа UTF-8 (пропускает байты продолжения 10xxxxxx).
+     * @param position позиция файла.
+     * @return позиция начала символа.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода.
+     */
+    private long alignToChar(long position) throws IOException {
+        if (charset == null || !charset.equals(StandardCharsets.UTF_8)) {
+            return position;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+        channel.read(buffer, position);
+        buffer.flip();
+        while (buffer.hasRemaining() && (buffer.get() & 0xC0) == 0x80) {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Подсчитывает частотность символов области файла в собственную гистограмму.
+     * @return гистограмма области.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода, или область содержит некорректные символы.
+     */
+    private HfmHistogram count() throws IOException {
+        MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        if (charset == null) {
+            return countBytes(bytes);
+        }
+        HfmHistogram histogram = HfmMode.CHAR.newHistogram();
+        CharsetDecoder decoder = charset.newDecoder();
+        CharBuffer chars = CharBuffer.allocate(AppConstants.CHUNK_SIZE);
+        CoderResult result;
+        do {
+            result = decoder.decode(bytes, chars, true);
+            if (result.isError()) {
+                result.throwException();
+            }
+            countChars(chars, histogram);
+        } while (result.isOverflow());
+        do {
+            result = decoder.flush(chars);
+            countChars(chars, histogram);
+        } while (result.isOverflow());
+        return histogram;
+    }
+
+    /**
+     * Подсчитывает байты области файла в собственную гистограмму.
+     * @param bytes отображенная в память область файла.
+     * @return гистограмма области.
+     */
+    private static HfmHistogram countBytes(MappedByteBuffer bytes) {
+        HfmHistogram histogram = HfmMode.BYTE.newHistogram();
+        while (bytes.hasRemaining()) {
+            histogram.inc(bytes.get() & 0xFF);
+        }
+        return histogram;
+    }
+
+    /**
+     * Подсчитывает декодированные символы (кодовые точки) буфера в гистограмму и очищает буфер.
+     * Декодер не разделяет суррогатную пару между буферами, поэтому пара всегда находится в одном буфере.
+     * @param chars буфер декодированных символов.
+     * @param histogram гистограмма.
+     */
+    private static void countChars(CharBuffer chars, HfmHistogram histogram) {
+        chars.flip();
+        while (chars.hasRemaining()) {
+            char c = chars.get();
+            if (Character.isHighSurrogate(c) && chars.hasRemaining() && Character.isLowSurrogate(chars.get(chars.position()))) {
+                histogram.inc(Character.toCodePoint(c, chars.get()));
+            }
+            else {
+                histogram.inc(c);
+            }
+        }
+        chars.clear();
+    }
+}
@@ -0,0 +1,156 @@
+package huffman;
+
+import hashTable.IntLongHash;
+import utils.constants.AppConstants;
+import utils.output.Display;
+import utils.output.DualOutput;
+import utils.output.Output;
+
+import java.util.Arrays;
+
+/**
+ * Гистограмма символов (Symbol histogram) - счетчики частотности символов на массивах примитивов.
+ * Символ - целочисленное значение (кодовая точка Unicode или значение байта).
+ * Счетчики символов меньше {@code denseSize} (например, все символы BMP) хранятся в плотном массиве {@code long[]},
+ * счетчики остальных символов - в разреженной хеш-таблице примитивов {@code IntLongHash}.
+ * Увеличение счетчика не создает объектов.
+ */
+public class HfmHistogram implements Output {
+    /**
+     * Счетчики символов меньше {@code dense.length}.
+     */
+    private final long[] dense;
+
+    /**
+     * Счетчики остальных символов.
+     */
+    private final IntLongHash sparse;
+
+    /**
+     * Интерфейс вывода в поток гистограммы символов.
+     */
+    public final Display out = new Display(this::display, "<<< Гистограмма символов: ", ">>>");
+
+    /**
+     * Создает пустую гистограмму с плотным массивом для символов BMP (0 - 0xFFFF).
+     */
+    public HfmHistogram() {
+        this(Character.MAX_VALUE + 1);
+    }
+
+    /**
+     * Создает пустую гистограмму с плотным массивом заданного размера.
+     * @param denseSize количество символов, начиная с 0, счетчики которых хранятся в плотном массиве.
+     */
+    public HfmHistogram(int denseSize) {
+        this.dense = new long[denseSize];
+        this.sparse = new IntLongHash();
+    }
+
+    /**
+     * Увеличивает счетчик символа на 1.
+     * @param symbol символ.
+     */
+    public void inc(int symbol) {
+        if(symbol < dense.length) {
+            dense[symbol]++;
+        }
+        else {
+            sparse.inc(symbol, 1);
+        }
+    }
+
+    /**
+     * Увеличивает счетчик символа на заданное значение.
+     * @param symbol символ.
+     * @param count величина увеличения.
+     */
+    public void add(int symbol, long count) {
+        if(symbol < dense.length) {
+            dense[symbol] += count;
+        }
+        else {
+            sparse.inc(symbol, count);
+        }
+    }
+
+    /**
+     * Получает счетчик символа.
+     * @param symbol символ.
+     * @return частотность символа.
+     */
+    public long get(int symbol) {
+        return symbol < dense.length ? dense[symbol] : sparse.get(symbol);
+    }
+
+    /**
+     * Добавляет к счетчикам гистограммы счетчики заданной гистограммы.
+     * @param other заданная гистограмма.
+     */
+    public void merge(HfmHistogram other) {
+        for(int j = 0; j < other.dense.length; ++j) {
+            if(other.dense[j] != 0) {
+                add(j, other.dense[j]);
+            }
+        }
+        for(int symbol : other.sparse.keys()) {
+            add(symbol, other.sparse.get(symbol));
+        }
+    }
+
+    /**
+     * Получает все символы с ненулевым счетчиком в порядке возрастания.
+     * @return массив символов.
+     */
+    public int[] getSymbols() {
+        int nDense = 0;
+        for(long count : dense) {
+            if(count != 0) {
+                nDense++;
+            }
+        }
+        int[] sparseSymbols = sparse.keys();
+        Arrays.sort(sparseSymbols);
+        int[] symbols = new int[nDense + sparseSymbols.length];
+        int n = 0;
+        for(int j = 0; j < dense.length; ++j) {
+            if(dense[j] != 0) {
+                symbols[n++] = j;
+            }
+        }
+        System.arraycopy(sparseSymbols, 0, symbols, n, sparseSymbols.length);
+        return symbols;
+    }
+
+    /**
+     * Получает общее количество символов (сумму счетчиков).
+     * @return сумма счетчиков.
+     */
+    public long getTotal() {
+        long total = 0;
+        for(long count : dense) {
+            total += count;
+        }
+        for(int symbol : sparse.keys()) {
+            total += sparse.get(symbol);
+        }
+        return total;
+    }
+
+
+    // DISPLAY
+
+    @Override
+    public void display(DualOutput out) {
+        // Инициатор выводит свои верхнее и нижнее оформления сообщения и отключает их вывод в цепочке объектов.
+        String header = out.getHeader() != null ? out.getHeaderOnce() : this.out.getHeader();
+        String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
+
+        out.print(header);
+        for(int symbol : getSymbols()) {
+            out.print(Character.toString(symbol).replace(AppConstants.UNIX_NEW_ROW, AppConstants.PRINT_NEW_ROW)
+                    + "/" + get(symbol) + " ");
+        }
+        out.println(footer);
+    }
+}
@@ -0,0 +1,315 @@
+package huffman;
+
+import utils.constants.AppConstants;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+
+/**
+ * Поток распаковки байтов, сжатых {@code HfmOutputStream} (Huffman input stream).
+ * Кадры блоков читаются и декодируются по одному по мере чтения байтов, контрольная сумма каждого блока проверяется
+ * до выдачи его байтов. Кадр конца потока проверяется по общему количеству байтов, количеству кадров и контрольной
+ * сумме всех байтов потока, поэтому искаженный тип кадра или обрыв потока не принимаются за его конец.
+ * Поток не читает входной поток за кадром конца сжатого потока, поэтому после него во входном потоке
+ * могут следовать другие данные.
+ * Входной поток читается без буферизации; при чтении из файла или сокета его следует обернуть
+ * в {@code BufferedInputStream}.
+ */
+public class HfmInputStream extends FilterInputStream {
+    /**
+     * Поток чтения полей кадров.
+     */
+    private final DataInputStream data;
+
+    /**
+     * Размер блока сжатого потока.
+     */
+    private final int blockSize;
+
+    /**
+     * Байты текущего блока.
+     */
+    private final byte[] block;
+
+    /**
+     * Количество байтов в текущем блоке.
+     */
+    private int count;
+
+    /**
+     * Позиция чтения в текущем блоке.
+     */
+    private int position;
+
+    /**
+     * Декодированные символы блока (создается при чтении первого кадра Хаффмана).
+     */
+    private int[] symbols;
+
+    /**
+     * Общее количество байтов прочитанных кадров.
+     */
+    private long totalLength;
+
+    /**
+     * Количество прочитанных кадров блоков.
+     */
+    private int frameCount;
+
+    /**
+     * Контрольная сумма CRC32C всех байтов прочитанных кадров.
+     */
+    private final CRC32C streamChecksum = new CRC32C();
+
+    /**
+     * Признак прочитанного кадра конца потока.
+     */
+    private boolean isFinished;
+
+    /**
+     * Признак закрытого потока.
+     */
+    private boolean isClosed;
+
+    /**
+     * Создает поток распаковки, читает и проверяет заголовок сжатого потока.
+     * @param in входной поток сжатых данных.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода, или заголовок некорректен.
+     */
+    public HfmInputStream(InputStream in) throws IOException {
+        super(in);
+        this.data = new DataInputStream(in);
+        try {
+            if (data.readInt() != HfmOutputStream.MAGIC) {
+                throw new IOException("Поток не является сжатым потоком Хаффмана.");
+            }
+            int version = data.readUnsignedByte();
+            if (version != HfmOutputStream.VERSION) {
+                throw new IOException("Неподдерживаемая версия сжатого потока Хаффмана: " + version);
+            }
+            this.blockSize = data.readInt();
+        }
+        catch (EOFException e) {
+            throw new EOFException("Неожиданный конец заголовка сжатого потока Хаффмана.");
+        }
+        if (blockSize <= 0 || blockSize > AppConstants.STREAM_MAX_BLOCK_SIZE) {
+            throw new IOException("Некорректный размер блока сжатого потока Хаффмана: " + blockSize);
+        }
+        this.block = new byte[blockSize];
+    }
+
+    /**
+     * Получает размер блока сжатого потока.
+     * @return размер блока в байтах.
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return block[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
+            ensureOpen();
+            return 0;
+        }
+        int total = 0;
+        while (total < len) {
+            // Следующий кадр читается только если из текущего не прочитано ни одного байта
+            if (position == count && (total > 0 || !fill())) {
+                break;
+            }
+            int n = Math.min(len - total, count - position);
+            System.arraycopy(block, position, b, off + total, n);
+            position += n;
+            total += n;
+        }
+        return total == 0 ? -1 : total;
+    }
+
+    /**
+     * Читает байты в оставшуюся часть заданного буфера (не больше одного блока за вызов).
+     * @param dst буфер байтов.
+     * @return количество прочитанных байтов или -1 в конце сжатого потока.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода, или сжатый поток некорректен.
+     */
+    public int read(ByteBuffer dst) throws IOException {
+        if (!dst.hasRemaining()) {
+            ensureOpen();
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int n = Math.min(dst.remaining(), count - position);
+        dst.put(block, position, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && fill()) {
+            int k = (int) Math.min(n - skipped, count - position);
+            position += k;
+            skipped += k;
+        }
+        return skipped;
+    }
+
+    /**
+     * Получает количество байтов, которые можно прочитать без чтения входного потока (остаток текущего блока).
+     * @return количество байтов.
+     * @throws IOException если поток закрыт.
+     */
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        return count - position;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("Поток распаковки Хаффмана не поддерживает возврат к метке.");
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        in.close();
+    }
+
+    /**
+     * Проверяет, что поток не закрыт.
+     * @throws IOException если поток закрыт.
+     */
+    private void ensureOpen() throws IOException {
+        if (isClosed) {
+            throw new IOException("Поток распаковки закрыт.");
+        }
+    }
+
+    /**
+     * Читает следующий кадр, если байты текущего блока прочитаны.
+     * @return {@code false}, если достигнут конец сжатого потока.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода, или сжатый поток некорректен.
+     */
+    private boolean fill() throws IOException {
+        ensureOpen();
+        while (position == count) {
+            if (isFinished) {
+                return false;
+            }
+            try {
+                readFrame();
+            }
+            catch (EOFException e) {
+                throw new EOFException("Неожиданный конец сжатого потока Хаффмана.");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Читает и декодирует кадр блока и проверяет его контрольную сумму, а кадр конца потока - по прочитанным кадрам.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода, или кадр некорректен.
+     */
+    private void readFrame() throws IOException {
+        int type = data.readUnsignedByte();
+        if (type == HfmOutputStream.FRAME_END) {
+            long length = data.readLong();
+            int frames = data.readInt();
+            int checksum = data.readInt();
+            if (length != totalLength || frames != frameCount || checksum != (int) streamChecksum.getValue()) {
+                throw new IOException("Кадр конца сжатого потока Хаффмана не совпадает с прочитанными кадрами.");
+            }
+            isFinished = true;
+            count = 0;
+            position = 0;
+            return;
+        }
+        if (type != HfmOutputStream.FRAME_HUFFMAN && type != HfmOutputStream.FRAME_STORED) {
+            throw new IOException("Некорректный тип кадра сжатого потока Хаффмана: " + type);
+        }
+        int length = data.readInt();
+        if (length <= 0 || length > blockSize) {
+            throw new IOException("Некорректный размер кадра сжатого потока Хаффмана: " + length);
+        }
+        if (type == HfmOutputStream.FRAME_STORED) {
+            data.readFully(block, 0, length);
+        }
+        else {
+            decodeFrame(length);
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(block, 0, length);
+        if (data.readInt() != (int) checksum.getValue()) {
+            throw new IOException("Контрольная сумма блока сжатого потока Хаффмана не совпадает.");
+        }
+        streamChecksum.update(block, 0, length);
+        totalLength += length;
+        frameCount++;
+        count = length;
+        position = 0;
+    }
+
+    /**
+     * Декодирует кадр Хаффмана в байты текущего блока.
+     * @param length количество байтов блока.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода, или кадр некорректен.
+     */
+    private void decodeFrame(int length) throws IOException {
+        HfmCharset hfmCharset = new HfmCharset();
+        hfmCharset.read(data);
+        if (hfmCharset.getMode() != HfmMode.BYTE) {
+            throw new IOException("Набор кодировки кадра сжатого потока Хаффмана должен быть в режиме BYTE.");
+        }
+        long bitLength = data.readLong();
+        // Код одного байта не короче 1 бита и не длиннее ограничения длины кода
+        if (bitLength < length || bitLength > (long) length * AppConstants.DECODE_TABLE_MAX_BITS) {
+            throw new IOException("Некорректная длина кодов кадра сжатого потока Хаффмана: " + bitLength);
+        }
+        byte[] encoded = new byte[(int) ((bitLength + 7) >>> 3)];
+        data.readFully(encoded);
+
+        if (symbols == null) {
+            symbols = new int[blockSize + 1];
+        }
+        HfmBitReader reader = new HfmBitReader(new ByteArrayInputStream(encoded), bitLength);
+        int n = hfmCharset.createDecodeTable().decode(reader, symbols);
+        if (n != length || reader.getRemaining() != 0) {
+            throw new IOException("Количество байтов кадра сжатого потока Хаффмана не совпадает.");
+        }
+        for (int j = 0; j < n; ++j) {
+            block[j] = (byte) symbols[j];
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package huffman;
+
+/**
+ * Режим кодирования Хаффмана (алфавит символов).
+ */
+public enum HfmMode {
+    /**
+     * Текстовый режим: символы - кодовые точки Unicode текста, декодированного в заданной кодировке.
+     */
+    CHAR(0, Character.MAX_VALUE + 1),
+
+    /**
+     * Байтовый режим: символы - байты файла (алфавит из 256 символов), кодировка символов не используется.
+     * Файл любого содержимого восстанавливается побитово точно.
+     */
+    BYTE(1, 256);
+
+    /**
+     * Код режима в заголовке файла кодировки.
+     */
+    private final int code;
+
+    /**
+     * Количество символов, счетчики которых хранятся в плотном массиве гистограммы.
+     */
+    private final int denseSize;
+
+    /**
+     * Создает режим кодирования.
+     * @param code код режима в заголовке файла кодировки.
+     * @param denseSize количество символов плотного массива гистограммы.
+     */
+    HfmMode(int code, int denseSize) {
+        this.code = code;
+        this.denseSize = denseSize;
+    }
+
+    /**
+     * Получает код режима в заголовке файла кодировки.
+     * @return код режима.
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Создает пустую гистограмму символов для алфавита режима.
+     * @return гистограмма символов.
+     */
+    public HfmHistogram newHistogram() {
+        return new HfmHistogram(denseSize);
+    }
+
+    /**
+     * Получает режим по его коду в заголовке файла кодировки.
+     * @param code код режима.
+     * @return режим кодирования.
+     */
+    public static HfmMode valueOf(int code) {
+        for (HfmMode mode : values()) {
+            if (mode.code == code) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестный режим кодирования: " + code);
+    }
+}
@@ -0,0 +1,278 @@
+package huffman;
+
+import utils.constants.AppConstants;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+
+/**
+ * Поток сжатия байтов кодами Хаффмана (Huffman output stream).
+ * Записываемые байты накапливаются в блоке заданного размера; заполненный блок сжимается с собственным набором
+ * кодировки Хаффмана (режим BYTE, длина кода ограничена {@code AppConstants.DECODE_TABLE_MAX_BITS} бит)
+ * и записывается в поток отдельным кадром, поэтому поток сжимается на лету без временных файлов и без
+ * предварительного подсчета частотности всех данных. Несжимаемый блок записывается без сжатия.
+ * Формат потока:
+ *      сигнатура {@code MAGIC} (int), версия {@code VERSION} (1 байт), размер блока (int);
+ *      кадры блоков: тип кадра (1 байт), количество байтов блока (int), для кадра Хаффмана - набор кодировки
+ *      ({@code HfmCharset.write}), длина кодов в битах (long) и коды, для кадра без сжатия - байты блока,
+ *      затем контрольная сумма CRC32C исходных байтов блока (int);
+ *      кадр конца потока: тип кадра (1 байт), общее количество исходных байтов (long), количество кадров блоков (int)
+ *      и контрольная сумма CRC32C всех исходных байтов потока (int), поэтому искаженный тип кадра или обрыв потока
+ *      на границе кадра обнаруживаются при чтении кадра конца.
+ * Поток читается {@code HfmInputStream}.
+ */
+public class HfmOutputStream extends FilterOutputStream {
+    /**
+     * Сигнатура сжатого потока ("HFMS").
+     */
+    public static final int MAGIC = 0x48464D53;
+
+    /**
+     * Версия формата сжатого потока.
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * Тип кадра: конец потока.
+     */
+    static final int FRAME_END = 0;
+
+    /**
+     * Тип кадра: блок, сжатый кодами Хаффмана.
+     */
+    static final int FRAME_HUFFMAN = 1;
+
+    /**
+     * Тип кадра: блок без сжатия.
+     */
+    static final int FRAME_STORED = 2;
+
+    /**
+     * Поток записи полей кадров.
+     */
+    private final DataOutputStream data;
+
+    /**
+     * Байты текущего блока.
+     */
+    private final byte[] block;
+
+    /**
+     * Количество байтов в текущем блоке.
+     */
+    private int count;
+
+    /**
+     * Символы (байты) текущего блока для кодирования.
+     */
+    private final int[] symbols;
+
+    /**
+     * Буфер сжатого кадра (набор кодировки и коды).
+     */
+    private final ByteArrayOutputStream encoded;
+
+    /**
+     * Общее количество байтов записанных кадров.
+     */
+    private long totalLength;
+
+    /**
+     * Количество записанных кадров блоков.
+     */
+    private int frameCount;
+
+    /**
+     * Контрольная сумма CRC32C всех байтов записанных кадров.
+     */
+    private final CRC32C streamChecksum;
+
+    /**
+     * Признак записанного кадра конца потока.
+     */
+    private boolean isFinished;
+
+    /**
+     * Признак закрытого потока.
+     */
+    private boolean isClosed;
+
+    /**
+     * Создает поток сжатия с размером блока по умолчанию и записывает заголовок потока.
+     * @param out выходной поток сжатых данных.
+     * @throws IOException если при записи заголовка произошла ошибка ввода-вывода.
+     */
+    public HfmOutputStream(OutputStream out) throws IOException {
+        this(out, AppConstants.STREAM_BLOCK_SIZE);
+    }
+
+    /**
+     * Создает поток сжатия и записывает заголовок потока.
+     * @param out выходной поток сжатых данных.
+     * @param blockSize размер блока в байтах (от 1 до {@code AppConstants.STREAM_MAX_BLOCK_SIZE}).
+     * @throws IOException если при записи заголовка произошла ошибка ввода-вывода.
+     */
+    public HfmOutputStream(OutputStream out, int blockSize) throws IOException {
+        super(out);
+        if (blockSize <= 0 || blockSize > AppConstants.STREAM_MAX_BLOCK_SIZE) {
+            throw new IllegalArgumentException("Размер блока должен быть от 1 до " + AppConstants.STREAM_MAX_BLOCK_SIZE + " байт.");
+        }
+        this.block = new byte[blockSize];
+        this.symbols = new int[blockSize];
+        this.encoded = new ByteArrayOutputStream();
+        this.streamChecksum = new CRC32C();
+        this.data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeInt(blockSize);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        block[count++] = (byte) b;
+        if (count == block.length) {
+            writeFrame();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        ensureOpen();
+        while (len > 0) {
+            int n = Math.min(len, block.length - count);
+            System.arraycopy(b, off, block, count, n);
+            count += n;
+            off += n;
+            len -= n;
+            if (count == block.length) {
+                writeFrame();
+            }
+        }
+    }
+
+    /**
+     * Записывает оставшиеся байты заданного буфера (позиция буфера перемещается в его предел).
+     * @param src буфер байтов.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    public void write(ByteBuffer src) throws IOException {
+        ensureOpen();
+        while (src.hasRemaining()) {
+            int n = Math.min(src.remaining(), block.length - count);
+            src.get(block, count, n);
+            count += n;
+            if (count == block.length) {
+                writeFrame();
+            }
+        }
+    }
+
+    /**
+     * Записывает накопленные байты неполным блоком и сбрасывает выходной поток,
+     * после чего все записанные байты могут быть прочитаны {@code HfmInputStream}.
+     * Частый вызов уменьшает степень сжатия. После {@code finish} только сбрасывает выходной поток.
+     * @throws IOException если поток закрыт, или при записи произошла ошибка ввода-вывода.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (isClosed) {
+            throw new IOException("Поток сжатия закрыт.");
+        }
+        if (!isFinished && count > 0) {
+            writeFrame();
+        }
+        out.flush();
+    }
+
+    /**
+     * Записывает накопленные байты и кадр конца потока без закрытия выходного потока
+     * (например, чтобы продолжить запись других данных в тот же поток).
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    public void finish() throws IOException {
+        if (isFinished) {
+            return;
+        }
+        ensureOpen();
+        if (count > 0) {
+            writeFrame();
+        }
+        data.writeByte(FRAME_END);
+        data.writeLong(totalLength);
+        data.writeInt(frameCount);
+        data.writeInt((int) streamChecksum.getValue());
+        isFinished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (isClosed) {
+            return;
+        }
+        try {
+            finish();
+            out.flush();
+        }
+        finally {
+            isClosed = true;
+            out.close();
+        }
+    }
+
+    /**
+     * Проверяет, что в поток можно записывать.
+     * @throws IOException если поток закрыт или завершен.
+     */
+    private void ensureOpen() throws IOException {
+        if (isClosed || isFinished) {
+            throw new IOException("Поток сжатия закрыт.");
+        }
+    }
+
+    /**
+     * Сжимает текущий блок и записывает его кадр.
+     * Если сжатый кадр не меньше исходного блока, то блок записывается без сжатия.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    private void writeFrame() throws IOException {
+        HfmHistogram histogram = HfmMode.BYTE.newHistogram();
+        for (int j = 0; j < count; ++j) {
+            symbols[j] = block[j] & 0xFF;
+            histogram.inc(symbols[j]);
+        }
+        HfmCharset hfmCharset = new HfmCharset(new HfmPackageMerge(histogram, AppConstants.DECODE_TABLE_MAX_BITS), HfmMode.BYTE);
+        encoded.reset();
+        DataOutputStream frame = new DataOutputStream(encoded);
+        hfmCharset.write(frame);
+        frame.writeLong(hfmCharset.getEncodedBitLength(histogram));
+        HfmBitWriter writer = new HfmBitWriter(encoded);
+        hfmCharset.encode(writer, symbols, count);
+        writer.flush();
+
+        CRC32C checksum = new CRC32C();
+        checksum.update(block, 0, count);
+        if (encoded.size() < count) {
+            data.writeByte(FRAME_HUFFMAN);
+            data.writeInt(count);
+            encoded.writeTo(out);
+        }
+        else {
+            data.writeByte(FRAME_STORED);
+            data.writeInt(count);
+            out.write(block, 0, count);
+        }
+        data.writeInt((int) checksum.getValue());
+        streamChecksum.update(block, 0, count);
+        totalLength += count;
+        frameCount++;
+        count = 0;
+    }
+}
@@ -0,0 +1,171 @@
+package huffman;
+
+import utils.constants.AppConstants;
+import utils.output.Display;
+import utils.output.DualOutput;
+import utils.output.Output;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Построение оптимальных длин кодов Хаффмана с ограничением максимальной длины кода (Package-merge).
+ * Символы упорядочиваются по возрастанию частотности. На каждом из {@code maxLength - 1} шагов соседние элементы
+ * предыдущего списка объединяются в пакеты (package), которые сливаются (merge) с символами в новый упорядоченный список.
+ * Из последнего списка выбираются первые {@code 2n - 2} элементов, и длина кода символа равна количеству
+ * выбранных элементов всех списков, содержащих этот символ.
+ * Выбранные элементы каждого списка образуют его начало, поэтому достаточно хранить для каждого списка
+ * только признаки элементов-символов.
+ */
+public class HfmPackageMerge implements Output {
+    /**
+     * Символы в порядке возрастания частотности.
+     */
+    private final int[] symbols;
+
+    /**
+     * Длины кодов символов.
+     */
+    private final int[] lengths;
+
+    /**
+     * Максимальная длина кода.
+     */
+    private final int maxLength;
+
+    /**
+     * Интерфейс вывода в поток длин кодов символов.
+     */
+    public final Display out = new Display(this::display, "<<< Длины кодов Хаффмана (Package-merge): ", ">>>");
+
+    /**
+     * Формирует оптимальные длины кодов символов гистограммы, не превышающие заданную максимальную длину.
+     * @param histogram гистограмма символов.
+     * @param maxLength максимальная длина кода (от 1 до 63, количество символов не должно превышать 2^maxLength).
+     */
+    public HfmPackageMerge(HfmHistogram histogram, int maxLength) {
+        if(maxLength < 1 || maxLength > 63) {
+            throw new IllegalArgumentException("Максимальная длина кода должна быть от 1 до 63 бит.");
+        }
+        int[] allSymbols = histogram.getSymbols();
+        int n = allSymbols.length;
+        if(maxLength < 31 && n > (1 << maxLength)) {
+            throw new IllegalArgumentException("Количество символов " + n + " превышает 2^" + maxLength
+                    + " - максимальное количество кодов длины " + maxLength + ".");
+        }
+        this.maxLength = maxLength;
+        this.lengths = new int[n];
+
+        // Упорядочить символы по возрастанию частотности
+        Integer[] order = new Integer[n];
+        for(int j = 0; j < n; ++j) {
+            order[j] = j;
+        }
+        Arrays.sort(order, Comparator.comparingLong(j -> histogram.get(allSymbols[j])));
+        this.symbols = new int[n];
+        long[] weights = new long[n];
+        for(int j = 0; j < n; ++j) {
+            symbols[j] = allSymbols[order[j]];
+            weights[j] = histogram.get(symbols[j]);
+        }
+
+        if(n == 1) {
+            // Единственный символ кодируется одним битом
+            lengths[0] = 1;
+        }
+        else if(n > 1) {
+            createLengths(weights);
+        }
+    }
+
+    /**
+     * Формирует длины кодов символов алгоритмом Package-merge.
+     * @param weights частотности символов в порядке возрастания.
+     */
+    private void createLengths(long[] weights) {
+        int n = weights.length;
+        // Признаки элементов-символов каждого списка (список 0 - только символы)
+        boolean[][] isLeaf = new boolean[maxLength][];
+        isLeaf[0] = new boolean[n];
+        Arrays.fill(isLeaf[0], true);
+        long[] list = weights.clone();
+        for(int level = 1; level < maxLength; ++level) {
+            int nPackages = list.length / 2;
+            long[] merged = new long[n + nPackages];
+            boolean[] leaf = new boolean[n + nPackages];
+            int j = 0;
+            int k = 0;
+            int m = 0;
+            while(j < n || k < nPackages) {
+                long packageWeight = k < nPackages ? list[2 * k] + list[2 * k + 1] : Long.MAX_VALUE;
+                // При равенстве частотностей символ помещается перед пакетом
+                if(j < n && weights[j] <= packageWeight) {
+                    merged[m] = weights[j++];
+                    leaf[m++] = true;
+                }
+                else {
+                    merged[m++] = packageWeight;
+                    k++;
+                }
+            }
+            list = merged;
+            isLeaf[level] = leaf;
+        }
+
+        // Выбрать первые 2n - 2 элементов последнего списка и развернуть пакеты в предыдущие списки
+        int count = 2 * n - 2;
+        for(int level = maxLength - 1; level >= 0; --level) {
+            int nLeaves = 0;
+            for(int j = 0; j < count; ++j) {
+                if(isLeaf[level][j]) {
+                    nLeaves++;
+                }
+            }
+            for(int j = 0; j < nLeaves; ++j) {
+                lengths[j]++;
+            }
+            count = 2 * (count - nLeaves);
+        }
+    }
+
+    /**
+     * Получает символы в порядке возрастания частотности.
+     * @return массив символов.
+     */
+    public int[] getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * Получает длины кодов символов (в порядке {@code getSymbols}).
+     * @return массив длин кодов.
+     */
+    public int[] getLengths() {
+        return lengths;
+    }
+
+    /**
+     * Получает максимальную длину кода.
+     * @return максимальная длина кода.
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+
+    // DISPLAY
+
+    @Override
+    public void display(DualOutput out) {
+        // Инициатор выводит свои верхнее и нижнее оформления сообщения и отключает их вывод в цепочке объектов.
+        String header = out.getHeader() != null ? out.getHeaderOnce() : this.out.getHeader();
+        String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
+
+        out.print(header);
+        for(int j = 0; j < symbols.length; ++j) {
+            out.print(Character.toString(symbols[j]).replace(AppConstants.UNIX_NEW_ROW, AppConstants.PRINT_NEW_ROW)
+                    + "/" + lengths[j] + " ");
+        }
+        out.println(footer);
+    }
+}
@@ -1,23 +1,45 @@
 package huffman;
 
 import utils.constants.AppConstants;
-import utils.output.DualOutput;
+import utils.input.MappedInput;
+import utils.output.ChannelOutput;
+import utils.output.FlushPolicy;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
-import java.util.Scanner;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
 
 /**
  * Процесс обработки текста по алгоритму Хаффмана:
  *      (I) Кодирование файла с исходным текстом по алгоритму Хаффмана.
  *          В результате кодирования создаются два файла:
- *              - файл кодировки Хаффмана;
- *              - файл кодированного текста.
+ *              - файл кодировки Хаффмана (таблица длин канонических кодов символов);
+ *              - файл кодированного текста (индекс блоков и упакованные битовые потоки блоков).
  *      (II) Декодирование файла с кодированным текстом с использованием файла кодировки Хаффмана.
  *           Эти два файла создаются на предыдущем этапе (I) кодирования файла с исходным текстом.
  *           В результате декодирования создается файл:
  *              файл декодированного текста.
+ * Вместо двух файлов этапа (I) можно использовать один файл-контейнер {@code HfmContainer} (.hfm) с заголовком,
+ * содержащим набор кодировки Хаффмана, и контрольными суммами блоков.
+ * Режим кодирования {@code HfmMode} задает алфавит: символы текста (CHAR) или байты файла любого содержимого (BYTE).
+ * Режим записывается в файл кодировки Хаффмана и при декодировании определяется по нему.
+ * При заданном размере блока {@code setBlockSize} текст делится на блоки, которые кодируются и декодируются
+ * параллельно в пуле из {@code parallelism} потоков (или в заданном {@code setExecutor} пуле).
  */
 public class HfmProcess {
     /**
@@ -25,21 +47,153 @@ public class HfmProcess {
      */
     private final HfmFrequency hfmFrequency;
     /**
-     * Приоритетная очередь для построения дерева Хаффмана.
+     * Набор кодировки Хаффмана.
      */
-    private final HfmQueue hfmQueue;
+    private HfmCharset hfmCharset;
 
     /**
-     * Набор кодировки Хаффмана.
+     * Количество потоков подсчета частотности символов, кодирования и декодирования блоков (1 - последовательная обработка).
      */
-    private HfmCharset hfmCharset;
+    private int parallelism;
+
+    /**
+     * Размер блока кодированного текста в символах (0 - текст кодируется одним блоком).
+     */
+    private int blockSize;
+
+    /**
+     * Ограничение максимальной длины кода Хаффмана (0 - длина кода не ограничена).
+     */
+    private int maxCodeLength;
+
+    /**
+     * Способ построения кодов Хаффмана без ограничения длины кода.
+     */
+    private HfmTreeStrategy treeStrategy;
+
+    /**
+     * Внешний пул потоков кодирования и декодирования блоков (null - пул создается на время обработки).
+     */
+    private ExecutorService executor;
+
+    /**
+     * Режим кодирования (алфавит символов).
+     */
+    private HfmMode mode;
+
+    /**
+     * Кеш наборов кодировки Хаффмана (null - набор кодировки строится для каждого текста).
+     */
+    private HfmCharsetCache charsetCache;
+
+    /**
+     * Идентификатор набора кодировки последнего кодирования в кеше (-1 - кеш не задан).
+     */
+    private int charsetId;
 
     /**
      * Создает процесс обработки текста по алгоритму Хаффмана.
      */
     public HfmProcess() {
         hfmFrequency = new HfmFrequency();
-        hfmQueue = new HfmQueue();
+        parallelism = 1;
+        mode = HfmMode.CHAR;
+        treeStrategy = HfmTreeStrategy.HEAP;
+        charsetId = -1;
+    }
+
+    /**
+     * Устанавливает режим кодирования.
+     * В режиме BYTE файл кодируется побайтно, кодировка символов не используется.
+     * @param mode режим кодирования.
+     */
+    public void setMode(HfmMode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Режим кодирования не задан.");
+        }
+        this.mode = mode;
+    }
+
+    /**
+     * Устанавливает количество потоков подсчета частотности символов, кодирования и декодирования блоков.
+     * При значении больше 1 частотная таблица формируется параллельным подсчетом областей файла, отображаемых в память,
+     * а блоки текста (см. {@code setBlockSize}) кодируются и декодируются параллельно.
+     * @param parallelism количество потоков, например, Runtime.getRuntime().availableProcessors().
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Количество потоков должно быть больше 0.");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Устанавливает размер блока кодированного текста.
+     * Каждый блок кодируется независимо и начинается с границы байта, индекс блоков записывается в начало файла.
+     * @param blockSize количество символов блока, например, {@code AppConstants.BLOCK_SIZE}
+     *                  (0 - текст кодируется одним блоком).
+     */
+    public void setBlockSize(int blockSize) {
+        if (blockSize < 0) {
+            throw new IllegalArgumentException("Размер блока не может быть отрицательным.");
+        }
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Устанавливает способ построения кодов Хаффмана без ограничения длины кода.
+     * Способы TWO_QUEUE и IN_PLACE формируют длины кодов за O(n) после сортировки частотностей без узлов дерева;
+     * коды всех способов одинаково оптимальны и могут отличаться только выбором среди равных частотностей.
+     * @param treeStrategy способ построения кодов.
+     */
+    public void setTreeStrategy(HfmTreeStrategy treeStrategy) {
+        if (treeStrategy == null) {
+            throw new IllegalArgumentException("Способ построения кодов Хаффмана не задан.");
+        }
+        this.treeStrategy = treeStrategy;
+    }
+
+    /**
+     * Устанавливает ограничение максимальной длины кода Хаффмана.
+     * При заданном ограничении длины кодов формируются алгоритмом Package-merge вместо дерева Хаффмана:
+     * коды оптимальны среди кодов не длиннее ограничения, а таблицы декодирования остаются небольшими.
+     * Ограничение записывается в файл кодировки Хаффмана.
+     * @param maxCodeLength максимальная длина кода, например, 11, 12 или 15 бит (0 - длина кода не ограничена).
+     */
+    public void setMaxCodeLength(int maxCodeLength) {
+        if (maxCodeLength < 0 || maxCodeLength > 63) {
+            throw new IllegalArgumentException("Максимальная длина кода должна быть от 1 до 63 бит (0 - без ограничения).");
+        }
+        this.maxCodeLength = maxCodeLength;
+    }
+
+    /**
+     * Устанавливает внешний пул потоков кодирования и декодирования блоков.
+     * Пул не завершается процессом. Количество одновременно обрабатываемых блоков ограничено {@code 2 * parallelism}.
+     * @param executor пул потоков (null - пул из {@code parallelism} потоков создается на время обработки).
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Устанавливает кеш наборов кодировки Хаффмана.
+     * При кодировании набор кодировки текста с почти такой же частотностью символов берется из кеша без построения
+     * дерева, а новый набор добавляется в кеш; идентификатор набора возвращает {@code getCharsetId}.
+     * Декодер того же кеша получает набор кодировки и таблицу декодирования по идентификатору
+     * ({@code executeDecoding(int, String, String)}).
+     * @param charsetCache кеш наборов кодировки (null - набор кодировки строится для каждого текста).
+     */
+    public void setCharsetCache(HfmCharsetCache charsetCache) {
+        this.charsetCache = charsetCache;
+    }
+
+    /**
+     * Получает идентификатор набора кодировки последнего кодирования в кеше наборов кодировки.
+     * @return идентификатор набора или -1, если кеш не задан.
+     */
+    public int getCharsetId() {
+        return charsetId;
     }
 
     /**
@@ -62,46 +216,302 @@ public class HfmProcess {
      * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода.
      */
     public void executeEncoding(String sourceTextFile, String huffmanCodeFile, String encodedTextFile, Charset charset) throws IOException {
+        // 1-4. Формирование набора кодировки Хаффмана
+        createCharset(sourceTextFile, charset);
+
+        // 5. Записать в файл набор кодировки Хаффмана (таблица длин канонических кодов символов)
+        hfmCharset.writeCharsetToFile(huffmanCodeFile);
+
+        // 6. Записать в файл encodedTextFile закодированный по Хаффману исходный текст
+        writeHuffmanCodeToFile(sourceTextFile, encodedTextFile, charset);
+    }
+
+    /**
+     * Запускает процесс кодирования файла с исходным текстом в файл-контейнер {@code HfmContainer}.
+     * @param sourceTextFile из этого файла читается исходный текст, который необходимо закодировать по алгоритму Хаффмана.
+     * @param containerFile в этот файл записываются набор кодировки Хаффмана и закодированный по Хаффману текст.
+     * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода.
+     */
+    public void executeEncoding(String sourceTextFile, String containerFile) throws IOException {
+        executeEncoding(sourceTextFile, containerFile, AppConstants.STD_CHARSET);
+    }
+
+    /**
+     * Запускает процесс кодирования файла с исходным текстом в файл-контейнер {@code HfmContainer}.
+     * @param sourceTextFile из этого файла читается исходный текст, который необходимо закодировать по алгоритму Хаффмана.
+     * @param containerFile в этот файл записываются набор кодировки Хаффмана и закодированный по Хаффману текст.
+     * @param charset имя стандартной кодировки символов исходного текста, например, StandardCharsets.UTF_8
+     *                (записывается в контейнер и используется при декодировании).
+     * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода.
+     */
+    public void executeEncoding(String sourceTextFile, String containerFile, Charset charset) throws IOException {
+        // 1-4. Формирование набора кодировки Хаффмана
+        createCharset(sourceTextFile, charset);
+
+        // 5-6. Записать в файл-контейнер набор кодировки Хаффмана и закодированный по Хаффману исходный текст
+        writeContainerToFile(sourceTextFile, containerFile, charset);
+    }
+
+    /**
+     * Формирует набор кодировки Хаффмана по частотной таблице символов исходного текста.
+     * @param sourceTextFile из этого файла читается исходный текст.
+     * @param charset имя стандартной кодировки символов исходного файла (для режима CHAR), например, StandardCharsets.UTF_8.
+     * @throws IOException если при открытии файла произошла ошибка ввода-вывода.
+     */
+    private void createCharset(String sourceTextFile, Charset charset) throws IOException {
         // 1. Формирование частотной таблицы
-        hfmFrequency.createFreqTable(sourceTextFile, charset);
+        hfmFrequency.createFreqTable(sourceTextFile, mode, charset, parallelism);
 //        hfmFrequency.out.display(); // вывести частотную таблицу
 
-        // 2. Первичное заполнение очереди
-        hfmQueue.setPrimaryQueue(hfmFrequency.getFreqTable());
-//        hfmQueue.out.display(); // вывести первично заполненную очередь как массив
-//        hfmQueue.outTree.display(0); // вывести первично заполненную очередь как дерево
-
-        // 3. Формирование дерева Хаффмана
-        HfmTree hfmTree = hfmQueue.createHfmTree();
-//        hfmTree.out.display(0); // вывести дерево
+        charsetId = -1;
+        if (charsetCache != null) {
+            // 2-4. Набор кодировки Хаффмана текста с почти такой же частотностью символов из кеша
+            charsetId = charsetCache.find(hfmFrequency.getFreqTable(), mode, maxCodeLength);
+            if (charsetId >= 0) {
+                hfmCharset = charsetCache.get(charsetId);
+                return;
+            }
+        }
+        if (maxCodeLength > 0) {
+            // 2-4. Формирование набора кодировки Хаффмана с ограничением длины кода (Package-merge)
+            HfmPackageMerge codeLengths = new HfmPackageMerge(hfmFrequency.getFreqTable(), maxCodeLength);
+//            codeLengths.out.display(); // вывести длины кодов символов
+            hfmCharset = new HfmCharset(codeLengths, mode);
+        }
+        else if (treeStrategy != HfmTreeStrategy.HEAP) {
+            // 2-4. Формирование набора кодировки Хаффмана по длинам кодов без дерева (две очереди или на месте)
+            HfmCodeLengths codeLengths = new HfmCodeLengths(hfmFrequency.getFreqTable(), treeStrategy);
+//            codeLengths.out.display(); // вывести длины кодов символов
+            hfmCharset = new HfmCharset(codeLengths.getSymbols(), codeLengths.getLengths(), mode);
+        }
+        else {
+            // 2-3. Формирование дерева Хаффмана в массивах (очередь - куча примитивов)
+            HfmFlatTree hfmTree = HfmFlatTree.build(hfmFrequency.getFreqTable());
+//            hfmTree.out.display(0); // вывести дерево
 
-        // 4. Формирование набора кодировки Хаффмана
-        hfmCharset = new HfmCharset(hfmTree);
+            // 4. Формирование набора кодировки Хаффмана
+            hfmCharset = new HfmCharset(hfmTree.getSymbols(), hfmTree.getCodeLengths(), mode);
+        }
 //        hfmCharset.out.display(); // вывести хеш-таблицу с набором символов кодировки Хаффмана
 //        hfmCharset.outHuffman.display(); // вывести набор кодировки Хаффмана
-
-        // 5. Записать в файл набор кодировки Хаффмана
-        hfmCharset.outHuffman.display(huffmanCodeFile, charset);
-
-        // 6. Записать в файл encodedTextFile закодированный по Хаффману исходный текст
-        writeHuffmanCodeToFile(hfmFrequency.getSourceText(), encodedTextFile, charset);
+        if (charsetCache != null) {
+            charsetId = charsetCache.put(hfmFrequency.getFreqTable(), hfmCharset);
+        }
     }
 
     /**
      * Записывает в файл закодированный текст по Хаффману.
-     * @param sourceText исходный текст, который необходимо закодировать.
+     * Исходный текст повторно читается из файла блоками по {@code AppConstants.CHUNK_SIZE} символов
+     * и кодируется блок за блоком (второй проход потокового кодирования).
+     * Файл содержит индекс блоков {@code HfmBlockIndex} и упакованные в байты коды Хаффмана блоков.
+     * Если размер блока не задан, то текст кодируется одним блоком, длина которого известна заранее.
+     * @param sourceTextFile из этого файла читается исходный текст, который необходимо закодировать.
      * @param encodedTextFile в этот файл записывается закодированный по Хаффману текст.
-     * @param charset имя стандартной кодировки символов файлов, например, StandardCharsets.UTF_8.
+     * @param charset имя стандартной кодировки символов исходного файла (для режима CHAR), например, StandardCharsets.UTF_8.
      * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода.
      */
-    public void writeHuffmanCodeToFile(StringBuilder sourceText, String encodedTextFile, Charset charset) throws IOException {
-        try(DualOutput out = new DualOutput(encodedTextFile, charset)) {
-            for (int j = 0; j < sourceText.length(); ++j) {
-                out.print(hfmCharset.getHash().get(String.valueOf(sourceText.charAt(j))));
+    public void writeHuffmanCodeToFile(String sourceTextFile, String encodedTextFile, Charset charset) throws IOException {
+        if (blockSize > 0) {
+            writeBlocksToFile(sourceTextFile, encodedTextFile, charset);
+            return;
+        }
+        int[] chunk = new int[AppConstants.CHUNK_SIZE];
+        // Байты кодов выводятся в канал файла через прямой буфер без промежуточного BufferedOutputStream
+        try(ChannelOutput channelOut = new ChannelOutput(Path.of(encodedTextFile), AppConstants.STD_CHARSET);
+            HfmSymbolReader in = new HfmSymbolReader(sourceTextFile, mode, charset);
+            HfmBitWriter writer = new HfmBitWriter(channelOut.asOutputStream())) {
+            DataOutputStream out = new DataOutputStream(channelOut.asOutputStream());
+            // Индекс из одного блока: точная длина кодированного текста в битах и количество символов
+            HfmBlockIndex index = new HfmBlockIndex(1);
+            index.set(0, 0, hfmCharset.getEncodedBitLength(hfmFrequency.getFreqTable()), hfmFrequency.getSourceLength());
+            index.write(out);
+            int nElem;
+            while ((nElem = in.read(chunk)) >= 0) {
+                encodeSymbols(writer, chunk, nElem);
             }
         }
     }
 
+    /**
+     * Записывает в файл закодированный текст по Хаффману, разделенный на блоки по {@code blockSize} символов.
+     * Индекс блоков записывается в начало файла после кодирования всех блоков (размер индекса известен заранее).
+     * @param sourceTextFile из этого файла читается исходный текст, который необходимо закодировать.
+     * @param encodedTextFile в этот файл записывается закодированный по Хаффману текст.
+     * @param charset имя стандартной кодировки символов исходного файла (для режима CHAR), например, StandardCharsets.UTF_8.
+     * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода.
+     */
+    private void writeBlocksToFile(String sourceTextFile, String encodedTextFile, Charset charset) throws IOException {
+        HfmBlockIndex index = new HfmBlockIndex(getBlockCount());
+        try(HfmSymbolReader in = new HfmSymbolReader(sourceTextFile, mode, charset);
+            FileChannel channel = FileChannel.open(Path.of(encodedTextFile), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeBlocks(in, sourceTextFile, channel, HfmBlockIndex.getSize(index.getBlockCount()), index);
+            ByteArrayOutputStream header = new ByteArrayOutputStream();
+            index.write(new DataOutputStream(header));
+            writeFully(channel, ByteBuffer.wrap(header.toByteArray()), 0);
+        }
+    }
+
+    /**
+     * Записывает в файл-контейнер {@code HfmContainer} набор кодировки Хаффмана и закодированный текст.
+     * Файл записывается за один последовательный проход по исходному тексту: заголовок с незаполненным индексом блоков,
+     * затем блоки (одним потоком, если размер блока не задан, иначе блоки по {@code blockSize} символов кодируются
+     * параллельно), после чего заголовок с длинами и контрольными суммами блоков перезаписывается на своем месте.
+     * @param sourceTextFile из этого файла читается исходный текст, который необходимо закодировать.
+     * @param containerFile в этот файл записываются набор кодировки Хаффмана и закодированный текст.
+     * @param charset имя стандартной кодировки символов исходного файла (для режима CHAR), например, StandardCharsets.UTF_8.
+     * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода.
+     */
+    public void writeContainerToFile(String sourceTextFile, String containerFile, Charset charset) throws IOException {
+        HfmBlockIndex index = new HfmBlockIndex(blockSize > 0 ? getBlockCount() : 1);
+        HfmContainer container = new HfmContainer(hfmCharset, charset, hfmFrequency.getSourceLength(), index);
+        byte[] header = container.toByteArray();
+        try(HfmSymbolReader in = new HfmSymbolReader(sourceTextFile, mode, charset);
+            FileChannel channel = FileChannel.open(Path.of(containerFile), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, ByteBuffer.wrap(header), 0);
+            if (blockSize > 0) {
+                writeBlocks(in, sourceTextFile, channel, header.length, index);
+            }
+            else {
+                writeSingleBlock(in, channel, header.length, index);
+            }
+            writeFully(channel, ByteBuffer.wrap(container.toByteArray()), 0);
+        }
+    }
+
+    /**
+     * Получает количество блоков по {@code blockSize} символов исходного текста.
+     * @return количество блоков.
+     */
+    private int getBlockCount() {
+        long sourceLength = hfmFrequency.getSourceLength();
+        long blockCount = (sourceLength + blockSize - 1) / blockSize;
+        if (blockCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Размер блока слишком мал для файла: " + blockSize);
+        }
+        return (int) blockCount;
+    }
+
+    /**
+     * Кодирует исходный текст одним блоком в канал файла с заданной позиции, вычисляя контрольную сумму CRC32C блока.
+     * @param in поток чтения символов исходного текста.
+     * @param channel канал файла.
+     * @param dataOffset позиция начала кодированных данных в файле.
+     * @param index индекс из одного блока (заполняется).
+     * @throws IOException если при чтении или записи произошла ошибка ввода-вывода.
+     */
+    private void writeSingleBlock(HfmSymbolReader in, FileChannel channel, long dataOffset, HfmBlockIndex index) throws IOException {
+        int[] chunk = new int[AppConstants.CHUNK_SIZE];
+        CRC32C checksum = new CRC32C();
+        channel.position(dataOffset);
+        // Поток не закрывается, чтобы не закрыть канал файла: битовый поток сбрасывается в канал явно
+        ChannelOutput channelOut = new ChannelOutput(channel, AppConstants.STD_CHARSET,
+                AppConstants.CHANNEL_BUFFER_SIZE, FlushPolicy.ON_FULL);
+        HfmBitWriter writer = new HfmBitWriter(new CheckedOutputStream(channelOut.asOutputStream(), checksum));
+        long count = 0;
+        int nElem;
+        while ((nElem = in.read(chunk)) >= 0) {
+            encodeSymbols(writer, chunk, nElem);
+            count += nElem;
+        }
+        writer.flush();
+        index.set(0, 0, writer.getBitLength(), count);
+        index.setChecksum(0, (int) checksum.getValue());
+    }
+
+    /**
+     * Записывает в канал файла закодированный текст, разделенный на блоки по {@code blockSize} символов.
+     * Блоки читаются последовательно и кодируются параллельно, закодированные блоки записываются по порядку.
+     * @param in поток чтения символов исходного текста.
+     * @param sourceTextFile файл исходного текста (для сообщения об ошибке).
+     * @param channel канал файла.
+     * @param dataOffset позиция начала кодированных данных в файле.
+     * @param index индекс блоков (заполняется, включая контрольные суммы CRC32C блоков).
+     * @throws IOException если при чтении или записи произошла ошибка ввода-вывода.
+     */
+    private void writeBlocks(HfmSymbolReader in, String sourceTextFile, FileChannel channel, long dataOffset,
+                             HfmBlockIndex index) throws IOException {
+        long sourceLength = hfmFrequency.getSourceLength();
+        int blockCount = index.getBlockCount();
+        ExecutorService pool = executor != null ? executor : Executors.newFixedThreadPool(parallelism);
+        ArrayDeque<Future<HfmBlock>> pending = new ArrayDeque<>();
+        try {
+            long bitOffset = 0;
+            int nWritten = 0;
+            for (int j = 0; j < blockCount; ++j) {
+                int[] symbols = new int[(int) Math.min(blockSize, sourceLength - (long) j * blockSize)];
+                if (in.readFully(symbols) != symbols.length) {
+                    throw new IOException("Файл " + sourceTextFile + " изменился во время кодирования.");
+                }
+                pending.add(pool.submit(() -> encodeBlock(symbols)));
+                if (pending.size() >= 2 * parallelism) {
+                    bitOffset = writeEncodedBlock(channel, dataOffset, index, nWritten++, bitOffset, await(pending.poll()));
+                }
+            }
+            while (!pending.isEmpty()) {
+                bitOffset = writeEncodedBlock(channel, dataOffset, index, nWritten++, bitOffset, await(pending.poll()));
+            }
+        }
+        finally {
+            for (Future<HfmBlock> future : pending) {
+                future.cancel(true);
+            }
+            if (pool != executor) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Записывает закодированный блок в канал файла и заполняет его запись в индексе блоков.
+     * @param channel канал файла.
+     * @param dataOffset позиция начала кодированных данных в файле.
+     * @param index индекс блоков.
+     * @param block номер блока.
+     * @param bitOffset смещение блока в битах от начала кодированных данных.
+     * @param hfmBlock закодированный блок.
+     * @return смещение следующего блока в битах.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    private static long writeEncodedBlock(FileChannel channel, long dataOffset, HfmBlockIndex index, int block, long bitOffset,
+                                           HfmBlock hfmBlock) throws IOException {
+        index.set(block, bitOffset, hfmBlock.bitLength, hfmBlock.symbolCount);
+        index.setChecksum(block, hfmBlock.checksum);
+        writeFully(channel, ByteBuffer.wrap(hfmBlock.data), dataOffset + (bitOffset >>> 3));
+        return bitOffset + ((long) hfmBlock.data.length << 3);
+    }
+
+    /**
+     * Кодирует блок символов в отдельный битовый поток (выполняется в пуле потоков).
+     * @param symbols символы блока.
+     * @return закодированный блок.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    private HfmBlock encodeBlock(int[] symbols) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long bitLength;
+        try(HfmBitWriter writer = new HfmBitWriter(out)) {
+            encodeSymbols(writer, symbols, symbols.length);
+            bitLength = writer.getBitLength();
+        }
+        byte[] data = out.toByteArray();
+        CRC32C checksum = new CRC32C();
+        checksum.update(data);
+        return new HfmBlock(data, bitLength, symbols.length, (int) checksum.getValue());
+    }
+
+    /**
+     * Записывает коды Хаффмана заданных символов в битовый поток.
+     * @param writer битовый поток записи.
+     * @param symbols символы.
+     * @param count количество символов.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    private void encodeSymbols(HfmBitWriter writer, int[] symbols, int count) throws IOException {
+        hfmCharset.encode(writer, symbols, count);
+    }
+
     /**
      * Запускает процесс Декодирования текстового файла.
      * @param huffmanCodeFile из этого файла читается набор кодировки Хаффмана для всех символов текста (файл получен в {@code executeEncoding}).
@@ -111,11 +521,10 @@ public class HfmProcess {
      * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода.
      */
     public void executeDecoding(String huffmanCodeFile, String encodedTextFile, String decodedTextFile, Charset charset) throws IOException {
-        if(hfmCharset == null) {
-            hfmCharset = new HfmCharset();
-        }
+        // Новый объект: прежний набор кодировки может находиться в кеше наборов кодировки
+        hfmCharset = new HfmCharset();
         // 1. Прочитать набор кодировки Хаффмана из файла
-        hfmCharset.readCharsetFromFile(huffmanCodeFile, charset);
+        hfmCharset.readCharsetFromFile(huffmanCodeFile);
 //        hfmCharset.out.display(); // вывести набор символов кодировки Хаффмана
 
         // 2. Записать в файл decodedTextFile декодированный текст
@@ -133,38 +542,368 @@ public class HfmProcess {
         executeDecoding(huffmanCodeFile, encodedTextFile, decodedTextFile, AppConstants.STD_CHARSET);
     }
 
+    /**
+     * Запускает процесс декодирования текстового файла с набором кодировки из кеша наборов кодировки.
+     * Набор кодировки и таблица декодирования берутся из кеша по идентификатору без чтения файла кодировки.
+     * @param charsetId идентификатор набора кодировки в кеше (получен {@code getCharsetId} после кодирования).
+     * @param encodedTextFile из этого файла читается закодированный по Хаффману текст (файл получен в {@code executeEncoding}).
+     * @param decodedTextFile в этот файл записывается декодированный текст.
+     * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода.
+     */
+    public void executeDecoding(int charsetId, String encodedTextFile, String decodedTextFile) throws IOException {
+        executeDecoding(charsetId, encodedTextFile, decodedTextFile, AppConstants.STD_CHARSET);
+    }
+
+    /**
+     * Запускает процесс декодирования текстового файла с набором кодировки из кеша наборов кодировки.
+     * Набор кодировки и таблица декодирования берутся из кеша по идентификатору без чтения файла кодировки.
+     * @param charsetId идентификатор набора кодировки в кеше (получен {@code getCharsetId} после кодирования).
+     * @param encodedTextFile из этого файла читается закодированный по Хаффману текст (файл получен в {@code executeEncoding}).
+     * @param decodedTextFile в этот файл записывается декодированный текст.
+     * @param charset имя стандартной кодировки символов файлов, например, StandardCharsets.UTF_8.
+     * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода.
+     */
+    public void executeDecoding(int charsetId, String encodedTextFile, String decodedTextFile, Charset charset) throws IOException {
+        if (charsetCache == null) {
+            throw new IllegalArgumentException("Кеш наборов кодировки не задан.");
+        }
+        // 1. Получить набор кодировки Хаффмана и таблицу декодирования из кеша
+        hfmCharset = charsetCache.get(charsetId);
+        HfmDecodeTable decodeTable = charsetCache.getDecodeTable(charsetId);
+
+        // 2. Записать в файл decodedTextFile декодированный текст
+        try(MappedInput in = new MappedInput(Path.of(encodedTextFile))) {
+            HfmBlockIndex index = HfmBlockIndex.read(new DataInputStream(in.asInputStream()), false, in.size());
+            writeDecodedTextToFile(in, encodedTextFile, HfmBlockIndex.getSize(index.getBlockCount()), index,
+                    decodeTable, decodedTextFile, charset);
+        }
+    }
+
     /**
      * Записывает декодированный текст в файл.
+     * Символы декодируются блоками по {@code AppConstants.CHUNK_SIZE} и записываются в режиме кодирования
+     * из набора кодировки Хаффмана (в режиме BYTE - байты без кодировки символов).
+     * Если кодированный текст содержит несколько блоков и {@code parallelism} больше 1, то блоки декодируются параллельно.
      * @param encodeFileName из этого файла читается закодированный по Хаффману текст.
      * @param decodeFileName в этот файл записывается декодированный текст.
      * @param charset имя стандартной кодировки символов файлов, например, StandardCharsets.UTF_8.
      * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода.
      */
     public void writeDecodedTextToFile(String encodeFileName, String decodeFileName, Charset charset) throws IOException {
-        Scanner in = new Scanner(Path.of(encodeFileName));
-        StringBuilder text = new StringBuilder();
-        if(in.hasNext()) {
-            text.append(in.nextLine());
-        }
-
-        try(DualOutput out = new DualOutput(decodeFileName, charset)) {
-            while (!text.isEmpty()) {
-                int offset = hfmCharset.getMinOffset();
-                int maxOffset = hfmCharset.getMaxOffset();
-                String code = text.substring(0, offset);
-                String value = hfmCharset.getHash().get(code);
-                while (value == null) {
-                    offset++;
-                    if (offset > maxOffset) {
-                        System.out.println("Offset out of bounds for length !!!");
-                        return;
-                    }
-                    code = text.substring(0, offset);
-                    value = hfmCharset.getHash().get(code);
+        try(MappedInput in = new MappedInput(Path.of(encodeFileName))) {
+            // Заголовок: индекс блоков
+            HfmBlockIndex index = HfmBlockIndex.read(new DataInputStream(in.asInputStream()), false, in.size());
+            writeDecodedTextToFile(in, encodeFileName, HfmBlockIndex.getSize(index.getBlockCount()), index,
+                    hfmCharset.createDecodeTable(), decodeFileName, charset);
+        }
+    }
+
+    /**
+     * Запускает процесс декодирования файла-контейнера {@code HfmContainer}.
+     * Набор кодировки Хаффмана, режим кодирования и кодировка символов текста читаются из заголовка контейнера,
+     * контрольные суммы заголовка и блоков проверяются до декодирования.
+     * @param containerFile из этого файла читаются набор кодировки Хаффмана и закодированный текст (файл получен в {@code executeEncoding}).
+     * @param decodedTextFile в этот файл записывается декодированный текст.
+     * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода, или контейнер поврежден.
+     */
+    public void executeDecoding(String containerFile, String decodedTextFile) throws IOException {
+        try(MappedInput in = new MappedInput(Path.of(containerFile))) {
+            // 1. Прочитать заголовок контейнера с набором кодировки Хаффмана
+            HfmContainer container = HfmContainer.read(in.asInputStream());
+            hfmCharset = container.getHfmCharset();
+//            container.out.display(); // вывести заголовок контейнера
+
+            // 2. Записать в файл decodedTextFile декодированный текст
+            Charset charset = container.getCharset() != null ? container.getCharset() : AppConstants.STD_CHARSET;
+            writeDecodedTextToFile(in, containerFile, in.position(), container.getIndex(), hfmCharset.createDecodeTable(),
+                    decodedTextFile, charset);
+        }
+    }
+
+    /**
+     * Записывает декодированный текст в файл: последовательно из окон отображения файла в память или,
+     * если кодированный текст содержит несколько блоков и {@code parallelism} больше 1, параллельно.
+     * @param in файл кодированного текста, отображенный в память.
+     * @param encodeFileName имя файла кодированного текста (для параллельного чтения блоков).
+     * @param dataOffset позиция начала кодированных данных в файле.
+     * @param index индекс блоков.
+     * @param decodeTable таблица декодирования.
+     * @param decodeFileName в этот файл записывается декодированный текст.
+     * @param charset кодировка символов файла (для режима CHAR).
+     * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода.
+     */
+    private void writeDecodedTextToFile(MappedInput in, String encodeFileName, long dataOffset, HfmBlockIndex index,
+                                        HfmDecodeTable decodeTable, String decodeFileName, Charset charset) throws IOException {
+        boolean parallel = parallelism > 1 && index.getBlockCount() > 1
+                && (hfmCharset.getMode() == HfmMode.BYTE || HfmFrequencyTask.isSupported(charset));
+        if (!parallel) {
+            writeDecodedTextToFile(in, dataOffset, index, decodeTable, decodeFileName, charset);
+            return;
+        }
+        try(FileChannel channel = FileChannel.open(Path.of(encodeFileName), StandardOpenOption.READ)) {
+            writeDecodedBlocksToFile(channel, dataOffset, index, decodeTable, decodeFileName, charset);
+        }
+    }
+
+    /**
+     * Записывает декодированный текст в файл, последовательно декодируя блоки кодированного текста
+     * непосредственно из окон отображения файла в память.
+     * @param in файл кодированного текста, отображенный в память.
+     * @param dataOffset позиция начала кодированных данных в файле.
+     * @param index индекс блоков.
+     * @param decodeTable таблица декодирования.
+     * @param decodeFileName в этот файл записывается декодированный текст.
+     * @param charset кодировка символов файла (для режима CHAR).
+     * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода.
+     */
+    private void writeDecodedTextToFile(MappedInput in, long dataOffset, HfmBlockIndex index, HfmDecodeTable decodeTable,
+                                        String decodeFileName, Charset charset) throws IOException {
+        int[] chunk = new int[AppConstants.CHUNK_SIZE];
+        try(HfmSymbolWriter out = new HfmSymbolWriter(decodeFileName, hfmCharset.getMode(), charset)) {
+            for (int j = 0; j < index.getBlockCount(); ++j) {
+                if (index.hasChecksums()) {
+                    in.position(dataOffset + index.getByteOffset(j));
+                    CRC32C checksum = new CRC32C();
+                    in.update(checksum, (index.getBitLength(j) + 7) >>> 3);
+                    checkChecksum(index, j, checksum);
+                }
+                // Битовый поток читает байты с опережением, поэтому позиция каждого блока устанавливается по индексу
+                in.position(dataOffset + index.getByteOffset(j));
+                HfmBitReader reader = new HfmBitReader(in.asInputStream(), index.getBitLength(j));
+                long count = 0;
+                int nElem;
+                while ((nElem = decodeTable.decode(reader, chunk)) > 0) {
+                    out.write(chunk, nElem);
+                    count += nElem;
+                }
+                checkBlock(index, j, count);
+            }
+        }
+    }
+
+    /**
+     * Записывает декодированный текст в файл, параллельно декодируя блоки кодированного текста.
+     * В режиме BYTE позиция блока в выходном файле равна номеру его первого символа, и каждый блок
+     * записывается на свое место в потоке пула. В режиме CHAR блок преобразуется в байты кодировки в потоке пула,
+     * а байты блоков записываются по порядку.
+     * @param channel канал файла кодированного текста.
+     * @param dataOffset позиция начала кодированных данных в файле.
+     * @param index индекс блоков.
+     * @param decodeTable таблица декодирования.
+     * @param decodeFileName в этот файл записывается декодированный текст.
+     * @param charset кодировка символов файла (для режима CHAR, UTF-8 или однобайтовая).
+     * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода.
+     */
+    private void writeDecodedBlocksToFile(FileChannel channel, long dataOffset, HfmBlockIndex index, HfmDecodeTable decodeTable,
+                                          String decodeFileName, Charset charset) throws IOException {
+        ExecutorService pool = executor != null ? executor : Executors.newFixedThreadPool(parallelism);
+        ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+        try(FileChannel output = FileChannel.open(Path.of(decodeFileName), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long symbolOffset = 0;
+            long position = 0;
+            for (int j = 0; j < index.getBlockCount(); ++j) {
+                int block = j;
+                long blockOffset = symbolOffset;
+                pending.add(pool.submit(() -> decodeBlock(channel, dataOffset, index, block, decodeTable, output, blockOffset, charset)));
+                symbolOffset += index.getSymbolCount(j);
+                if (pending.size() >= 2 * parallelism) {
+                    position += writeDecodedBlock(output, await(pending.poll()), position);
                 }
-                out.print(value);
-                text.delete(0, offset);
             }
+            while (!pending.isEmpty()) {
+                position += writeDecodedBlock(output, await(pending.poll()), position);
+            }
+        }
+        finally {
+            for (Future<byte[]> future : pending) {
+                future.cancel(true);
+            }
+            if (pool != executor) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Декодирует блок кодированного текста (выполняется в пуле потоков).
+     * @param channel канал файла кодированного текста.
+     * @param dataOffset позиция начала кодированных данных в файле.
+     * @param index индекс блоков.
+     * @param block номер блока.
+     * @param decodeTable таблица декодирования.
+     * @param output канал выходного файла.
+     * @param symbolOffset номер первого символа блока.
+     * @param charset кодировка символов файла (для режима CHAR).
+     * @return байты блока текста в кодировке (режим CHAR) или null, если блок уже записан на свое место (режим BYTE).
+     * @throws IOException если при чтении или записи произошла ошибка ввода-вывода, или блок некорректен.
+     */
+    private byte[] decodeBlock(FileChannel channel, long dataOffset, HfmBlockIndex index, int block, HfmDecodeTable decodeTable,
+                               FileChannel output, long symbolOffset, Charset charset) throws IOException {
+        long bitLength = index.getBitLength(block);
+        long symbolCount = index.getSymbolCount(block);
+        if (symbolCount >= Integer.MAX_VALUE || (bitLength + 7) >>> 3 > Integer.MAX_VALUE) {
+            throw new IOException("Слишком большой блок " + block + " для параллельного декодирования.");
+        }
+        byte[] data = new byte[(int) ((bitLength + 7) >>> 3)];
+        readFully(channel, ByteBuffer.wrap(data), dataOffset + index.getByteOffset(block));
+        if (index.hasChecksums()) {
+            CRC32C checksum = new CRC32C();
+            checksum.update(data);
+            checkChecksum(index, block, checksum);
+        }
+        HfmBitReader reader = new HfmBitReader(new ByteArrayInputStream(data), bitLength);
+        int[] symbols = new int[(int) symbolCount + 1];
+        int count = decodeTable.decode(reader, symbols);
+        if (reader.getRemaining() != 0) {
+            throw new IOException("Количество декодированных символов блока " + block + " больше указанного в индексе.");
+        }
+        checkBlock(index, block, count);
+        if (hfmCharset.getMode() == HfmMode.BYTE) {
+            byte[] bytes = new byte[count];
+            for (int j = 0; j < count; ++j) {
+                bytes[j] = (byte) symbols[j];
+            }
+            writeFully(output, ByteBuffer.wrap(bytes), symbolOffset);
+            return null;
+        }
+        return new String(symbols, 0, count).getBytes(charset);
+    }
+
+    /**
+     * Записывает байты декодированного блока текста по порядку.
+     * @param output канал выходного файла.
+     * @param bytes байты блока (null, если блок уже записан на свое место).
+     * @param position позиция записи.
+     * @return количество записанных байтов.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    private static long writeDecodedBlock(FileChannel output, byte[] bytes, long position) throws IOException {
+        if (bytes == null) {
+            return 0;
+        }
+        writeFully(output, ByteBuffer.wrap(bytes), position);
+        return bytes.length;
+    }
+
+    /**
+     * Проверяет, что количество декодированных символов блока совпадает с индексом.
+     * @param index индекс блоков.
+     * @param block номер блока.
+     * @param count количество декодированных символов.
+     * @throws IOException если количество символов не совпадает.
+     */
+    private static void checkBlock(HfmBlockIndex index, int block, long count) throws IOException {
+        if (count != index.getSymbolCount(block)) {
+            throw new IOException("Количество декодированных символов блока " + block + " не совпадает с индексом.");
+        }
+    }
+
+    /**
+     * Проверяет, что контрольная сумма CRC32C байтов блока совпадает с индексом.
+     * @param index индекс блоков.
+     * @param block номер блока.
+     * @param checksum контрольная сумма, вычисленная по байтам блока.
+     * @throws IOException если контрольная сумма не совпадает.
+     */
+    private static void checkChecksum(HfmBlockIndex index, int block, CRC32C checksum) throws IOException {
+        if ((int) checksum.getValue() != index.getChecksum(block)) {
+            throw new IOException("Контрольная сумма блока " + block + " не совпадает с индексом.");
+        }
+    }
+
+    /**
+     * Ожидает результат задачи пула потоков.
+     * @param future задача.
+     * @return результат задачи.
+     * @throws IOException если задача завершилась ошибкой ввода-вывода, или ожидание прервано.
+     */
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Обработка блоков прервана.");
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Читает байты канала с заданной позиции до заполнения буфера.
+     * @param channel канал файла.
+     * @param buffer буфер.
+     * @param position позиция чтения.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода, или файл короче ожидаемого.
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int nRead = channel.read(buffer, position);
+            if (nRead < 0) {
+                throw new IOException("Неожиданный конец кодированного потока.");
+            }
+            position += nRead;
+        }
+    }
+
+    /**
+     * Записывает все байты буфера в канал с заданной позиции.
+     * @param channel канал файла.
+     * @param buffer буфер.
+     * @param position позиция записи.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Закодированный блок текста.
+     */
+    private static final class HfmBlock {
+        /**
+         * Упакованные в байты коды Хаффмана блока.
+         */
+        private final byte[] data;
+
+        /**
+         * Точная длина блока в битах.
+         */
+        private final long bitLength;
+
+        /**
+         * Количество символов блока.
+         */
+        private final long symbolCount;
+
+        /**
+         * Контрольная сумма CRC32C байтов блока.
+         */
+        private final int checksum;
+
+        /**
+         * Создает закодированный блок текста.
+         * @param data упакованные в байты коды Хаффмана.
+         * @param bitLength точная длина в битах.
+         * @param symbolCount количество символов.
+         * @param checksum контрольная сумма CRC32C байтов блока.
+         */
+        private HfmBlock(byte[] data, long bitLength, long symbolCount, int checksum) {
+            this.data = data;
+            this.bitLength = bitLength;
+            this.symbolCount = symbolCount;
+            this.checksum = checksum;
         }
     }
 }
@@ -1,21 +1,25 @@
 package huffman;
 
-import arrayHeap.ANode;
+import arrayHeap.LongHeap;
 import binarySearchTree.BSNode;
-import hashTable.LHash;
-import linkedList.LList;
-import linkedList.LNode;
-import priorityQueue.PQueue;
+import utils.constants.AppConstants;
 import utils.output.*;
 
 /**
  * Приоритетная очередь для формирования дерева Хаффмана (Huffman Priority Queue).
+ * Очередь основана на d-арной куче примитивов: ключ - частотность (вес) дерева, данные - индекс дерева в массиве деревьев.
+ * Начальное заполнение очереди символами выполняется за O(n) (heapify).
  */
 public class HfmQueue implements Output, IntOutput {
     /**
-     * Приоритетная очередь.
+     * Приоритетная куча (min-Heap) весов деревьев.
      */
-    private PQueue<Integer, HfmTree> queue;
+    private LongHeap heap;
+
+    /**
+     * Массив деревьев Хаффмана, индексируемый данными элементов кучи.
+     */
+    private HfmTree[] trees;
 
     /**
      * Интерфейс вывода в поток приоритетной очереди как массив.
@@ -31,51 +35,53 @@ public class HfmQueue implements Output, IntOutput {
      * Создает пустую приоритетную очередь для формирования дерева Хаффмана.
      */
     public HfmQueue() {
-        queue = new PQueue<>();
+        heap = new LongHeap(AppConstants.HEAP_ARITY, false);
+        trees = new HfmTree[0];
     }
 
     /**
      * Первично заполняет приоритетную очередь деревьями.
      * Очередь заполняется деревьями с одним корневым узлом для каждого символа частотной таблицы символов.
      * Заполнение каждого корневого узла происходит парными значениями: ключ - это частотность символа; данные - это символ.
-     * @param hashText предварительно заполненная частотная таблица символов на основе хеш-таблицы.
-     *                 Частотная таблица содержит парные значения: ключ - это символ текста и данные - частотность символа.
+     * Куча строится одним проходом по массиву весов, а не последовательными вставками.
+     * @param histogram предварительно заполненная частотная таблица символов (гистограмма символов).
      */
-    public void setPrimaryQueue(LHash<String, Integer> hashText) {
-        LList<String, Integer>[] array = hashText.getHash();
-        for (LList<String, Integer> list : array) {
-            if (list != null) {
-                LNode<String, Integer> current = list.getFirst();
-                while (current != null) {
-                    // Создать дерево Хаффмана
-                    HfmTree huffTree = new HfmTree();
-                    // Добавить в дерево корневой узел: ключ - это частотность символа; данные - это символ
-                    huffTree.add(current.getValue(), current.getKey());
-                    // Добавить в очередь парное значение: ключ - это частотность символа; данные - это дерево Хаффмана с одним корневым узлом
-                    queue.add(current.getValue(), huffTree);
-                    current = current.getNext();
-                }
-            }
+    public void setPrimaryQueue(HfmHistogram histogram) {
+        int[] symbols = histogram.getSymbols();
+        int n = symbols.length;
+        // Для n листьев формируется не больше n - 1 объединенных деревьев
+        trees = new HfmTree[Math.max(1, 2 * n - 1)];
+        long[] keys = new long[Math.max(1, n)];
+        int[] items = new int[Math.max(1, n)];
+        for (int j = 0; j < n; ++j) {
+            long count = histogram.get(symbols[j]);
+            // Создать дерево Хаффмана
+            HfmTree huffTree = new HfmTree();
+            // Добавить в дерево корневой узел: ключ - это частотность символа; данные - это символ
+            huffTree.add(count, Character.toString(symbols[j]));
+            trees[j] = huffTree;
+            // Добавить в очередь парное значение: ключ - это частотность символа; данные - это индекс дерева
+            keys[j] = count;
+            items[j] = j;
         }
+        heap = new LongHeap(keys, items, n, AppConstants.HEAP_ARITY, false);
     }
 
     /**
-     * Объединяет два заданных узла очереди.
-     * Новый объединенный узел содержит новое объединенное дерево Хаффмана, у которого корневой узел имеет потомков на основе заданных узлов.
-     * @param node1 первый узел.
-     * @param node2 второй узел.
-     * @return новый родительский узел с объединенным деревом Хаффмана.
+     * Объединяет два заданных дерева.
+     * Новое объединенное дерево Хаффмана имеет корневой узел с потомками на основе корневых узлов заданных деревьев.
+     * @param tree1 первое дерево.
+     * @param tree2 второе дерево.
+     * @return новое объединенное дерево Хаффмана.
      */
-    public ANode<Integer, HfmTree> mergeNodes(ANode<Integer, HfmTree> node1, ANode<Integer, HfmTree> node2) {
+    public HfmTree mergeTrees(HfmTree tree1, HfmTree tree2) {
         HfmTree huffTree = new HfmTree();
         // Значение ключа нового узла формируется как сумма значений ключей двух заданных узлов
-        BSNode<Integer, String> root = huffTree.add(node1.getKey() + node2.getKey(), "@", true);
-        // Заданные узлы становятся потомками нового узла
-        root.setLeftChild(node1.getValue().getHfmTreeRoot()); //getHfmTree().getRoot());
-        root.setRightChild(node2.getValue().getHfmTreeRoot());
-        // Создать новый родительский узел с данными на основе Дерева Хаффмана
-        ANode<Integer, HfmTree> newNode = new ANode<>(root.getKey(), huffTree);
-        return newNode;
+        BSNode<Long, String> root = huffTree.add(tree1.getHfmTreeRoot().getKey() + tree2.getHfmTreeRoot().getKey(), "@", true);
+        // Корневые узлы заданных деревьев становятся потомками нового узла
+        root.setLeftChild(tree1.getHfmTreeRoot());
+        root.setRightChild(tree2.getHfmTreeRoot());
+        return huffTree;
     }
 
     /**
@@ -84,18 +90,22 @@ public class HfmQueue implements Output, IntOutput {
      * @return дерево Хаффмана.
      */
     public HfmTree createHfmTree() {
+        int next = heap.size();
         // Пока очередь содержит больше одного элемента
-        while(queue.size() > 1) {
-            // Получить корневой узел из очереди
-            ANode<Integer, HfmTree> node1 = queue.poll();
-            // Еще раз получить корневой узел из очереди
-            ANode<Integer, HfmTree> node2 = queue.poll();
-            // Объединить эти два узла
-            ANode<Integer, HfmTree> mrgNode = mergeNodes(node1, node2);
-            queue.add(mrgNode.getKey(), mrgNode.getValue());
+        while(heap.size() > 1) {
+            // Извлечь корневой элемент из очереди
+            long key1 = heap.getFirstKey();
+            int item1 = heap.remove();
+            // Второй корневой элемент заменяется объединенным деревом без отдельной вставки
+            long key2 = heap.getFirstKey();
+            int item2 = heap.getFirstItem();
+            trees[next] = mergeTrees(trees[item1], trees[item2]);
+            trees[item1] = null;
+            trees[item2] = null;
+            heap.replaceFirst(key1 + key2, next++);
         }
         // В очереди остался единственный элемент содержащий объединенное дерево Хаффмана
-        return queue.getFirstValue();
+        return getHfmTree();
     }
 
     /**
@@ -104,7 +114,7 @@ public class HfmQueue implements Output, IntOutput {
      * @return дерево Хаффмана.
      */
     public HfmTree getHfmTree() {
-        return queue.getFirstValue();
+        return heap.size() > 0 ? trees[heap.getFirstItem()] : null;
     }
 
 
@@ -117,7 +127,7 @@ public class HfmQueue implements Output, IntOutput {
         String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
 
         out.print(header);
-        queue.display(out);
+        heap.display(out);
         out.println(footer);
     }
 
@@ -128,7 +138,7 @@ public class HfmQueue implements Output, IntOutput {
         String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
 
         out.print(header);
-        queue.display(blanks, out);
+        heap.display(blanks, out);
         out.println(footer);
     }
 }
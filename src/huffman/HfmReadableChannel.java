@@ -0,0 +1,54 @@
+package huffman;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Канал распаковки байтов, сжатых {@code HfmOutputStream} или {@code HfmWritableChannel} (Huffman readable channel).
+ * Заданный канал должен быть блокирующим; он не читается за кадром конца сжатого потока.
+ */
+public class HfmReadableChannel implements ReadableByteChannel {
+    /**
+     * Поток распаковки поверх заданного канала.
+     */
+    private final HfmInputStream in;
+
+    /**
+     * Признак открытого канала.
+     */
+    private boolean isOpen = true;
+
+    /**
+     * Создает канал распаковки, читает и проверяет заголовок сжатого потока.
+     * @param channel канал сжатых данных.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода, или заголовок некорректен.
+     */
+    public HfmReadableChannel(ReadableByteChannel channel) throws IOException {
+        this.in = new HfmInputStream(Channels.newInputStream(channel));
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        if (!isOpen) {
+            throw new ClosedChannelException();
+        }
+        return in.read(dst);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!isOpen) {
+            return;
+        }
+        isOpen = false;
+        in.close();
+    }
+}
@@ -0,0 +1,179 @@
+package huffman;
+
+import utils.constants.AppConstants;
+
+import utils.input.MappedInput;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+
+/**
+ * Поток чтения символов файла блоками (Symbol reader).
+ * Файл отображается в память ({@code MappedInput}), символы декодируются и байты читаются непосредственно из окон отображения.
+ * В зависимости от режима кодирования {@code HfmMode} символ файла - это:
+ *      - кодовая точка Unicode (CHAR): суррогатная пара UTF-16 читается как один символ,
+ *        в том числе если пара разделена границей блока чтения;
+ *      - байт (BYTE): байты читаются из окна отображения без декодирования кодировки символов.
+ */
+public class HfmSymbolReader implements AutoCloseable {
+    /**
+     * Файл, отображенный в память.
+     */
+    private final MappedInput in;
+
+    /**
+     * Режим кодирования.
+     */
+    private final HfmMode mode;
+
+    /**
+     * Буфер символов UTF-16 (режим CHAR).
+     */
+    private char[] chars;
+
+    /**
+     * Признак перенесенного в начало буфера символа UTF-16 из предыдущего блока
+     * (старший суррогат в конце блока или символ, не поместившийся в заданное количество кодовых точек).
+     */
+    private boolean hasCarry;
+
+    /**
+     * Создает поток чтения символов текста из файла (режим CHAR).
+     * @param path файл с текстом.
+     * @param charset кодировка символов файла.
+     * @throws IOException если при открытии файла произошла ошибка ввода-вывода.
+     */
+    public HfmSymbolReader(String path, Charset charset) throws IOException {
+        this(path, HfmMode.CHAR, charset);
+    }
+
+    /**
+     * Создает поток чтения символов файла в заданном режиме.
+     * @param path файл.
+     * @param mode режим кодирования.
+     * @param charset кодировка символов файла (для режима CHAR).
+     * @throws IOException если при открытии файла произошла ошибка ввода-вывода.
+     */
+    public HfmSymbolReader(String path, HfmMode mode, Charset charset) throws IOException {
+        this.mode = mode;
+        if(mode == HfmMode.BYTE) {
+            this.in = new MappedInput(Path.of(path));
+        }
+        else {
+            this.in = new MappedInput(Path.of(path), charset);
+            this.chars = new char[AppConstants.CHUNK_SIZE + 1];
+        }
+    }
+
+    /**
+     * Читает следующий блок символов.
+     * @param symbols массив для прочитанных символов.
+     * @return количество прочитанных символов (может быть 0) или -1, если файл прочитан полностью.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода.
+     */
+    public int read(int[] symbols) throws IOException {
+        return read(symbols, 0, symbols.length);
+    }
+
+    /**
+     * Читает следующий блок символов (не больше {@code AppConstants.CHUNK_SIZE} символов за один вызов).
+     * @param symbols массив для прочитанных символов.
+     * @param offset позиция массива для первого прочитанного символа.
+     * @param length максимальное количество читаемых символов.
+     * @return количество прочитанных символов (может быть 0) или -1, если файл прочитан полностью.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода.
+     */
+    public int read(int[] symbols, int offset, int length) throws IOException {
+        length = Math.min(length, AppConstants.CHUNK_SIZE);
+        return mode == HfmMode.BYTE ? readBytes(symbols, offset, length) : readChars(symbols, offset, length);
+    }
+
+    /**
+     * Читает символы до заполнения массива или до конца файла.
+     * @param symbols массив для прочитанных символов.
+     * @return количество прочитанных символов (0, если файл прочитан полностью).
+     * @throws IOException если при чтении произошла ошибка ввода-вывода.
+     */
+    public int readFully(int[] symbols) throws IOException {
+        int n = 0;
+        int nRead;
+        while(n < symbols.length && (nRead = read(symbols, n, symbols.length - n)) >= 0) {
+            n += nRead;
+        }
+        return n;
+    }
+
+    /**
+     * Читает следующий блок байтов непосредственно из окна отображения.
+     * @param symbols массив для прочитанных байтов (значения от 0 до 255).
+     * @param offset позиция массива для первого прочитанного байта.
+     * @param length максимальное количество читаемых байтов.
+     * @return количество прочитанных байтов или -1, если файл прочитан полностью.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода.
+     */
+    private int readBytes(int[] symbols, int offset, int length) throws IOException {
+        ByteBuffer bytes = in.getBytes();
+        if(bytes == null) {
+            return -1;
+        }
+        int n = Math.min(length, bytes.remaining());
+        for(int j = 0; j < n; ++j) {
+            symbols[offset + j] = bytes.get() & 0xFF;
+        }
+        return n;
+    }
+
+    /**
+     * Читает следующий блок кодовых точек.
+     * @param symbols массив для прочитанных кодовых точек.
+     * @param offset позиция массива для первой прочитанной кодовой точки.
+     * @param length максимальное количество читаемых кодовых точек.
+     * @return количество прочитанных кодовых точек (может быть 0) или -1, если текст прочитан полностью.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода.
+     */
+    private int readChars(int[] symbols, int offset, int length) throws IOException {
+        if(length == 0) {
+            return 0;
+        }
+        int start = hasCarry ? 1 : 0;
+        int nRead = in.read(chars, start, Math.max(length - start, 1));
+        if(nRead < 0) {
+            if(hasCarry) {
+                // Последний символ текста (в том числе одиночный старший суррогат)
+                hasCarry = false;
+                symbols[offset] = chars[0];
+                return 1;
+            }
+            return -1;
+        }
+        int limit = start + nRead;
+        if(Character.isHighSurrogate(chars[limit - 1])) {
+            limit--;
+        }
+        int n = offset;
+        int end = offset + length;
+        int j = 0;
+        while(j < limit && n < end) {
+            char c = chars[j++];
+            if(Character.isHighSurrogate(c) && j < limit && Character.isLowSurrogate(chars[j])) {
+                symbols[n++] = Character.toCodePoint(c, chars[j++]);
+            }
+            else {
+                symbols[n++] = c;
+            }
+        }
+        // Необработанный символ (не больше одного) переносится в начало буфера
+        hasCarry = j < start + nRead;
+        if(hasCarry) {
+            chars[0] = chars[j];
+        }
+        return n - offset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,85 @@
+package huffman;
+
+import utils.constants.AppConstants;
+import utils.output.ChannelOutput;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+
+/**
+ * Поток записи символов в файл блоками (Symbol writer).
+ * Символы записываются через буферизованный поток вывода в канал файла {@code ChannelOutput}.
+ * В зависимости от режима кодирования {@code HfmMode} символ - это:
+ *      - кодовая точка Unicode (CHAR): кодируется в заданной кодировке символов непосредственно в буфер потока;
+ *      - байт (BYTE): записывается без кодировки символов.
+ */
+public class HfmSymbolWriter implements AutoCloseable {
+    /**
+     * Поток вывода в канал файла.
+     */
+    private final ChannelOutput out;
+
+    /**
+     * Режим кодирования.
+     */
+    private final HfmMode mode;
+
+    /**
+     * Буфер символов UTF-16 (режим CHAR).
+     */
+    private char[] chars;
+
+    /**
+     * Буфер байтов (режим BYTE).
+     */
+    private byte[] bytes;
+
+    /**
+     * Создает поток записи символов в файл в заданном режиме.
+     * @param path файл.
+     * @param mode режим кодирования.
+     * @param charset кодировка символов файла (для режима CHAR).
+     * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода.
+     */
+    public HfmSymbolWriter(String path, HfmMode mode, Charset charset) throws IOException {
+        // В режиме BYTE кодировка символов не используется
+        this.out = new ChannelOutput(Path.of(path), charset != null ? charset : AppConstants.STD_CHARSET);
+        this.mode = mode;
+        this.chars = new char[0];
+        this.bytes = new byte[0];
+    }
+
+    /**
+     * Записывает блок символов.
+     * @param symbols массив символов.
+     * @param count количество записываемых символов.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    public void write(int[] symbols, int count) throws IOException {
+        if(mode == HfmMode.BYTE) {
+            if(bytes.length < count) {
+                bytes = new byte[symbols.length];
+            }
+            for(int j = 0; j < count; ++j) {
+                bytes[j] = (byte) symbols[j];
+            }
+            out.write(bytes, 0, count);
+        }
+        else {
+            if(chars.length < count * 2) {
+                chars = new char[symbols.length * 2];
+            }
+            int n = 0;
+            for(int j = 0; j < count; ++j) {
+                n += Character.toChars(symbols[j], chars, n);
+            }
+            out.write(chars, 0, n);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -11,7 +11,7 @@ public class HfmTree implements IntOutput {
     /**
      * Бинарное дерево поиска.
      */
-    private final BSTree<Integer, String> tree;
+    private final BSTree<Long, String> tree;
 
     /**
      * Интерфейс вывода в поток дерева Хаффмана.
@@ -29,7 +29,7 @@ public class HfmTree implements IntOutput {
      * Получает корневой узел дерева Хаффмана.
      * @return корневой узел дерева Хаффмана.
      */
-    public BSNode<Integer, String> getHfmTreeRoot() {
+    public BSNode<Long, String> getHfmTreeRoot() {
         return tree.getRoot();
     }
 
@@ -40,7 +40,7 @@ public class HfmTree implements IntOutput {
      * @param isMerge признак объединенного узла.
      * @return добавленный узел.
      */
-    public BSNode<Integer, String> add(Integer key, String value, boolean isMerge) {
+    public BSNode<Long, String> add(Long key, String value, boolean isMerge) {
         return tree.add(key, value, isMerge);
     }
 
@@ -50,7 +50,7 @@ public class HfmTree implements IntOutput {
      * @param value данные узла.
      * @return добавленный узел.
      */
-    public BSNode<Integer, String> add(Integer key, String value) {
+    public BSNode<Long, String> add(Long key, String value) {
         return tree.add(key, value, false);
     }
 
@@ -0,0 +1,26 @@
+package huffman;
+
+/**
+ * Способ построения кодов Хаффмана без ограничения длины кода.
+ */
+public enum HfmTreeStrategy {
+    /**
+     * Дерево Хаффмана строится объединением узлов через приоритетную кучу (O(n log n))
+     * в массивах примитивов {@code HfmFlatTree}. Длины кодов равны глубинам символов в дереве.
+     */
+    HEAP,
+
+    /**
+     * Длины кодов строятся двумя очередями FIFO по упорядоченным частотностям (O(n) после сортировки):
+     * объединенные веса образуются в неубывающем порядке, поэтому очередь объединенных узлов упорядочена сама.
+     * Узлы дерева не создаются.
+     */
+    TWO_QUEUE,
+
+    /**
+     * Длины кодов строятся на месте в массиве упорядоченных частотностей алгоритмом Моффата-Катаяйнена
+     * (In-place calculation of minimum-redundancy codes) с O(1) дополнительной памяти.
+     * Узлы дерева не создаются.
+     */
+    IN_PLACE
+}
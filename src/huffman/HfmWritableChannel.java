@@ -0,0 +1,85 @@
+package huffman;
+
+import utils.constants.AppConstants;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Канал сжатия байтов кодами Хаффмана (Huffman writable channel).
+ * Записываемые байты сжимаются {@code HfmOutputStream} и записываются в заданный канал в том же формате,
+ * поэтому сжатые данные канала читаются как {@code HfmReadableChannel}, так и {@code HfmInputStream}.
+ * Заданный канал должен быть блокирующим.
+ */
+public class HfmWritableChannel implements WritableByteChannel {
+    /**
+     * Поток сжатия поверх заданного канала.
+     */
+    private final HfmOutputStream out;
+
+    /**
+     * Признак открытого канала.
+     */
+    private boolean isOpen = true;
+
+    /**
+     * Создает канал сжатия с размером блока по умолчанию и записывает заголовок сжатого потока.
+     * @param channel канал сжатых данных.
+     * @throws IOException если при записи заголовка произошла ошибка ввода-вывода.
+     */
+    public HfmWritableChannel(WritableByteChannel channel) throws IOException {
+        this(channel, AppConstants.STREAM_BLOCK_SIZE);
+    }
+
+    /**
+     * Создает канал сжатия и записывает заголовок сжатого потока.
+     * @param channel канал сжатых данных.
+     * @param blockSize размер блока в байтах (от 1 до {@code AppConstants.STREAM_MAX_BLOCK_SIZE}).
+     * @throws IOException если при записи заголовка произошла ошибка ввода-вывода.
+     */
+    public HfmWritableChannel(WritableByteChannel channel, int blockSize) throws IOException {
+        this.out = new HfmOutputStream(Channels.newOutputStream(channel), blockSize);
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if (!isOpen) {
+            throw new ClosedChannelException();
+        }
+        int n = src.remaining();
+        out.write(src);
+        return n;
+    }
+
+    /**
+     * Записывает накопленные байты неполным блоком (см. {@code HfmOutputStream.flush}).
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    public void flush() throws IOException {
+        if (!isOpen) {
+            throw new ClosedChannelException();
+        }
+        out.flush();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    /**
+     * Записывает накопленные байты и кадр конца потока и закрывает заданный канал.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!isOpen) {
+            return;
+        }
+        isOpen = false;
+        out.close();
+    }
+}
@@ -55,7 +55,7 @@ public class LList<K extends Comparable<K>, V> implements Output {
      */
     public LNode<K, V> get(K key) {
         LNode<K, V> current = getFirst();
-        while (current != null && !current.getValue().toString().equals(key.toString())) {
+        while (current != null && !current.getKey().equals(key)) {
             current = current.getNext();
         }
         return current;
@@ -124,16 +124,13 @@ public class LList<K extends Comparable<K>, V> implements Output {
         else {
             LNode<K, V> current = first;
             LNode<K, V> parent = null;
-            while(current != null && node.compareToOther(current) >= 0) {
+            int cmp;
+            while(current != null && (cmp = node.compareToOther(current)) >= 0) {
                 // Поддержать уникальность
-                if(node.compareToOther(current) == 0) {
+                if(cmp == 0) {
                     if(isInc) {
-                        if((node.getValue() instanceof Integer nodeVal)
-                        && (current.getValue() instanceof Integer currVal)) {
-                            // Инкрементировать данные
-                            Integer sum = nodeVal + currVal;
-                            current.setValue((V) sum);
-                        }
+                        // Инкрементировать данные
+                        current.setValue(sum(node.getValue(), current.getValue()));
                     }
                     else {
                         // Переписать данные
@@ -166,6 +163,23 @@ public class LList<K extends Comparable<K>, V> implements Output {
         size++;
     }
 
+    /**
+     * Суммирует целочисленные данные {@code V} (Integer или Long).
+     * @param value заданное значение.
+     * @param current текущее значение.
+     * @return сумма значений или текущее значение, если данные не целочисленные.
+     */
+    @SuppressWarnings("unchecked")
+    private V sum(V value, V current) {
+        if((value instanceof Integer val) && (current instanceof Integer currVal)) {
+            return (V) Integer.valueOf(val + currVal);
+        }
+        if((value instanceof Long val) && (current instanceof Long currVal)) {
+            return (V) Long.valueOf(val + currVal);
+        }
+        return current;
+    }
+
 
     // DISPLAY
 
@@ -0,0 +1,159 @@
+package linkedList;
+
+import utils.output.Display;
+import utils.output.DualOutput;
+import utils.output.Output;
+
+/**
+ * Самоорганизующийся односвязный список с перемещением в начало (Move-to-front Linked List).
+ * Найденный или измененный элемент перемещается в начало списка, поэтому при неравномерном доступе
+ * (например, частые символы текста) искомый элемент обычно находится в первых узлах.
+ * Уникальность элементов по ключу {@code K} поддерживается, элементы не упорядочены по ключу.
+ * Ключи сравниваются методом {@code equals}.
+ * @param <K> тип ключей, поддерживаемых этим списком.
+ * @param <V> тип соответствующих ключам данных.
+ */
+public class LMtfList<K extends Comparable<K>, V> implements Output {
+    /**
+     * Первый элемент списка.
+     */
+    private LNode<K, V> first;
+
+    /**
+     * Размер списка (количество элементов).
+     */
+    private int size;
+
+    /**
+     * Интерфейс вывода в поток списка.
+     */
+    public final Display out = new Display(this::display, "<<< Move-to-front Linked List: ", ">>>");
+
+    /**
+     * Создает пустой список.
+     */
+    public LMtfList() {
+        first = null;
+        size = 0;
+    }
+
+    /**
+     * Получает размер списка.
+     * @return количество элементов списка.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Получает первый элемент списка.
+     * @return первый элемент списка.
+     */
+    public LNode<K, V> getFirst() {
+        return first;
+    }
+
+    /**
+     * Получает элемент списка по заданному ключу и перемещает его в начало списка.
+     * @param key заданный ключ.
+     * @return элемент списка или null, если ключ отсутствует.
+     */
+    public LNode<K, V> get(K key) {
+        LNode<K, V> current = first;
+        LNode<K, V> parent = null;
+        while(current != null && !current.getKey().equals(key)) {
+            parent = current;
+            current = current.getNext();
+        }
+        if(current != null && parent != null) {
+            // Переместить найденный элемент в начало списка
+            parent.setNext(current.getNext());
+            current.setNext(first);
+            first = current;
+        }
+        return current;
+    }
+
+    /**
+     * Вставляет элемент в список с инкрементальным изменением целочисленных данных {@code V} при совпадении ключа {@code K}.
+     * @param node новый элемент.
+     */
+    public void inc(LNode<K, V> node) {
+        insert(node, true);
+    }
+
+    /**
+     * Вставляет элемент в список с переписыванием данных {@code V} при совпадении ключа {@code K}.
+     * @param node новый элемент.
+     */
+    public void insert(LNode<K, V> node) {
+        insert(node, false);
+    }
+
+    /**
+     * Вставляет элемент в список.
+     * Элемент с совпадающим ключом изменяется и перемещается в начало списка, новый элемент добавляется в начало списка.
+     * @param node новый элемент
+     * @param isInc признак инкремента для целочисленных данных {@code V}:
+     *              Если {@code isInc} = true, то целочисленные данные {@code V} увеличиваются на заданное значение;
+     *              Если {@code isInc} = false, то данные {@code V} перезаписываются на заданное значение.
+     */
+    @SuppressWarnings("unchecked")
+    public void insert(LNode<K, V> node, boolean isInc) {
+        LNode<K, V> current = get(node.getKey());
+        if(current == null) {
+            // Добавить новый элемент в начало списка
+            node.setNext(first);
+            first = node;
+            size++;
+        }
+        else if(!isInc) {
+            // Переписать данные
+            current.setValue(node.getValue());
+        }
+        else if((node.getValue() instanceof Integer nodeVal) && (current.getValue() instanceof Integer currVal)) {
+            // Инкрементировать данные
+            Integer sum = nodeVal + currVal;
+            current.setValue((V) sum);
+        }
+        else if((node.getValue() instanceof Long nodeVal) && (current.getValue() instanceof Long currVal)) {
+            // Инкрементировать данные
+            Long sum = nodeVal + currVal;
+            current.setValue((V) sum);
+        }
+    }
+
+    /**
+     * Удаляет элемент списка по заданному ключу.
+     * @param key заданный ключ.
+     * @return удаленный элемент или null, если ключ отсутствует.
+     */
+    public LNode<K, V> remove(K key) {
+        LNode<K, V> current = get(key);
+        if(current != null) {
+            // Найденный элемент перемещен в начало списка
+            first = current.getNext();
+            current.setNext(null);
+            size--;
+        }
+        return current;
+    }
+
+
+    // DISPLAY
+
+    @Override
+    public void display(DualOutput out) {
+        // Инициатор выводит свои верхнее и нижнее оформления сообщения и отключает их вывод в цепочке объектов.
+        String header = out.getHeader() != null ? out.getHeaderOnce() : this.out.getHeader();
+        String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
+
+        out.print(header);
+        LNode<K, V> current = first;
+        while(current != null) {
+            current.display(out);
+            current = current.getNext();
+        }
+        out.print(footer);
+    }
+}
@@ -0,0 +1,231 @@
+package linkedList;
+
+import utils.output.Display;
+import utils.output.DualOutput;
+import utils.output.Output;
+
+/**
+ * Упорядоченный список с пропусками (Skip List).
+ * Каждый элемент кроме ссылки на следующий элемент (уровень 0) имеет случайное количество ссылок верхних уровней:
+ * элемент уровня k присутствует на уровне k + 1 с вероятностью 1/2. Поиск начинается с верхнего уровня,
+ * поэтому упорядоченные вставка и поиск выполняются в среднем за O(log n) сравнений.
+ * Элементы упорядочены в естественном порядке их ключей {@code K}, уникальность ключей поддерживается.
+ * @param <K> тип ключей, поддерживаемых этим списком.
+ * @param <V> тип соответствующих ключам данных.
+ */
+public class LSkipList<K extends Comparable<K>, V> implements Output {
+    /**
+     * Максимальное количество уровней.
+     */
+    private static final int MAX_LEVELS = 32;
+
+    /**
+     * Головной элемент списка (без ключа) со ссылками всех уровней.
+     */
+    private final LSkipNode<K, V> head;
+
+    /**
+     * Количество используемых уровней.
+     */
+    private int levels;
+
+    /**
+     * Размер списка (количество элементов).
+     */
+    private int size;
+
+    /**
+     * Состояние генератора случайных уровней (xorshift).
+     */
+    private long seed;
+
+    /**
+     * Предшественники искомого ключа на каждом уровне (заполняется при поиске места вставки или удаления).
+     */
+    private final LSkipNode<K, V>[] update;
+
+    /**
+     * Интерфейс вывода в поток списка.
+     */
+    public final Display out = new Display(this::display, "<<< Skip List: ", ">>>");
+
+    /**
+     * Создает пустой список с пропусками.
+     */
+    @SuppressWarnings("unchecked")
+    public LSkipList() {
+        head = new LSkipNode<>(null, null, MAX_LEVELS);
+        update = (LSkipNode<K, V>[]) new LSkipNode<?, ?>[MAX_LEVELS];
+        levels = 1;
+        seed = System.nanoTime() | 1;
+    }
+
+    /**
+     * Получает размер списка.
+     * @return количество элементов списка.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Получает первый элемент списка (с наименьшим ключом).
+     * @return первый элемент списка.
+     */
+    public LSkipNode<K, V> getFirst() {
+        return head.getNext(0);
+    }
+
+    /**
+     * Получает элемент списка по заданному ключу.
+     * @param key заданный ключ.
+     * @return элемент списка или null, если ключ отсутствует.
+     */
+    public LSkipNode<K, V> get(K key) {
+        LSkipNode<K, V> current = head;
+        for(int level = levels - 1; level >= 0; --level) {
+            LSkipNode<K, V> next = current.getNext(level);
+            while(next != null && next.getKey().compareTo(key) < 0) {
+                current = next;
+                next = current.getNext(level);
+            }
+        }
+        LSkipNode<K, V> node = current.getNext(0);
+        return node != null && node.getKey().compareTo(key) == 0 ? node : null;
+    }
+
+    /**
+     * Находит предшественников заданного ключа на каждом уровне.
+     * @param key заданный ключ.
+     * @return элемент с заданным ключом или null, если ключ отсутствует.
+     */
+    private LSkipNode<K, V> findUpdate(K key) {
+        LSkipNode<K, V> current = head;
+        for(int level = levels - 1; level >= 0; --level) {
+            LSkipNode<K, V> next = current.getNext(level);
+            while(next != null && next.getKey().compareTo(key) < 0) {
+                current = next;
+                next = current.getNext(level);
+            }
+            update[level] = current;
+        }
+        LSkipNode<K, V> node = current.getNext(0);
+        return node != null && node.getKey().compareTo(key) == 0 ? node : null;
+    }
+
+    /**
+     * Вставляет элемент в список с инкрементальным изменением целочисленных данных {@code V} при совпадении ключа {@code K}.
+     * @param key ключ элемента.
+     * @param value данные элемента как величина инкремента счетчика.
+     */
+    public void inc(K key, V value) {
+        insert(key, value, true);
+    }
+
+    /**
+     * Вставляет элемент в список с переписыванием данных {@code V} при совпадении ключа {@code K}.
+     * @param key ключ элемента.
+     * @param value данные элемента.
+     */
+    public void put(K key, V value) {
+        insert(key, value, false);
+    }
+
+    /**
+     * Вставляет элемент в список.
+     * Элементы упорядочиваются по ключу {@code K} с использованием естественного порядка.
+     * @param key ключ элемента.
+     * @param value данные элемента.
+     * @param isInc признак инкремента для целочисленных данных {@code V}:
+     *              Если {@code isInc} = true, то целочисленные данные {@code V} увеличиваются на заданное значение;
+     *              Если {@code isInc} = false, то данные {@code V} перезаписываются на заданное значение.
+     * @return вставленный или измененный элемент.
+     */
+    @SuppressWarnings("unchecked")
+    public LSkipNode<K, V> insert(K key, V value, boolean isInc) {
+        if(key == null) {
+            throw new IllegalArgumentException("Значение ключа не должно быть null");
+        }
+        LSkipNode<K, V> current = findUpdate(key);
+        if(current != null) {
+            if(!isInc) {
+                // Переписать данные
+                current.setValue(value);
+            }
+            else if((value instanceof Integer nodeVal) && (current.getValue() instanceof Integer currVal)) {
+                // Инкрементировать данные
+                Integer sum = nodeVal + currVal;
+                current.setValue((V) sum);
+            }
+            else if((value instanceof Long nodeVal) && (current.getValue() instanceof Long currVal)) {
+                // Инкрементировать данные
+                Long sum = nodeVal + currVal;
+                current.setValue((V) sum);
+            }
+            return current;
+        }
+        int nodeLevels = randomLevels();
+        if(nodeLevels > levels) {
+            for(int level = levels; level < nodeLevels; ++level) {
+                update[level] = head;
+            }
+            levels = nodeLevels;
+        }
+        LSkipNode<K, V> node = new LSkipNode<>(key, value, nodeLevels);
+        for(int level = 0; level < nodeLevels; ++level) {
+            node.setNext(level, update[level].getNext(level));
+            update[level].setNext(level, node);
+        }
+        size++;
+        return node;
+    }
+
+    /**
+     * Удаляет элемент списка по заданному ключу.
+     * @param key заданный ключ.
+     * @return удаленный элемент или null, если ключ отсутствует.
+     */
+    public LSkipNode<K, V> remove(K key) {
+        LSkipNode<K, V> node = findUpdate(key);
+        if(node == null) {
+            return null;
+        }
+        for(int level = 0; level < node.getLevels(); ++level) {
+            update[level].setNext(level, node.getNext(level));
+        }
+        while(levels > 1 && head.getNext(levels - 1) == null) {
+            levels--;
+        }
+        size--;
+        return node;
+    }
+
+    /**
+     * Получает случайное количество уровней нового элемента (геометрическое распределение с p = 1/2).
+     * @return количество уровней.
+     */
+    private int randomLevels() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return Math.min(MAX_LEVELS, Long.numberOfTrailingZeros(seed) + 1);
+    }
+
+
+    // DISPLAY
+
+    @Override
+    public void display(DualOutput out) {
+        // Инициатор выводит свои верхнее и нижнее оформления сообщения и отключает их вывод в цепочке объектов.
+        String header = out.getHeader() != null ? out.getHeaderOnce() : this.out.getHeader();
+        String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
+
+        out.print(header);
+        LSkipNode<K, V> current = getFirst();
+        while(current != null) {
+            current.display(out);
+            current = current.getNext();
+        }
+        out.print(footer);
+    }
+}
@@ -0,0 +1,123 @@
+package linkedList;
+
+import utils.output.Display;
+import utils.output.DualOutput;
+import utils.output.Output;
+
+/**
+ * Элемент списка с пропусками (Skip list node).
+ * Содержит ссылки на следующие элементы для каждого уровня элемента (уровень 0 - все элементы списка).
+ * @param <K> тип ключа элемента.
+ * @param <V> тип данных элемента.
+ */
+public class LSkipNode<K extends Comparable<K>, V> implements Output {
+    /**
+     * Ключ элемента.
+     */
+    private final K key;
+
+    /**
+     * Данные элемента.
+     */
+    private V value;
+
+    /**
+     * Следующие элементы для каждого уровня элемента.
+     */
+    private final LSkipNode<K, V>[] next;
+
+    /**
+     * Интерфейс вывода в поток элемента списка.
+     */
+    public final Display out = new Display(this::display, "<<<Skip list node: ", ">>>");
+
+    /**
+     * Создает элемент списка с пропусками.
+     * @param key ключ элемента (null - только для головного элемента списка).
+     * @param value данные элемента.
+     * @param levels количество уровней элемента.
+     */
+    @SuppressWarnings("unchecked")
+    LSkipNode(K key, V value, int levels) {
+        this.key = key;
+        this.value = value;
+        this.next = (LSkipNode<K, V>[]) new LSkipNode<?, ?>[levels];
+    }
+
+    /**
+     * Получает ключ элемента.
+     * @return ключ элемента.
+     */
+    public K getKey() {
+        return key;
+    }
+
+    /**
+     * Получает данные элемента.
+     * @return данные элемента.
+     */
+    public V getValue() {
+        return value;
+    }
+
+    /**
+     * Устанавливает данные элемента.
+     * @param value данные элемента.
+     */
+    public void setValue(V value) {
+        this.value = value;
+    }
+
+    /**
+     * Получает следующий элемент списка (уровень 0).
+     * @return следующий элемент.
+     */
+    public LSkipNode<K, V> getNext() {
+        return next[0];
+    }
+
+    /**
+     * Получает следующий элемент заданного уровня.
+     * @param level уровень.
+     * @return следующий элемент уровня.
+     */
+    LSkipNode<K, V> getNext(int level) {
+        return next[level];
+    }
+
+    /**
+     * Устанавливает следующий элемент заданного уровня.
+     * @param level уровень.
+     * @param node следующий элемент уровня.
+     */
+    void setNext(int level, LSkipNode<K, V> node) {
+        next[level] = node;
+    }
+
+    /**
+     * Получает количество уровней элемента.
+     * @return количество уровней.
+     */
+    public int getLevels() {
+        return next.length;
+    }
+
+
+    // DISPLAY
+
+    @Override
+    public String toString() {
+        return getKey().toString() + (getValue() != null ? "/" + getValue().toString() : "") + " ";
+    }
+
+    @Override
+    public void display(DualOutput out) {
+        // Инициатор выводит свои верхнее и нижнее оформления сообщения и отключает их вывод в цепочке объектов.
+        String header = out.getHeader() != null ? out.getHeaderOnce() : this.out.getHeader();
+        String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
+
+        out.print(header);
+        out.print(toString());
+        out.print(footer);
+    }
+}
@@ -33,26 +33,18 @@ public final class MathUtils {
      *      false - заданное число не является простым.
      */
     public static boolean isPrime(int value) {
-        for(int j = 2; j * j <= value; ++j) {
-            if(value % j == 0) {
-                return false;
-            }
-        }
-        return true;
+        return PrimeTable.isPrime(value);
     }
 
     /**
      * Получает простое число на основе заданного значения.
      * Если заданное число не является простым, оно будет увеличено до ближайшего простого числа.
+     * Простое число берется из кэша простых чисел {@code PrimeTable}.
      * @param value заданное целочисленное число.
      * @return простое число.
      */
     public static int getPrime(int value) {
-        for(int j = value; true; ++j) {
-            if(isPrime(j)) {
-                return j;
-            }
-        }
+        return PrimeTable.nextPrime(value);
     }
 
     /**
@@ -0,0 +1,299 @@
+package utils.calculations;
+
+import java.util.Arrays;
+
+/**
+ * Кэш простых чисел для выбора размеров хеш-таблиц (Prime table).
+ * Таблица простых чисел строится лениво сегментированным решетом Эратосфена (Segmented sieve) при первом обращении
+ * и расширяется удвоением верхней границы до {@code MAX_LIMIT}; поиск в таблице - двоичный, за O(log n).
+ * Для значений за границей таблицы решето применяется к окну значений рядом с заданным значением
+ * (простые делители до корня из {@code Integer.MAX_VALUE} всегда находятся в таблице).
+ * Для таблиц с индексацией по маске вместо простого размера используется степень двойки {@code nextPowerOfTwo}.
+ * Таблица неизменяема после построения и безопасно используется из нескольких потоков.
+ */
+public final class PrimeTable {
+    /**
+     * Начальная верхняя граница таблицы (не меньше корня из {@code Integer.MAX_VALUE}).
+     */
+    private static final int INITIAL_LIMIT = 1 << 16;
+
+    /**
+     * Наибольшая верхняя граница таблицы (около 2 млн простых чисел, 8 МБ).
+     */
+    private static final int MAX_LIMIT = 1 << 25;
+
+    /**
+     * Размер сегмента решета (помещается в кэш L1).
+     */
+    private static final int SEGMENT_SIZE = 1 << 15;
+
+    /**
+     * Наибольшее простое число типа {@code int}.
+     */
+    private static final int MAX_PRIME = Integer.MAX_VALUE;
+
+    /**
+     * Наибольшая степень двойки типа {@code int}.
+     */
+    private static final int MAX_POWER_OF_TWO = 1 << 30;
+
+    /**
+     * Текущая таблица простых чисел (заменяется целиком при расширении).
+     */
+    private static volatile Table table;
+
+    /**
+     * Создает кэш простых чисел.
+     */
+    private PrimeTable() {}
+
+    /**
+     * Неизменяемая таблица простых чисел меньше верхней границы.
+     */
+    private static final class Table {
+        /**
+         * Простые числа в порядке возрастания.
+         */
+        final int[] primes;
+
+        /**
+         * Количество простых чисел.
+         */
+        final int count;
+
+        /**
+         * Верхняя граница (не включается): таблица содержит все простые числа меньше границы.
+         */
+        final int limit;
+
+        /**
+         * Создает таблицу простых чисел.
+         * @param primes простые числа в порядке возрастания.
+         * @param count количество простых чисел.
+         * @param limit верхняя граница.
+         */
+        Table(int[] primes, int count, int limit) {
+            this.primes = primes;
+            this.count = count;
+            this.limit = limit;
+        }
+    }
+
+    /**
+     * Получает наименьшее простое число, не меньшее заданного значения.
+     * @param value заданное значение.
+     * @return простое число (2 для значений меньше 2).
+     */
+    public static int nextPrime(int value) {
+        if (value <= 2) {
+            return 2;
+        }
+        Table current = getTable(value);
+        if (value < current.limit) {
+            int index = Arrays.binarySearch(current.primes, 0, current.count, value);
+            index = index >= 0 ? index : -index - 1;
+            if (index < current.count) {
+                return current.primes[index];
+            }
+        }
+        return searchUp(current, Math.max(value, current.limit));
+    }
+
+    /**
+     * Получает наибольшее простое число, не большее заданного значения.
+     * @param value заданное значение (не меньше 2).
+     * @return простое число.
+     */
+    public static int prevPrime(int value) {
+        if (value < 2) {
+            throw new IllegalArgumentException("Простых чисел меньше 2 нет.");
+        }
+        Table current = getTable(value);
+        if (value < current.limit) {
+            int index = Arrays.binarySearch(current.primes, 0, current.count, value);
+            return current.primes[index >= 0 ? index : -index - 2];
+        }
+        return searchDown(current, value);
+    }
+
+    /**
+     * Проверяет, что заданное значение является простым числом.
+     * @param value заданное значение.
+     * @return признак проверки:
+     *      true - заданное значение является простым числом,
+     *      false - заданное значение не является простым числом.
+     */
+    public static boolean isPrime(int value) {
+        if (value < 2) {
+            return false;
+        }
+        Table current = getTable(value);
+        if (value < current.limit) {
+            return Arrays.binarySearch(current.primes, 0, current.count, value) >= 0;
+        }
+        for (int j = 0; j < current.count; ++j) {
+            int prime = current.primes[j];
+            if ((long) prime * prime > value) {
+                break;
+            }
+            if (value % prime == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Получает наименьшую степень двойки, не меньшую заданного значения,
+     * для таблиц с индексацией по маске ({@code hash & (size - 1)}).
+     * @param value заданное значение (не больше 2^30).
+     * @return степень двойки (1 для значений меньше 2).
+     */
+    public static int nextPowerOfTwo(int value) {
+        if (value > MAX_POWER_OF_TWO) {
+            throw new IllegalArgumentException("Значение должно быть не больше " + MAX_POWER_OF_TWO + ".");
+        }
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    /**
+     * Получает количество простых чисел в кэше.
+     * @return количество простых чисел.
+     */
+    public static int size() {
+        Table current = table;
+        return current == null ? 0 : current.count;
+    }
+
+    /**
+     * Получает таблицу, покрывающую заданное значение (если это допускает {@code MAX_LIMIT}).
+     * Таблица строится и расширяется под блокировкой, чтение готовой таблицы выполняется без блокировки.
+     * @param value заданное значение.
+     * @return таблица простых чисел.
+     */
+    private static Table getTable(int value) {
+        Table current = table;
+        if (current != null && (value < current.limit || current.limit == MAX_LIMIT)) {
+            return current;
+        }
+        synchronized (PrimeTable.class) {
+            current = table;
+            if (current == null) {
+                current = buildInitial();
+            }
+            while (value >= current.limit && current.limit < MAX_LIMIT) {
+                current = extend(current, Math.min(MAX_LIMIT, 2 * current.limit));
+            }
+            table = current;
+            return current;
+        }
+    }
+
+    /**
+     * Строит начальную таблицу простым решетом Эратосфена.
+     * @return таблица простых чисел меньше {@code INITIAL_LIMIT}.
+     */
+    private static Table buildInitial() {
+        boolean[] isComposite = new boolean[INITIAL_LIMIT];
+        int[] primes = new int[INITIAL_LIMIT / 8];
+        int count = 0;
+        for (int j = 2; j < INITIAL_LIMIT; ++j) {
+            if (isComposite[j]) {
+                continue;
+            }
+            primes[count++] = j;
+            for (long k = (long) j * j; k < INITIAL_LIMIT; k += j) {
+                isComposite[(int) k] = true;
+            }
+        }
+        return new Table(primes, count, INITIAL_LIMIT);
+    }
+
+    /**
+     * Расширяет таблицу сегментированным решетом до новой верхней границы.
+     * Новые значения просеиваются сегментами по {@code SEGMENT_SIZE} простыми числами таблицы.
+     * @param current текущая таблица.
+     * @param limit новая верхняя граница.
+     * @return расширенная таблица.
+     */
+    private static Table extend(Table current, int limit) {
+        // Оценка количества простых чисел сверху: pi(x) < 1.26 x / ln x
+        int capacity = (int) (1.26 * limit / Math.log(limit)) + 1;
+        int[] primes = Arrays.copyOf(current.primes, Math.max(capacity, current.count));
+        int count = current.count;
+        boolean[] isComposite = new boolean[SEGMENT_SIZE];
+        for (int low = current.limit; low < limit; low += SEGMENT_SIZE) {
+            int length = Math.min(SEGMENT_SIZE, limit - low);
+            sieveSegment(current, low, length, isComposite);
+            for (int j = 0; j < length; ++j) {
+                if (!isComposite[j]) {
+                    primes[count++] = low + j;
+                }
+            }
+        }
+        return new Table(primes, count, limit);
+    }
+
+    /**
+     * Просеивает сегмент значений простыми числами таблицы до корня из наибольшего значения сегмента.
+     * @param current таблица простых чисел (содержит простые числа до корня из верхней границы сегмента).
+     * @param low первое значение сегмента (больше наибольшего простого делителя).
+     * @param length количество значений сегмента.
+     * @param isComposite признаки составных значений сегмента (заполняются).
+     */
+    private static void sieveSegment(Table current, long low, int length, boolean[] isComposite) {
+        Arrays.fill(isComposite, 0, length, false);
+        long high = low + length - 1;
+        for (int j = 0; j < current.count; ++j) {
+            long prime = current.primes[j];
+            if (prime * prime > high) {
+                break;
+            }
+            long first = Math.max(prime * prime, (low + prime - 1) / prime * prime);
+            for (long k = first; k <= high; k += prime) {
+                isComposite[(int) (k - low)] = true;
+            }
+        }
+    }
+
+    /**
+     * Ищет простое число за границей таблицы просеиванием окон значений вверх от заданного значения.
+     * @param current таблица простых чисел.
+     * @param value заданное значение (не меньше границы таблицы).
+     * @return наименьшее простое число, не меньшее заданного значения.
+     */
+    private static int searchUp(Table current, int value) {
+        boolean[] isComposite = new boolean[SEGMENT_SIZE];
+        for (long low = value; true; low += SEGMENT_SIZE) {
+            int length = (int) Math.min(SEGMENT_SIZE, (long) MAX_PRIME - low + 1);
+            sieveSegment(current, low, length, isComposite);
+            for (int j = 0; j < length; ++j) {
+                if (!isComposite[j]) {
+                    return (int) (low + j);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ищет простое число за границей таблицы просеиванием окон значений вниз от заданного значения.
+     * Окна не опускаются ниже границы таблицы, иначе ответ берется из таблицы.
+     * @param current таблица простых чисел.
+     * @param value заданное значение (не меньше границы таблицы).
+     * @return наибольшее простое число, не большее заданного значения.
+     */
+    private static int searchDown(Table current, int value) {
+        boolean[] isComposite = new boolean[SEGMENT_SIZE];
+        for (long high = value; high >= current.limit; high -= SEGMENT_SIZE) {
+            long low = Math.max(current.limit, high - SEGMENT_SIZE + 1);
+            int length = (int) (high - low + 1);
+            sieveSegment(current, low, length, isComposite);
+            for (int j = length - 1; j >= 0; --j) {
+                if (!isComposite[j]) {
+                    return (int) (low + j);
+                }
+            }
+        }
+        return current.primes[current.count - 1];
+    }
+}
@@ -13,12 +13,7 @@ public final class AppConstants {
     private AppConstants() {}
 
     /**
-     * Многобайтовый символ новой строки в формате WINDOWS (используется при декодировании).
-     */
-    public static final String WINDOWS_NEW_ROW = "\r\n";
-
-    /**
-     * Однобайтовый символ новой строки в формате UNIX (используется при кодировании).
+     * Однобайтовый символ новой строки в формате UNIX (используется при выводе в выходной поток).
      */
     public static final String UNIX_NEW_ROW = "\n";
 
@@ -43,11 +38,91 @@ public final class AppConstants {
      */
     public static final int HEAP_INIT_CAPACITY = 11;
 
+    /**
+     * Арность (количество потомков узла) кучи примитивов по умолчанию.
+     * Четырехарная куча короче двоичной, а потомки узла лежат в массиве рядом.
+     */
+    public static final int HEAP_ARITY = 4;
+
     /**
      * Размер хеш-таблицы (на основе тестов).
      */
     public static final int HASH_SIZE = 101; // 277
 
+    /**
+     * Размер блока (в символах или байтах) при потоковом чтении файлов.
+     */
+    public static final int CHUNK_SIZE = 65536;
+
+    /**
+     * Размер буфера (в байтах) потока вывода в канал файла по умолчанию.
+     */
+    public static final int CHANNEL_BUFFER_SIZE = 65536;
+
+    /**
+     * Максимальный размер окна (в байтах) отображения файла в память при чтении
+     * (файлы большего размера читаются переотображением окон).
+     */
+    public static final int MAP_WINDOW_SIZE = 1 << 30;
+
+    /**
+     * Максимальный размер области файла (в байтах), частотность символов которой подсчитывается одной задачей
+     * при параллельном подсчете.
+     */
+    public static final int PARALLEL_REGION_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Рекомендуемый размер блока (в символах) при блочном параллельном кодировании.
+     */
+    public static final int BLOCK_SIZE = 1 << 20;
+
+    /**
+     * Максимальный размер заголовка (в байтах) файла-контейнера {@code HfmContainer}.
+     */
+    public static final int CONTAINER_MAX_HEADER_SIZE = 1 << 28;
+
+    /**
+     * Размер блока (в байтах) потока сжатия {@code HfmOutputStream} по умолчанию.
+     */
+    public static final int STREAM_BLOCK_SIZE = 1 << 17;
+
+    /**
+     * Максимальный размер блока (в байтах) потоков сжатия и распаковки Хаффмана.
+     */
+    public static final int STREAM_MAX_BLOCK_SIZE = 1 << 26;
+
+    /**
+     * Суммарный вес символов адаптивного дерева Хаффмана по умолчанию, при достижении которого веса делятся пополам
+     * (ограничивает глубину дерева и ускоряет адаптацию к изменению частотности символов потока).
+     */
+    public static final int ADAPTIVE_MAX_WEIGHT = 1 << 16;
+
+    /**
+     * Наибольший допустимый суммарный вес символов адаптивного дерева Хаффмана.
+     */
+    public static final int ADAPTIVE_WEIGHT_LIMIT = 1 << 30;
+
+    /**
+     * Емкость кеша наборов кодировки Хаффмана {@code HfmCharsetCache} по умолчанию.
+     */
+    public static final int CHARSET_CACHE_CAPACITY = 64;
+
+    /**
+     * Допустимые потери набора кодировки из кеша по умолчанию (доля длины кодированного текста).
+     */
+    public static final double CHARSET_CACHE_MAX_PENALTY = 0.01;
+
+    /**
+     * Количество бит индекса первичной (и вторичных) таблиц декодирования Хаффмана.
+     */
+    public static final int DECODE_TABLE_BITS = 10;
+
+    /**
+     * Максимальное количество бит индекса первичной таблицы декодирования Хаффмана
+     * (одноуровневая таблица для кодов с ограниченной длиной занимает не больше 32 КБ).
+     */
+    public static final int DECODE_TABLE_MAX_BITS = 12;
+
     /**
      * Стандартная кодировка символов.
      */
@@ -0,0 +1,355 @@
+package utils.input;
+
+import utils.constants.AppConstants;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Checksum;
+
+/**
+ * Поток чтения файла, отображенного в память (Memory-mapped input).
+ * Файл отображается в память окнами {@code FileChannel.map} не больше заданного размера, поэтому файлы больше 2 ГБ
+ * читаются последовательным переотображением окон. Данные читаются из страниц файлового кэша ОС без копирования
+ * в промежуточные буферы потоков:
+ *      - байты - непосредственно из окна {@code ByteBuffer} ({@code getBytes}) или в массив ({@code read(byte[], int, int)});
+ *      - символы - декодированием окна в массив символов ({@code read(char[], int, int)}); символ, разделенный
+ *        границей окна, декодируется из следующего окна, начинающегося с первого недекодированного байта.
+ * Для кода, работающего с потоками байтов (например, {@code DataInputStream} или {@code HfmBitReader}),
+ * используется представление {@code asInputStream}.
+ */
+public class MappedInput implements AutoCloseable {
+    /**
+     * Канал файла.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Размер файла в байтах.
+     */
+    private final long size;
+
+    /**
+     * Максимальный размер окна отображения в байтах.
+     */
+    private final int windowSize;
+
+    /**
+     * Декодер символов ({@code null} - чтение только байтов).
+     */
+    private final CharsetDecoder decoder;
+
+    /**
+     * Текущее окно отображения.
+     */
+    private MappedByteBuffer window;
+
+    /**
+     * Позиция начала текущего окна в файле.
+     */
+    private long windowStart;
+
+    /**
+     * Признак того, что все байты файла декодированы и выполняется сброс состояния декодера.
+     */
+    private boolean isFlushing;
+
+    /**
+     * Признак завершения декодирования символов (состояние декодера сброшено в конце файла).
+     */
+    private boolean isDecoded;
+
+    /**
+     * Второй символ суррогатной пары, не поместившийся в массив при предыдущем чтении.
+     */
+    private char pendingChar;
+
+    /**
+     * Признак сохраненного второго символа суррогатной пары.
+     */
+    private boolean hasPendingChar;
+
+    /**
+     * Представление потока как {@code InputStream} (создается при первом обращении).
+     */
+    private InputStream stream;
+
+    /**
+     * Создает поток чтения байтов файла с размером окна по умолчанию.
+     * @param path путь файла.
+     * @throws IOException если при открытии файла произошла ошибка ввода-вывода.
+     */
+    public MappedInput(Path path) throws IOException {
+        this(path, null, AppConstants.MAP_WINDOW_SIZE);
+    }
+
+    /**
+     * Создает поток чтения байтов и символов файла с размером окна по умолчанию.
+     * @param path путь файла.
+     * @param charset кодировка символов файла, например, StandardCharsets.UTF_8.
+     * @throws IOException если при открытии файла произошла ошибка ввода-вывода.
+     */
+    public MappedInput(Path path, Charset charset) throws IOException {
+        this(path, charset, AppConstants.MAP_WINDOW_SIZE);
+    }
+
+    /**
+     * Создает поток чтения файла.
+     * @param path путь файла.
+     * @param charset кодировка символов файла ({@code null} - чтение только байтов).
+     * @param windowSize максимальный размер окна отображения в байтах (не меньше 16).
+     * @throws IOException если при открытии файла произошла ошибка ввода-вывода.
+     */
+    public MappedInput(Path path, Charset charset, int windowSize) throws IOException {
+        if (windowSize < 16) {
+            throw new IllegalArgumentException("Размер окна отображения должен быть не меньше 16 байт.");
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.decoder = charset == null ? null : charset.newDecoder();
+        this.windowSize = windowSize;
+        try {
+            this.size = channel.size();
+            map(0);
+        }
+        catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Получает размер файла.
+     * @return размер файла в байтах.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Получает позицию следующего читаемого байта в файле.
+     * @return позиция в файле.
+     */
+    public long position() {
+        return windowStart + window.position();
+    }
+
+    /**
+     * Перемещает позицию чтения (окно отображается заново с заданной позиции, если она вне текущего окна).
+     * Состояние декодера символов сбрасывается.
+     * @param position новая позиция в файле (от 0 до размера файла).
+     * @throws IOException если при отображении произошла ошибка ввода-вывода.
+     */
+    public void position(long position) throws IOException {
+        if (position < 0 || position > size) {
+            throw new IllegalArgumentException("Позиция должна быть от 0 до " + size + ".");
+        }
+        if (position >= windowStart && position <= windowStart + window.limit()) {
+            window.position((int) (position - windowStart));
+        }
+        else {
+            map(position);
+        }
+        if (decoder != null) {
+            decoder.reset();
+            isFlushing = false;
+            isDecoded = false;
+            hasPendingChar = false;
+        }
+    }
+
+    /**
+     * Отображает окно файла, начинающееся с заданной позиции.
+     * @param position позиция начала окна.
+     * @throws IOException если при отображении произошла ошибка ввода-вывода.
+     */
+    private void map(long position) throws IOException {
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, size - position));
+        windowStart = position;
+    }
+
+    /**
+     * Проверяет, что текущее окно - последнее окно файла.
+     * @return признак последнего окна.
+     */
+    private boolean isLastWindow() {
+        return windowStart + window.limit() == size;
+    }
+
+    /**
+     * Получает текущее окно с непрочитанными байтами, отображая следующее окно, если текущее прочитано.
+     * Байты читаются непосредственно из окна ({@code get}); позиция окна - позиция чтения потока.
+     * @return окно с непрочитанными байтами или {@code null}, если файл прочитан полностью.
+     * @throws IOException если при отображении произошла ошибка ввода-вывода.
+     */
+    public ByteBuffer getBytes() throws IOException {
+        if (!window.hasRemaining()) {
+            if (isLastWindow()) {
+                return null;
+            }
+            map(windowStart + window.limit());
+        }
+        return window;
+    }
+
+    /**
+     * Читает байты в массив.
+     * @param bytes массив для прочитанных байтов.
+     * @param offset позиция массива для первого прочитанного байта.
+     * @param length максимальное количество читаемых байтов.
+     * @return количество прочитанных байтов или -1, если файл прочитан полностью.
+     * @throws IOException если при отображении произошла ошибка ввода-вывода.
+     */
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        ByteBuffer buffer = getBytes();
+        if (buffer == null) {
+            return -1;
+        }
+        int n = Math.min(length, buffer.remaining());
+        buffer.get(bytes, offset, n);
+        return n;
+    }
+
+    /**
+     * Обновляет контрольную сумму заданным количеством байтов с текущей позиции непосредственно из окон отображения.
+     * Позиция чтения перемещается за эти байты.
+     * @param checksum контрольная сумма, например, {@code CRC32C}.
+     * @param length количество байтов.
+     * @throws IOException если при отображении произошла ошибка ввода-вывода, или файл короче заданного количества байтов.
+     */
+    public void update(Checksum checksum, long length) throws IOException {
+        while (length > 0) {
+            ByteBuffer buffer = getBytes();
+            if (buffer == null) {
+                throw new EOFException("Неожиданный конец файла.");
+            }
+            int n = (int) Math.min(length, buffer.remaining());
+            int limit = buffer.limit();
+            buffer.limit(buffer.position() + n);
+            checksum.update(buffer);
+            buffer.limit(limit);
+            length -= n;
+        }
+    }
+
+    /**
+     * Читает символы, декодируя байты окон в кодировке потока, до заполнения массива или до конца файла.
+     * @param chars массив для прочитанных символов UTF-16.
+     * @param offset позиция массива для первого прочитанного символа.
+     * @param length максимальное количество читаемых символов.
+     * @return количество прочитанных символов или -1, если файл прочитан полностью.
+     * @throws IOException если при отображении произошла ошибка ввода-вывода, или файл содержит некорректные символы.
+     */
+    public int read(char[] chars, int offset, int length) throws IOException {
+        if (decoder == null) {
+            throw new IllegalStateException("Кодировка символов потока не задана.");
+        }
+        if (length == 0) {
+            return 0;
+        }
+        if (hasPendingChar) {
+            hasPendingChar = false;
+            chars[offset] = pendingChar;
+            return 1;
+        }
+        CharBuffer out = CharBuffer.wrap(chars, offset, length);
+        while (out.hasRemaining() && !isDecoded) {
+            boolean isLast = isLastWindow();
+            CoderResult result = isFlushing ? decoder.flush(out) : decoder.decode(window, out, isLast);
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (result.isOverflow()) {
+                if (out.position() == offset) {
+                    decodePair(out, isLast);
+                }
+                break;
+            }
+            if (isFlushing) {
+                isDecoded = true;
+            }
+            else if (isLast) {
+                isFlushing = true;
+            }
+            else {
+                // Окно декодировано (кроме неполного символа в конце): следующее окно начинается с первого недекодированного байта
+                map(windowStart + window.position());
+            }
+        }
+        int n = out.position() - offset;
+        return n == 0 && isDecoded ? -1 : n;
+    }
+
+    /**
+     * Декодирует суррогатную пару UTF-16, не поместившуюся в массив из одного символа:
+     * первый символ пары записывается в массив, второй сохраняется до следующего чтения.
+     * @param out буфер массива символов (один свободный символ).
+     * @param isLast признак последнего окна.
+     * @throws IOException если файл содержит некорректные символы.
+     */
+    private void decodePair(CharBuffer out, boolean isLast) throws IOException {
+        CharBuffer pair = CharBuffer.allocate(2);
+        CoderResult result = isFlushing ? decoder.flush(pair) : decoder.decode(window, pair, isLast);
+        if (result.isError()) {
+            result.throwException();
+        }
+        pair.flip();
+        out.put(pair.get());
+        if (pair.hasRemaining()) {
+            pendingChar = pair.get();
+            hasPendingChar = true;
+        }
+    }
+
+    /**
+     * Получает представление потока как {@code InputStream}. Закрытие представления закрывает поток.
+     * @return поток байтов, читающий из окон отображения без дополнительной буферизации.
+     */
+    public InputStream asInputStream() {
+        if (stream == null) {
+            stream = new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    ByteBuffer buffer = getBytes();
+                    return buffer == null ? -1 : buffer.get() & 0xFF;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    return MappedInput.this.read(b, off, len);
+                }
+
+                @Override
+                public int available() {
+                    return (int) Math.min(Integer.MAX_VALUE, size - position());
+                }
+
+                @Override
+                public void close() throws IOException {
+                    MappedInput.this.close();
+                }
+            };
+        }
+        return stream;
+    }
+
+    /**
+     * Закрывает канал файла. Отображенные окна освобождаются сборщиком мусора.
+     * @throws IOException если при закрытии произошла ошибка ввода-вывода.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,359 @@
+package utils.output;
+
+import utils.constants.AppConstants;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Буферизованный поток вывода в канал файла (FileChannel output).
+ * Байты и закодированные символы накапливаются в повторно используемом прямом буфере {@code ByteBuffer}
+ * заданного размера и записываются в канал целыми буферами; массивы больше буфера записываются в канал напрямую.
+ * Строки кодируются в буфер без промежуточных массивов байтов одним кодировщиком на все время жизни потока,
+ * поэтому кодировки с состоянием (например, UTF-16 с меткой порядка байтов) записывают метку один раз,
+ * а завершение кодирования выполняется при закрытии потока.
+ * Сброс буфера выполняется по правилу {@code FlushPolicy}, явным вызовом {@code flush} и при закрытии потока.
+ * Как {@code OutputDecorator} поток используется в {@code DualOutput} для вывода в файл.
+ */
+public class ChannelOutput extends OutputDecorator implements AutoCloseable {
+    /**
+     * Канал файла.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Прямой буфер записи.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Кодировщик символов.
+     */
+    private final CharsetEncoder encoder;
+
+    /**
+     * Правило сброса буфера.
+     */
+    private final FlushPolicy flushPolicy;
+
+    /**
+     * Старший суррогат, отложенный до следующего вывода символов (суррогатная пара разделена между вызовами).
+     */
+    private char pendingChar;
+
+    /**
+     * Признак отложенного старшего суррогата.
+     */
+    private boolean hasPendingChar;
+
+    /**
+     * Количество байтов, записанных в поток (включая байты в буфере).
+     */
+    private long bytesWritten;
+
+    /**
+     * Представление потока как {@code OutputStream} (создается при первом обращении).
+     */
+    private OutputStream stream;
+
+    /**
+     * Создает поток вывода в файл с буфером и правилом сброса по умолчанию.
+     * Существующий файл перезаписывается.
+     * @param path путь файла.
+     * @param charset кодировка символов файла, например, StandardCharsets.UTF_8.
+     * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода.
+     */
+    public ChannelOutput(Path path, Charset charset) throws IOException {
+        this(path, charset, AppConstants.CHANNEL_BUFFER_SIZE, FlushPolicy.ON_FULL);
+    }
+
+    /**
+     * Создает поток вывода в файл.
+     * Существующий файл перезаписывается.
+     * @param path путь файла.
+     * @param charset кодировка символов файла, например, StandardCharsets.UTF_8.
+     * @param bufferSize размер буфера в байтах (не меньше 16).
+     * @param flushPolicy правило сброса буфера.
+     * @throws IOException если при открытии или создании файла произошла ошибка ввода-вывода.
+     */
+    public ChannelOutput(Path path, Charset charset, int bufferSize, FlushPolicy flushPolicy) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING),
+                charset, bufferSize, flushPolicy);
+    }
+
+    /**
+     * Создает поток вывода в заданный канал с текущей позиции канала.
+     * Канал закрывается при закрытии потока.
+     * @param channel канал файла, открытый для записи.
+     * @param charset кодировка символов файла, например, StandardCharsets.UTF_8.
+     * @param bufferSize размер буфера в байтах (не меньше 16).
+     * @param flushPolicy правило сброса буфера.
+     */
+    public ChannelOutput(FileChannel channel, Charset charset, int bufferSize, FlushPolicy flushPolicy) {
+        if (bufferSize < 16) {
+            throw new IllegalArgumentException("Размер буфера должен быть не меньше 16 байт.");
+        }
+        if (flushPolicy == null) {
+            throw new IllegalArgumentException("Правило сброса буфера не задано.");
+        }
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.flushPolicy = flushPolicy;
+    }
+
+    /**
+     * Получает количество байтов, записанных в поток (включая еще не сброшенные в канал).
+     * @return количество байтов.
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Записывает байт.
+     * @param b байт (младшие 8 бит).
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    public void write(int b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put((byte) b);
+        bytesWritten++;
+        afterWrite(false);
+    }
+
+    /**
+     * Записывает массив байтов.
+     * @param bytes массив байтов.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    public void write(byte[] bytes) throws IOException {
+        write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Записывает часть массива байтов.
+     * @param bytes массив байтов.
+     * @param offset индекс первого байта.
+     * @param length количество байтов.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        write(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    /**
+     * Записывает оставшиеся байты заданного буфера (позиция буфера перемещается в его предел).
+     * Если байтов больше, чем помещается в буфер потока, то они записываются в канал напрямую.
+     * @param src буфер байтов.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    public void write(ByteBuffer src) throws IOException {
+        int length = src.remaining();
+        bytesWritten += length;
+        if (length > buffer.remaining()) {
+            drain();
+            if (length >= buffer.capacity()) {
+                while (src.hasRemaining()) {
+                    channel.write(src);
+                }
+                return;
+            }
+        }
+        buffer.put(src);
+        afterWrite(false);
+    }
+
+    /**
+     * Записывает символы, закодированные в кодировке потока, непосредственно в буфер.
+     * @param chars массив символов.
+     * @param offset индекс первого символа.
+     * @param length количество символов.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    public void write(char[] chars, int offset, int length) throws IOException {
+        encode(CharBuffer.wrap(chars, offset, length));
+        afterWrite(false);
+    }
+
+    /**
+     * Кодирует символы в буфер, сбрасывая заполненный буфер в канал.
+     * Старший суррогат в конце символов откладывается и кодируется вместе с первым символом следующего вызова.
+     * @param chars символы.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    private void encode(CharBuffer chars) throws IOException {
+        while (hasPendingChar && chars.hasRemaining()) {
+            CharBuffer pair = CharBuffer.wrap(new char[] {pendingChar, chars.get()});
+            hasPendingChar = false;
+            encode(pair, false);
+        }
+        if (!hasPendingChar) {
+            encode(chars, false);
+        }
+    }
+
+    /**
+     * Кодирует символы в буфер, сбрасывая заполненный буфер в канал.
+     * @param chars символы.
+     * @param endOfInput признак последних символов потока (при закрытии).
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    private void encode(CharBuffer chars, boolean endOfInput) throws IOException {
+        while (true) {
+            int start = buffer.position();
+            CoderResult result = encoder.encode(chars, buffer, endOfInput);
+            bytesWritten += buffer.position() - start;
+            if (result.isOverflow()) {
+                drain();
+            }
+            else if (result.isError()) {
+                result.throwException();
+            }
+            else {
+                break;
+            }
+        }
+        if (chars.hasRemaining()) {
+            // Кодировщик ожидает младший суррогат следующего вызова
+            pendingChar = chars.get();
+            hasPendingChar = true;
+        }
+    }
+
+    /**
+     * Завершает кодирование символов: кодирует отложенный суррогат и записывает завершающие байты кодировщика.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    private void finishEncoding() throws IOException {
+        CharBuffer rest = hasPendingChar ? CharBuffer.wrap(new char[] {pendingChar}) : CharBuffer.allocate(0);
+        hasPendingChar = false;
+        encode(rest, true);
+        while (true) {
+            int start = buffer.position();
+            CoderResult result = encoder.flush(buffer);
+            bytesWritten += buffer.position() - start;
+            if (!result.isOverflow()) {
+                break;
+            }
+            drain();
+        }
+    }
+
+    /**
+     * Сбрасывает буфер после операции вывода в соответствии с правилом сброса.
+     * @param isLine признак вывода строки {@code println}.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    private void afterWrite(boolean isLine) throws IOException {
+        if (flushPolicy == FlushPolicy.ON_WRITE || (isLine && flushPolicy == FlushPolicy.ON_LINE)) {
+            drain();
+        }
+    }
+
+    /**
+     * Записывает содержимое буфера в канал и очищает буфер.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Записывает содержимое буфера в канал.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    public void flush() throws IOException {
+        drain();
+    }
+
+    /**
+     * Получает представление потока как {@code OutputStream} для кода, работающего с потоками байтов
+     * (например, {@code DataOutputStream} или {@code HfmBitWriter}). Закрытие представления закрывает поток.
+     * @return поток байтов, записывающий в этот поток без дополнительной буферизации.
+     */
+    public OutputStream asOutputStream() {
+        if (stream == null) {
+            stream = new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    ChannelOutput.this.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    ChannelOutput.this.write(b, off, len);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    ChannelOutput.this.flush();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    ChannelOutput.this.close();
+                }
+            };
+        }
+        return stream;
+    }
+
+    @Override
+    public void print(String message) {
+        try {
+            encode(CharBuffer.wrap(message));
+            afterWrite(false);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void println(String message) {
+        try {
+            encode(CharBuffer.wrap(message + System.lineSeparator()));
+            afterWrite(true);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Завершает кодирование символов, сбрасывает буфер и закрывает канал файла.
+     * @throws IOException если при записи или закрытии произошла ошибка ввода-вывода.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            finishEncoding();
+            drain();
+        }
+        finally {
+            channel.close();
+        }
+    }
+}
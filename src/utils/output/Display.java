@@ -65,4 +65,17 @@ public class Display extends BaseDisplay {
     public void display(String fileName) throws IOException {
         display(fileName, AppConstants.STD_CHARSET);
     }
+
+    /**
+     * Выводит в заданный поток вывода в канал файла.
+     * Поток не закрывается, поэтому в один поток можно последовательно вывести несколько объектов.
+     * @param channelOutput поток вывода в канал файла.
+     */
+    public void display(ChannelOutput channelOutput) {
+        try(DualOutput out = new DualOutput(channelOutput)) {
+            out.setHeader(header);
+            out.setFooter(footer);
+            output.display(out);
+        }
+    }
 }
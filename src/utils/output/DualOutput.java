@@ -1,17 +1,18 @@
 package utils.output;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintStream;
-import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
 
 /**
  * Как Декоратор реализует Выбор потока вывода в зависимости от параметров конструктора {@code DualOutput}.
  * Унифицирует вывод в поток как для отдельного объекта, так и для связанных объектов,
  * с передачей выбранного потока по цепочке вывода.
  * При работе с {@code DualOutput}, реализующим AutoCloseable, рекомендуется
- * использовать try-with-resources для корректного закрытия ресурса {@code PrintWriter}.
+ * использовать try-with-resources для корректного закрытия ресурса {@code ChannelOutput}.
+ * Вывод в файл выполняется через буферизованный поток вывода в канал файла {@code ChannelOutput}.
  */
 public class DualOutput extends OutputDecorator implements AutoCloseable {
     /**
@@ -22,7 +23,12 @@ public class DualOutput extends OutputDecorator implements AutoCloseable {
     /**
      * Поток вывода в файл.
      */
-    private PrintWriter fileWriter;
+    private ChannelOutput fileWriter;
+
+    /**
+     * Признак владения потоком вывода в файл (поток закрывается вместе с {@code DualOutput}).
+     */
+    private boolean isOwner;
 
     /**
      * Выбор потока вывода:
@@ -66,7 +72,19 @@ public class DualOutput extends OutputDecorator implements AutoCloseable {
      */
     public DualOutput(String fileName, Charset charset) throws IOException {
         useFile = true;
-        fileWriter = new PrintWriter(new FileWriter(fileName, charset));
+        fileWriter = new ChannelOutput(Path.of(fileName), charset);
+        isOwner = true;
+    }
+
+    /**
+     * Создает поток вывода в заданный поток вывода в канал файла.
+     * Заданный поток при закрытии {@code DualOutput} только сбрасывается, но не закрывается.
+     * @param channelOutput поток вывода в канал файла.
+     */
+    public DualOutput(ChannelOutput channelOutput) {
+        useFile = true;
+        fileWriter = channelOutput;
+        isOwner = false;
     }
 
     /**
@@ -160,8 +178,17 @@ public class DualOutput extends OutputDecorator implements AutoCloseable {
     @Override
     public void close() {
         if(fileWriter != null) {
-            fileWriter.flush();
-            fileWriter.close();
+            try {
+                if(isOwner) {
+                    fileWriter.close();
+                }
+                else {
+                    fileWriter.flush();
+                }
+            }
+            catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
         }
     }
 }
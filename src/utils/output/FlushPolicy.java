@@ -0,0 +1,21 @@
+package utils.output;
+
+/**
+ * Правило сброса буфера потока вывода {@code ChannelOutput} в канал файла.
+ */
+public enum FlushPolicy {
+    /**
+     * Буфер сбрасывается только при заполнении, явном вызове {@code flush} и закрытии потока.
+     */
+    ON_FULL,
+
+    /**
+     * Буфер дополнительно сбрасывается после каждого вывода строки {@code println}.
+     */
+    ON_LINE,
+
+    /**
+     * Буфер сбрасывается после каждой операции вывода.
+     */
+    ON_WRITE
+}
@@ -78,4 +78,19 @@ public class IntDisplay extends BaseDisplay {
     public void display(int blanks, String fileName) throws IOException {
         display(blanks, fileName, AppConstants.STD_CHARSET);
     }
+
+    /**
+     * Выводит в заданный поток вывода в канал файла.
+     * Поток не закрывается, поэтому в один поток можно последовательно вывести несколько объектов.
+     * @param blanks двоичное значение количества пробелов позиционирования дерева, начиная с корневого узла дерева.
+     *              При значении 0 (или меньше 0) производится автоматический расчет значения {@code blanks}.
+     * @param channelOutput поток вывода в канал файла.
+     */
+    public void display(int blanks, ChannelOutput channelOutput) {
+        try(DualOutput out = new DualOutput(channelOutput)) {
+            out.setHeader(header);
+            out.setFooter(footer);
+            output.display(blanks, out);
+        }
+    }
 }